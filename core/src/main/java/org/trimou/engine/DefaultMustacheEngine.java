@@ -21,11 +21,14 @@ import static org.trimou.util.Checker.checkArgumentNotNull;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 
 import org.slf4j.Logger;
@@ -42,6 +45,7 @@ import org.trimou.engine.locator.TemplateLocator;
 import org.trimou.engine.parser.ParserFactory;
 import org.trimou.engine.parser.ParsingHandler;
 import org.trimou.engine.parser.ParsingHandlerFactory;
+import org.trimou.engine.text.TextProcessor;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
 import org.trimou.util.IOUtils;
@@ -60,6 +64,11 @@ class DefaultMustacheEngine implements MustacheEngine {
 
     private final ComputingCache<String, Optional<String>> sourceCache;
 
+    // Null if revalidation is disabled
+    private final TemplateRevisions templateRevisions;
+
+    private final TemplateRevisions sourceRevisions;
+
     private final Configuration configuration;
 
     private final ParserFactory parserFactory;
@@ -76,6 +85,8 @@ class DefaultMustacheEngine implements MustacheEngine {
         parsingHandlerFactory = null;
         templateCache = null;
         sourceCache = null;
+        templateRevisions = null;
+        sourceRevisions = null;
     }
 
     /**
@@ -92,15 +103,23 @@ class DefaultMustacheEngine implements MustacheEngine {
                 .getBooleanPropertyValue(EngineConfigurationKey.DEBUG_MODE)) {
             templateCache = null;
             sourceCache = null;
+            templateRevisions = null;
+            sourceRevisions = null;
             LOGGER.warn(
                     "Attention! Debug mode enabled: template cache disabled, additional logging enabled");
         } else {
             if (configuration.getBooleanPropertyValue(
                     EngineConfigurationKey.TEMPLATE_CACHE_ENABLED)) {
+                templateRevisions = buildTemplateRevisions("Template");
                 templateCache = buildTemplateCache();
-                sourceCache = configuration.getBooleanPropertyValue(
-                        EngineConfigurationKey.TEMPLATE_CACHE_USED_FOR_SOURCE)
-                                ? buildSourceCache() : null;
+                if (configuration.getBooleanPropertyValue(
+                        EngineConfigurationKey.TEMPLATE_CACHE_USED_FOR_SOURCE)) {
+                    sourceRevisions = buildTemplateRevisions("Source");
+                    sourceCache = buildSourceCache();
+                } else {
+                    sourceRevisions = null;
+                    sourceCache = null;
+                }
                 if (configuration.getBooleanPropertyValue(
                         EngineConfigurationKey.PRECOMPILE_ALL_TEMPLATES)) {
                     precompileTemplates();
@@ -108,6 +127,8 @@ class DefaultMustacheEngine implements MustacheEngine {
             } else {
                 templateCache = null;
                 sourceCache = null;
+                templateRevisions = null;
+                sourceRevisions = null;
                 LOGGER.info("Template cache explicitly disabled!");
             }
         }
@@ -116,13 +137,13 @@ class DefaultMustacheEngine implements MustacheEngine {
     public Mustache getMustache(String templateId) {
         checkArgumentNotEmpty(templateId);
         return templateCache != null ? getTemplateFromCache(templateId)
-                : locateAndParse(templateId);
+                : locateAndParse(templateId, null);
     }
 
     public String getMustacheSource(String templateId) {
         checkArgumentNotEmpty(templateId);
         return sourceCache != null ? getSourceFromCache(templateId)
-                : locateAndRead(templateId);
+                : locateAndRead(templateId, null);
     }
 
     public Mustache compileMustache(String templateId, String templateContent) {
@@ -146,6 +167,12 @@ class DefaultMustacheEngine implements MustacheEngine {
             if (sourceCache != null) {
                 sourceCache.clear();
             }
+            if (templateRevisions != null) {
+                templateRevisions.clear();
+            }
+            if (sourceRevisions != null) {
+                sourceRevisions.clear();
+            }
         }
     }
 
@@ -172,7 +199,7 @@ class DefaultMustacheEngine implements MustacheEngine {
     private ComputingCache<String, Optional<Mustache>> buildTemplateCache() {
         return buildCache("Template",
                 key ->
-                        Optional.ofNullable(locateAndParse(key)),
+                        Optional.ofNullable(locateAndParse(key, templateRevisions)),
                 (key, cause) ->
                         LOGGER.debug("Removed template from cache [templateId: {}, cause: {}]", key, cause));
     }
@@ -184,7 +211,7 @@ class DefaultMustacheEngine implements MustacheEngine {
     private ComputingCache<String, Optional<String>> buildSourceCache() {
         return buildCache("Source",
                 key ->
-                        Optional.ofNullable(locateAndRead(key)),
+                        Optional.ofNullable(locateAndRead(key, sourceRevisions)),
                 (key, cause) ->
                         LOGGER.debug("Removed template source from cache [templateId: {}, cause: {}]", key, cause));
     }
@@ -207,6 +234,17 @@ class DefaultMustacheEngine implements MustacheEngine {
                 expirationTimeout, null, listener);
     }
 
+    private TemplateRevisions buildTemplateRevisions(String name) {
+        long revalidationInterval = configuration.getLongPropertyValue(
+                EngineConfigurationKey.TEMPLATE_CACHE_REVALIDATION_INTERVAL);
+        if (revalidationInterval < 0) {
+            return null;
+        }
+        LOGGER.info("{} cache revalidation interval set: {} seconds", name,
+                revalidationInterval);
+        return new TemplateRevisions(revalidationInterval * 1000L);
+    }
+
     private void precompileTemplates() {
         Set<String> templateNames = new HashSet<>();
         for (TemplateLocator locator : configuration.getTemplateLocators()) {
@@ -219,32 +257,48 @@ class DefaultMustacheEngine implements MustacheEngine {
 
     private Mustache parse(String templateId, Reader reader) {
         ParsingHandler handler = parsingHandlerFactory.createParsingHandler();
-        reader = notifyListenersBeforeParsing(templateId, reader);
+        DefaultMustacheParsingEvent parsingEvent = notifyListenersBeforeParsing(
+                templateId, reader);
+        if (parsingEvent != null) {
+            reader = parsingEvent.getMustacheContents();
+            if (parsingEvent.textProcessors != null) {
+                handler.setTextProcessor(parsingEvent::processText);
+            }
+        }
         parserFactory.createParser(this).parse(templateId, reader, handler);
         Mustache mustache = handler.getCompiledTemplate();
-        notifyListenersAfterCompilation(mustache);
+        notifyListenersAfterCompilation(mustache,
+                parsingEvent != null ? parsingEvent.textLengthSaved : 0);
         return mustache;
     }
 
-    private Reader locate(String templateId) {
+    private Reader locate(String templateId, TemplateRevisions revisions) {
         List<TemplateLocator> locators = configuration.getTemplateLocators();
         if (locators == null || locators.isEmpty()) {
             return null;
         }
         Reader reader = null;
         for (TemplateLocator locator : locators) {
+            // Get the timestamp first so that a modification made while
+            // reading the template is not missed
+            long lastModified = revisions != null
+                    ? locator.getLastModified(templateId) : 0L;
             reader = locator.locate(templateId);
             if (reader != null) {
+                if (revisions != null) {
+                    revisions.add(templateId, locator, lastModified);
+                }
                 break;
             }
         }
         return reader;
     }
 
-    private Mustache locateAndParse(String templateId) {
+    private Mustache locateAndParse(String templateId,
+            TemplateRevisions revisions) {
         Reader reader = null;
         try {
-            reader = locate(templateId);
+            reader = locate(templateId, revisions);
             if (reader == null) {
                 return null;
             }
@@ -254,10 +308,11 @@ class DefaultMustacheEngine implements MustacheEngine {
         }
     }
 
-    private String locateAndRead(String templateId) {
+    private String locateAndRead(String templateId,
+            TemplateRevisions revisions) {
         Reader reader = null;
         try {
-            reader = locate(templateId);
+            reader = locate(templateId, revisions);
             if (reader == null) {
                 return null;
             }
@@ -280,24 +335,25 @@ class DefaultMustacheEngine implements MustacheEngine {
         }
     }
 
-    private Reader notifyListenersBeforeParsing(String templateName,
-            Reader reader) {
+    private DefaultMustacheParsingEvent notifyListenersBeforeParsing(
+            String templateName, Reader reader) {
         if (configuration.getMustacheListeners() != null) {
-            MustacheParsingEvent event = new DefaultMustacheParsingEvent(
+            DefaultMustacheParsingEvent event = new DefaultMustacheParsingEvent(
                     templateName, reader);
             for (MustacheListener listener : configuration
                     .getMustacheListeners()) {
                 listener.parsingStarted(event);
             }
-            return event.getMustacheContents();
+            return event;
         }
-        return reader;
+        return null;
     }
 
-    private void notifyListenersAfterCompilation(Mustache mustache) {
+    private void notifyListenersAfterCompilation(Mustache mustache,
+            long textLengthSaved) {
         if (configuration.getMustacheListeners() != null) {
             MustacheCompilationEvent event = new DefaultMustacheCompilationEvent(
-                    mustache);
+                    mustache, textLengthSaved);
             for (MustacheListener listener : configuration
                     .getMustacheListeners()) {
                 listener.compilationFinished(event);
@@ -306,6 +362,10 @@ class DefaultMustacheEngine implements MustacheEngine {
     }
 
     private Mustache getTemplateFromCache(String templateName) {
+        if (templateRevisions != null
+                && templateRevisions.isModified(templateName)) {
+            templateCache.invalidate(templateName::equals);
+        }
         try {
             return templateCache.get(templateName).orElse(null);
         } catch (Exception e) {
@@ -314,6 +374,10 @@ class DefaultMustacheEngine implements MustacheEngine {
     }
 
     private String getSourceFromCache(String templateName) {
+        if (sourceRevisions != null
+                && sourceRevisions.isModified(templateName)) {
+            sourceCache.invalidate(templateName::equals);
+        }
         try {
             return sourceCache.get(templateName).orElse(null);
         } catch (Exception e) {
@@ -330,6 +394,78 @@ class DefaultMustacheEngine implements MustacheEngine {
                 cause);
     }
 
+    /**
+     * Keeps the last modification timestamps of the cached templates.
+     *
+     * @see TemplateLocator#getLastModified(String)
+     */
+    private static class TemplateRevisions {
+
+        private final long interval;
+
+        private final ConcurrentMap<String, Revision> revisions;
+
+        /**
+         *
+         * @param interval
+         *            The minimal interval between two checks in milliseconds
+         */
+        TemplateRevisions(long interval) {
+            this.interval = interval;
+            this.revisions = new ConcurrentHashMap<>();
+        }
+
+        void add(String templateId, TemplateLocator locator,
+                long lastModified) {
+            if (lastModified > 0) {
+                revisions.put(templateId, new Revision(locator, lastModified));
+            } else {
+                // Revalidation not supported
+                revisions.remove(templateId);
+            }
+        }
+
+        boolean isModified(String templateId) {
+            Revision revision = revisions.get(templateId);
+            if (revision == null) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (now - revision.lastChecked < interval) {
+                return false;
+            }
+            revision.lastChecked = now;
+            if (revision.locator
+                    .getLastModified(templateId) != revision.lastModified) {
+                LOGGER.debug("Template modified [templateId: {}]", templateId);
+                revisions.remove(templateId, revision);
+                return true;
+            }
+            return false;
+        }
+
+        void clear() {
+            revisions.clear();
+        }
+
+    }
+
+    private static class Revision {
+
+        private final TemplateLocator locator;
+
+        private final long lastModified;
+
+        private volatile long lastChecked;
+
+        Revision(TemplateLocator locator, long lastModified) {
+            this.locator = locator;
+            this.lastModified = lastModified;
+            this.lastChecked = System.currentTimeMillis();
+        }
+
+    }
+
     /**
      *
      * @author Martin Kouba
@@ -339,9 +475,13 @@ class DefaultMustacheEngine implements MustacheEngine {
 
         private final Mustache mustache;
 
-        public DefaultMustacheCompilationEvent(Mustache mustache) {
+        private final long textLengthSaved;
+
+        public DefaultMustacheCompilationEvent(Mustache mustache,
+                long textLengthSaved) {
             super();
             this.mustache = mustache;
+            this.textLengthSaved = textLengthSaved;
         }
 
         @Override
@@ -349,6 +489,11 @@ class DefaultMustacheEngine implements MustacheEngine {
             return mustache;
         }
 
+        @Override
+        public long getTextLengthSaved() {
+            return textLengthSaved;
+        }
+
     }
 
     /**
@@ -362,6 +507,10 @@ class DefaultMustacheEngine implements MustacheEngine {
 
         private Reader reader;
 
+        private List<TextProcessor> textProcessors;
+
+        private long textLengthSaved;
+
         public DefaultMustacheParsingEvent(String mustacheName, Reader reader) {
             super();
             this.mustacheName = mustacheName;
@@ -382,6 +531,24 @@ class DefaultMustacheEngine implements MustacheEngine {
             this.reader = reader;
         }
 
+        @Override
+        public void addTextProcessor(TextProcessor processor) {
+            checkArgumentNotNull(processor);
+            if (textProcessors == null) {
+                textProcessors = new ArrayList<>();
+            }
+            textProcessors.add(processor);
+        }
+
+        String processText(String text) {
+            String processed = text;
+            for (TextProcessor processor : textProcessors) {
+                processed = processor.process(processed);
+            }
+            textLengthSaved += text.length() - processed.length();
+            return processed;
+        }
+
     }
 
 }
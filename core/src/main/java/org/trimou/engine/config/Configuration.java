@@ -48,6 +48,20 @@ public interface Configuration {
      */
     List<Resolver> getResolvers();
 
+    /**
+     *
+     * @param contextObjectType
+     *            The type of the context object, or <code>null</code> for
+     *            context-unrelated lookups
+     * @return the ordered immutable list of resolvers which may be applicable
+     *         for the given type of context object
+     * @see Resolver#appliesTo(Class)
+     * @since 2.5
+     */
+    default List<Resolver> getResolvers(Class<?> contextObjectType) {
+        return getResolvers();
+    }
+
     /**
      * @return the immutable map of global values, or <code>null</code> if no global
      *         values defined
@@ -33,6 +33,7 @@ import java.util.concurrent.ExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.cache.ComputingCacheFactory;
 import org.trimou.engine.cache.DefaultComputingCacheFactory;
 import org.trimou.engine.convert.ContextConverter;
@@ -59,6 +60,7 @@ import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
 import org.trimou.handlebars.Helper;
 import org.trimou.util.ImmutableList;
+import org.trimou.util.ImmutableList.ImmutableListBuilder;
 import org.trimou.util.ImmutableMap;
 import org.trimou.util.ImmutableMap.ImmutableMapBuilder;
 import org.trimou.util.Strings;
@@ -74,10 +76,17 @@ class DefaultConfiguration implements Configuration {
 
     private static final String RESOURCE_FILE = "/trimou.properties";
 
+    private static final String COMPUTING_CACHE_CONSUMER_ID = DefaultConfiguration.class
+            .getName();
+
     private final List<TemplateLocator> templateLocators;
 
     private final List<Resolver> resolvers;
 
+    private final List<Resolver> contextUnrelatedResolvers;
+
+    private final ComputingCache<Class<?>, List<Resolver>> resolversCache;
+
     private final Map<String, Object> globalData;
 
     private final TextSupport textSupport;
@@ -219,6 +228,10 @@ class DefaultConfiguration implements Configuration {
         removeInvalidComponents(contextConverters);
 
         this.resolvers = ImmutableList.copyOf(resolvers);
+        this.contextUnrelatedResolvers = findApplicableResolvers(null);
+        this.resolversCache = computingCacheFactory.create(
+                COMPUTING_CACHE_CONSUMER_ID, this::findApplicableResolvers,
+                null, null, null);
         this.mustacheListeners = ImmutableList.copyOf(mustacheListeners);
         this.executorService = builder.getExecutorService();
         this.valueConverters = ImmutableList.copyOf(valueConverters);
@@ -230,6 +243,12 @@ class DefaultConfiguration implements Configuration {
         return resolvers;
     }
 
+    @Override
+    public List<Resolver> getResolvers(Class<?> contextObjectType) {
+        return contextObjectType != null ? resolversCache.get(contextObjectType)
+                : contextUnrelatedResolvers;
+    }
+
     @Override
     public Map<String, Object> getGlobalData() {
         return globalData;
@@ -401,6 +420,16 @@ class DefaultConfiguration implements Configuration {
         }
     }
 
+    private List<Resolver> findApplicableResolvers(Class<?> contextObjectType) {
+        ImmutableListBuilder<Resolver> builder = ImmutableList.builder();
+        for (Resolver resolver : resolvers) {
+            if (resolver.appliesTo(contextObjectType)) {
+                builder.add(resolver);
+            }
+        }
+        return builder.build();
+    }
+
     private List<Resolver> initResolvers(MustacheEngineBuilder builder) {
         Set<Resolver> builderResolvers = builder.buildResolvers();
         if (builderResolvers.isEmpty()) {
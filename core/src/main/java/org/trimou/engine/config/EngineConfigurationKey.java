@@ -94,6 +94,15 @@ public enum EngineConfigurationKey implements ConfigurationKey {
      * values mean no timeout.
      */
     TEMPLATE_CACHE_EXPIRATION_TIMEOUT(0L),
+    /**
+     * The minimal interval in seconds between two checks whether a cached
+     * template was modified. Zero means the check is performed for every
+     * template lookup, negative values mean no revalidation.
+     *
+     * @see org.trimou.engine.locator.TemplateLocator#getLastModified(String)
+     * @since 2.5
+     */
+    TEMPLATE_CACHE_REVALIDATION_INTERVAL(-1L),
     /**
      * If set to <code>true</code> handlebars-like helpers are supported.
      *
@@ -137,6 +146,72 @@ public enum EngineConfigurationKey implements ConfigurationKey {
      * @see MustacheEngine#getMustacheSource(String)
      */
     TEMPLATE_CACHE_USED_FOR_SOURCE(false),
+    /**
+     * If set to <code>true</code> the content of a section is only compiled
+     * when the section is executed for the first time. This may significantly
+     * reduce the compilation time and memory footprint of large templates with
+     * rarely executed sections. On the other hand, some compilation problems
+     * (e.g. helper validation failures) inside a section are not detected until
+     * the section is executed.
+     */
+    LAZY_SECTION_COMPILATION(false),
+    /**
+     * If set to <code>true</code> the identical text content (text segments,
+     * line separators) of all the templates compiled by the engine is
+     * deduplicated to conserve memory.
+     */
+    INTERN_TEXT_SEGMENTS(false),
+    /**
+     * If set to <code>true</code> each tag remembers the result of the
+     * context-unrelated lookup of its leading key, i.e. the resolver which
+     * resolved the key against <code>null</code>, or the fact that no resolver
+     * did. Subsequent misses then skip the resolver chain entirely.
+     * <p>
+     * Should only be enabled if all the context-unrelated resolvers (e.g. CDI
+     * bean resolver) resolve a given name consistently over time.
+     */
+    CONTEXT_UNRELATED_LOOKUP_CACHE_ENABLED(false),
+    /**
+     * The max number of dynamic keys, i.e. keys passed to
+     * {@link org.trimou.handlebars.Options#getValue(String)}, cached per helper
+     * tag. A cached key is only split once and may use a resolver hint. A key
+     * whose slot is already occupied by another key is not cached. 0 - the
+     * cache is disabled.
+     *
+     * @since 2.5
+     */
+    DYNAMIC_KEY_CACHE_SIZE(0),
+    /**
+     * If set to <code>true</code> and no {@link java.util.concurrent.ExecutorService}
+     * is configured, the execution context is backed by a render-scoped array
+     * stack. A modification of the context then reuses the context instance of
+     * the next stack level instead of allocating a new one.
+     * <p>
+     * The stack is only valid in LIFO order: an {@link org.trimou.engine.context.ExecutionContext}
+     * or {@link org.trimou.handlebars.Options} instance must not be used once a
+     * sibling context is pushed, i.e. custom helpers, lambdas and extensions must
+     * not keep a reference to the context (e.g. to use it later in the same
+     * rendering).
+     *
+     * @since 2.5
+     */
+    STACK_EXECUTION_CONTEXT_ENABLED(false),
+    /**
+     * The max size of the caches of resource bundles and resource bundle
+     * values (per locale and key) used by the built-in i18n components. All
+     * the entries of a cache may be removed once the limit is exceeded.
+     *
+     * @since 2.5
+     */
+    RESOURCE_BUNDLE_CACHE_MAX_SIZE(5000L),
+    /**
+     * The max size of the caches of date formats (per locale, time zone and
+     * style or pattern) used by the built-in i18n components. All the entries
+     * of a cache may be removed once the limit is exceeded.
+     *
+     * @since 2.5
+     */
+    DATE_FORMAT_CACHE_MAX_SIZE(500L),
     ;
 
     private Object defaultValue;
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.context;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.convert.ContextConverter;
+import org.trimou.engine.parser.Template;
+import org.trimou.engine.resolver.EnhancedResolver;
+import org.trimou.engine.resolver.EnhancedResolver.Hint;
+import org.trimou.engine.resolver.Placeholder;
+import org.trimou.engine.resolver.Resolver;
+import org.trimou.exception.MustacheException;
+import org.trimou.exception.MustacheProblem;
+
+/**
+ * Abstract execution context - implements the value resolution.
+ *
+ * @author Martin Kouba
+ */
+abstract class AbstractExecutionContext implements ExecutionContext {
+
+    protected final Configuration configuration;
+
+    protected final List<ContextConverter> converters;
+
+    /**
+     *
+     * @param configuration
+     * @param converters
+     */
+    AbstractExecutionContext(Configuration configuration,
+            List<ContextConverter> converters) {
+        this.configuration = configuration;
+        this.converters = converters;
+    }
+
+    @Override
+    public ValueWrapper getValue(String key, String[] keyParts,
+            AtomicReference<Hint> hintRef, ContextUnrelatedLookup lookup) {
+
+        ValueWrapper value = new ValueWrapper(key, getRenderingAttributes());
+        Object lastValue;
+
+        if (keyParts == null || keyParts.length == 0) {
+            Iterator<String> parts = configuration.getKeySplitter().split(key);
+            lastValue = resolveLeadingContextObject(parts.next(), value,
+                    hintRef, lookup);
+            if (lastValue == null) {
+                // Leading context object not found - miss
+                return value;
+            }
+            while (parts.hasNext()) {
+                value.processNextPart();
+                lastValue = resolve(lastValue, parts.next(), value, false);
+                if (lastValue == null) {
+                    // Not found - miss
+                    return value;
+                }
+            }
+        } else {
+            lastValue = resolveLeadingContextObject(keyParts[0], value, hintRef,
+                    lookup);
+            if (lastValue == null) {
+                // Leading context object not found - miss
+                return value;
+            }
+            if (keyParts.length > 1) {
+                for (int i = 1; i < keyParts.length; i++) {
+                    value.processNextPart();
+                    lastValue = resolve(lastValue, keyParts[i], value, false);
+                    if (lastValue == null) {
+                        // Not found - miss
+                        return value;
+                    }
+                }
+            }
+        }
+
+        if (!Placeholder.NULL.equals(lastValue)) {
+            value.set(lastValue);
+        }
+        return value;
+    }
+
+    @Override
+    public ValueWrapper getValue(String key) {
+        return getValue(key, null, null, null);
+    }
+
+    /**
+     * Resolve the name against the context objects on the stack.
+     *
+     * @param name
+     * @param value
+     * @param hintRef
+     * @return the resolved object or <code>null</code>
+     */
+    protected abstract Object resolveContextObject(String name,
+            ValueWrapper value, AtomicReference<Hint> hintRef);
+
+    /**
+     * Resolve the leading context object (the first part of the key). E.g.
+     * <code>foo</code> in <code>{{foo.bar.name}}</code> may identify a property
+     * of some context object on the stack (passed data, section iteration,
+     * nested context, ...), or some context and data unrelated object (e.g. CDI
+     * bean).
+     *
+     * @param name
+     * @param value
+     *            The value wrapper - ResolutionContext
+     * @param hintRef
+     * @param lookup
+     * @return the resolved leading context object
+     * @see Hint
+     */
+    protected Object resolveLeadingContextObject(String name,
+            ValueWrapper value, AtomicReference<Hint> hintRef,
+            ContextUnrelatedLookup lookup) {
+
+        Object leading = resolveContextObject(name, value, hintRef);
+
+        if (leading == null) {
+            // Leading context object not found - try to resolve context
+            // unrelated objects (JNDI lookup, CDI, etc.)
+            Hint hint = hintRef != null ? hintRef.get() : null;
+            if (hint != null) {
+                leading = hint.resolve(null, name, value);
+            }
+            if (leading == null) {
+                leading = lookup != null
+                        ? resolveContextUnrelated(name, value,
+                                hint == null && hintRef != null, lookup)
+                        : resolve(null, name, value,
+                                hint == null && hintRef != null);
+            }
+        }
+        return leading;
+    }
+
+    /**
+     * Resolve the name against <code>null</code>. The last matching resolver is
+     * tried first and a miss is remembered so that subsequent lookups do not
+     * need to walk the resolver chain again.
+     *
+     * @param name
+     * @param value
+     * @param createHint
+     * @param lookup
+     * @return the resolved object or <code>null</code>
+     */
+    protected Object resolveContextUnrelated(String name, ValueWrapper value,
+            boolean createHint, ContextUnrelatedLookup lookup) {
+        Object last = lookup.get();
+        if (last == ContextUnrelatedLookup.MISS) {
+            return null;
+        }
+        if (last != null) {
+            Object resolved = ((Resolver) last).resolve(null, name, value);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        List<Resolver> resolvers = configuration.getResolvers(null);
+        for (int i = 0, size = resolvers.size(); i < size; i++) {
+            Resolver resolver = resolvers.get(i);
+            Object resolved = resolver.resolve(null, name, value);
+            if (resolved != null) {
+                if (createHint && resolver instanceof EnhancedResolver) {
+                    value.setHint(((EnhancedResolver) resolver)
+                            .createHint(null, name, value));
+                }
+                lookup.set(resolver);
+                return resolved;
+            }
+        }
+        lookup.set(ContextUnrelatedLookup.MISS);
+        return null;
+    }
+
+    /**
+     *
+     * @param contextObject
+     * @param name
+     * @param value
+     * @param hintRef
+     * @return the resolved object or <code>null</code>
+     */
+    protected Object resolveContextObject(Object contextObject, String name,
+            ValueWrapper value, AtomicReference<Hint> hintRef) {
+        Object leading = null;
+        Hint hint = hintRef != null ? hintRef.get() : null;
+        if (hint != null) {
+            leading = hint.resolve(contextObject, name, value);
+        }
+        if (leading == null) {
+            leading = resolve(contextObject, name, value, hint == null
+                    && hintRef != null);
+        }
+        return leading;
+    }
+
+    protected Object resolve(Object contextObject, String name,
+            ValueWrapper value, boolean createHint) {
+        Object resolved = null;
+        // Only use the resolvers applicable for the context object type
+        List<Resolver> resolvers = configuration.getResolvers(
+                contextObject != null ? contextObject.getClass() : null);
+        for (int i = 0, size = resolvers.size(); i < size; i++) {
+            Resolver resolver = resolvers.get(i);
+            resolved = resolver.resolve(contextObject, name, value);
+            if (resolved != null) {
+                if (createHint && resolver instanceof EnhancedResolver) {
+                    // Initialize a new hint if possible
+                    value.setHint(((EnhancedResolver) resolver)
+                            .createHint(contextObject, name, value));
+                }
+                break;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     *
+     * @param object
+     * @return the converted context object
+     */
+    protected Object convertContextObject(Object object) {
+        if (converters != null) {
+            for (ContextConverter converter : converters) {
+                Object result = converter.convert(object);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return object;
+    }
+
+    protected MustacheException recursiveInvocationLimitExceeded(
+            int invocationLimitCounter, Template templateInvocation) {
+        return new MustacheException(
+                MustacheProblem.RENDER_TEMPLATE_INVOCATION_RECURSIVE_LIMIT_EXCEEDED,
+                "Recursive invocation limit exceeded [limit: %s, level: %s, template: %s]",
+                configuration.getIntegerPropertyValue(
+                        EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT),
+                invocationLimitCounter, templateInvocation);
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.context;
+
+import org.trimou.annotations.Internal;
+import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.resolver.Resolver;
+
+/**
+ * Records the result of the last context-unrelated lookup of a leading key,
+ * i.e. the resolution of the first part of the key against <code>null</code>
+ * when no context object on the stack matches. An instance is bound to a
+ * single tag and is thread-safe.
+ *
+ * @author Martin Kouba
+ * @see EngineConfigurationKey#CONTEXT_UNRELATED_LOOKUP_CACHE_ENABLED
+ */
+@Internal
+public final class ContextUnrelatedLookup {
+
+    /**
+     * No resolver was able to resolve the key.
+     */
+    static final Object MISS = new Object();
+
+    /**
+     * <code>null</code> - no lookup performed yet, {@link #MISS} - no resolver
+     * matched, otherwise the last matching {@link Resolver}
+     */
+    private volatile Object result;
+
+    Object get() {
+        return result;
+    }
+
+    void set(Object result) {
+        this.result = result;
+    }
+
+}
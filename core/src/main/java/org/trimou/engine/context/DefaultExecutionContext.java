@@ -16,7 +16,6 @@
 package org.trimou.engine.context;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -25,25 +24,18 @@ import org.trimou.engine.config.Configuration;
 import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.convert.ContextConverter;
 import org.trimou.engine.parser.Template;
-import org.trimou.engine.resolver.EnhancedResolver;
 import org.trimou.engine.resolver.EnhancedResolver.Hint;
-import org.trimou.engine.resolver.Placeholder;
-import org.trimou.engine.resolver.Resolver;
 import org.trimou.engine.segment.Segment;
-import org.trimou.exception.MustacheException;
-import org.trimou.exception.MustacheProblem;
 
 /**
  * A default implementation.
  *
  * @author Martin Kouba
  */
-final class DefaultExecutionContext implements ExecutionContext {
+final class DefaultExecutionContext extends AbstractExecutionContext {
 
     private final DefaultExecutionContext parent;
 
-    private final Configuration configuration;
-
     protected final Object contextObject;
 
     protected final Template templateInvocation;
@@ -52,9 +44,7 @@ final class DefaultExecutionContext implements ExecutionContext {
 
     protected final Map<String, Segment> definingSections;
 
-    protected final Resolver[] resolvers;
-
-    private final List<ContextConverter> converters;
+    protected final RenderingAttributes renderingAttributes;
 
     /**
      *
@@ -65,88 +55,29 @@ final class DefaultExecutionContext implements ExecutionContext {
      * @param templateInvocations
      * @param invocationLimitCounter
      * @param definingSections
-     * @param resolvers
+     * @param renderingAttributes
      * @param converters
      */
     DefaultExecutionContext(DefaultExecutionContext parent,
             Configuration configuration, Object contextObject,
             Template templateInvocation, int invocationLimitCounter,
-            Map<String, Segment> definingSections, Resolver[] resolvers, List<ContextConverter> converters) {
+            Map<String, Segment> definingSections,
+            RenderingAttributes renderingAttributes,
+            List<ContextConverter> converters) {
+        super(configuration, converters);
         this.parent = parent;
-        this.configuration = configuration;
         this.contextObject = contextObject;
         this.templateInvocation = templateInvocation;
         this.invocationLimitCounter = invocationLimitCounter;
         this.definingSections = definingSections;
-        this.resolvers = resolvers;
-        this.converters = converters;
-    }
-
-    @Override
-    public ValueWrapper getValue(String key, String[] keyParts,
-            AtomicReference<Hint> hintRef) {
-
-        ValueWrapper value = new ValueWrapper(key);
-        Object lastValue;
-
-        if (keyParts == null || keyParts.length == 0) {
-            Iterator<String> parts = configuration.getKeySplitter().split(key);
-            lastValue = resolveLeadingContextObject(parts.next(), value,
-                    hintRef);
-            if (lastValue == null) {
-                // Leading context object not found - miss
-                return value;
-            }
-            while (parts.hasNext()) {
-                value.processNextPart();
-                lastValue = resolve(lastValue, parts.next(), value, false);
-                if (lastValue == null) {
-                    // Not found - miss
-                    return value;
-                }
-            }
-        } else {
-            lastValue = resolveLeadingContextObject(keyParts[0], value, hintRef);
-            if (lastValue == null) {
-                // Leading context object not found - miss
-                return value;
-            }
-            if (keyParts.length > 1) {
-                for (int i = 1; i < keyParts.length; i++) {
-                    value.processNextPart();
-                    lastValue = resolve(lastValue, keyParts[i], value, false);
-                    if (lastValue == null) {
-                        // Not found - miss
-                        return value;
-                    }
-                }
-            }
-        }
-
-        if (!Placeholder.NULL.equals(lastValue)) {
-            value.set(lastValue);
-        }
-        return value;
-    }
-
-    @Override
-    public ValueWrapper getValue(String key) {
-        return getValue(key, null, null);
+        this.renderingAttributes = renderingAttributes;
     }
 
     @Override
     public ExecutionContext setContextObject(Object object) {
-        if (converters != null) {
-            for (ContextConverter converter : converters) {
-                Object result = converter.convert(object);
-                if (result != null) {
-                    object = result;
-                    break;
-                }
-            }
-        }
-        return new DefaultExecutionContext(this, configuration, object, null,
-                invocationLimitCounter, null, resolvers, converters);
+        return new DefaultExecutionContext(this, configuration,
+                convertContextObject(object), null, invocationLimitCounter,
+                null, renderingAttributes, converters);
     }
 
     @Override
@@ -165,15 +96,12 @@ final class DefaultExecutionContext implements ExecutionContext {
         if (invocationLimitCounter < 0
                 && getTemplateInvocations(template) > configuration
                         .getIntegerPropertyValue(EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT)) {
-            throw new MustacheException(
-                    MustacheProblem.RENDER_TEMPLATE_INVOCATION_RECURSIVE_LIMIT_EXCEEDED,
-                    "Recursive invocation limit exceeded [limit: %s, level: %s, template: %s]",
-                    configuration
-                            .getIntegerPropertyValue(EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT),
-                    invocationLimitCounter, templateInvocation);
+            throw recursiveInvocationLimitExceeded(invocationLimitCounter,
+                    templateInvocation);
         }
         return new DefaultExecutionContext(this, configuration, null, template,
-                invocationLimitCounter - 1, null, resolvers, converters);
+                invocationLimitCounter - 1, null, renderingAttributes,
+                converters);
     }
 
     @Override
@@ -188,7 +116,8 @@ final class DefaultExecutionContext implements ExecutionContext {
             }
         }
         return new DefaultExecutionContext(this, configuration, null, null,
-                invocationLimitCounter, definingSections, resolvers, converters);
+                invocationLimitCounter, definingSections, renderingAttributes,
+                converters);
     }
 
     @Override
@@ -208,6 +137,18 @@ final class DefaultExecutionContext implements ExecutionContext {
         return parent;
     }
 
+    @Override
+    public ExecutionContext setRenderingAttributes(
+            RenderingAttributes attributes) {
+        return new DefaultExecutionContext(this, configuration, null, null,
+                invocationLimitCounter, null, attributes, converters);
+    }
+
+    @Override
+    public RenderingAttributes getRenderingAttributes() {
+        return renderingAttributes;
+    }
+
     private int getTemplateInvocations(Template template) {
         int invocations = 0;
         if (templateInvocation != null && templateInvocation.equals(template)) {
@@ -219,54 +160,14 @@ final class DefaultExecutionContext implements ExecutionContext {
         return invocations;
     }
 
-    /**
-     * Resolve the leading context object (the first part of the key). E.g.
-     * <code>foo</code> in <code>{{foo.bar.name}}</code> may identify a property
-     * of some context object on the stack (passed data, section iteration,
-     * nested context, ...), or some context and data unrelated object (e.g. CDI
-     * bean).
-     *
-     * @param name
-     * @param value
-     *            The value wrapper - ResolutionContext
-     * @param hintRef
-     * @return the resolved leading context object
-     * @see Hint
-     */
-    private Object resolveLeadingContextObject(String name, ValueWrapper value,
-            AtomicReference<Hint> hintRef) {
-
-        Object leading = resolveContextObject(name, value, hintRef);
-
-        if (leading == null) {
-            // Leading context object not found - try to resolve context
-            // unrelated objects (JNDI lookup, CDI, etc.)
-            Hint hint = hintRef != null ? hintRef.get() : null;
-            if (hint != null) {
-                leading = hint.resolve(null, name, value);
-            }
-            if (leading == null) {
-                leading = resolve(null, name, value, hint == null
-                        && hintRef != null);
-            }
-        }
-        return leading;
-    }
-
-    private Object resolveContextObject(String name, ValueWrapper value,
+    @Override
+    protected Object resolveContextObject(String name, ValueWrapper value,
             AtomicReference<Hint> hintRef) {
 
         Object leading = null;
 
         if (contextObject != null) {
-            Hint hint = hintRef != null ? hintRef.get() : null;
-            if (hint != null) {
-                leading = hint.resolve(contextObject, name, value);
-            }
-            if (leading == null) {
-                leading = resolve(contextObject, name, value, hint == null
-                        && hintRef != null);
-            }
+            leading = resolveContextObject(contextObject, name, value, hintRef);
         }
         if (leading == null && parent != null) {
             leading = parent.resolveContextObject(name, value, hintRef);
@@ -274,19 +175,4 @@ final class DefaultExecutionContext implements ExecutionContext {
         return leading;
     }
 
-    private Object resolve(Object contextObject, String name, ValueWrapper value, boolean createHint) {
-        Object resolved = null;
-        for (final Resolver resolver : resolvers) {
-            resolved = resolver.resolve(contextObject, name, value);
-            if (resolved != null) {
-                if (createHint && resolver instanceof EnhancedResolver) {
-                    // Initialize a new hint if possible
-                    value.setHint(((EnhancedResolver) resolver).createHint(contextObject, name, value));
-                }
-                break;
-            }
-        }
-        return resolved;
-    }
-
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.trimou.annotations.Internal;
+
+/**
+ * The backing map is created lazily so that no allocation occurs if the store
+ * is not used at all.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+@Internal
+public final class DefaultRenderingAttributes implements RenderingAttributes {
+
+    private volatile Map<String, Object> attributes;
+
+    @Override
+    public Object getAttribute(String name) {
+        Map<String, Object> map = attributes;
+        return map != null ? map.get(name) : null;
+    }
+
+    @Override
+    public Object setAttribute(String name, Object value) {
+        if (value == null) {
+            return removeAttribute(name);
+        }
+        return getAttributes().put(name, value);
+    }
+
+    @Override
+    public Object removeAttribute(String name) {
+        Map<String, Object> map = attributes;
+        return map != null ? map.remove(name) : null;
+    }
+
+    @Override
+    public Object computeAttributeIfAbsent(String name,
+            Function<String, Object> mappingFunction) {
+        return getAttributes().computeIfAbsent(name, mappingFunction);
+    }
+
+    /**
+     * Remove all the attributes.
+     */
+    public void clear() {
+        attributes = null;
+    }
+
+    private Map<String, Object> getAttributes() {
+        Map<String, Object> map = attributes;
+        if (map == null) {
+            synchronized (this) {
+                map = attributes;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    attributes = map;
+                }
+            }
+        }
+        return map;
+    }
+
+}
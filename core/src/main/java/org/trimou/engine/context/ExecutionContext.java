@@ -18,6 +18,7 @@ package org.trimou.engine.context;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.trimou.annotations.Internal;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.parser.Template;
 import org.trimou.engine.resolver.EnhancedResolver.Hint;
 import org.trimou.engine.segment.ExtendSegment;
@@ -29,6 +30,14 @@ import org.trimou.engine.segment.Segment;
  * state before the modification. The child context does not copy the entire
  * state. Instead, it's delegating to parent in some cases.
  *
+ * <p>
+ * If {@link EngineConfigurationKey#STACK_EXECUTION_CONTEXT_ENABLED} is set
+ * and no asynchronous helpers may be involved, the hierarchy is backed by a
+ * render-scoped array stack and the child contexts are reused. In this case a
+ * context must not be used once its parent was modified again. By default, a
+ * new child context is always created.
+ * </p>
+ *
  * @author Martin Kouba
  */
 @Internal
@@ -38,10 +47,12 @@ public interface ExecutionContext {
      * @param key
      * @param keyParts
      * @param hintRef
+     * @param lookup
+     *            May be <code>null</code>
      * @return the wrapper for the given key
      */
     ValueWrapper getValue(String key, String[] keyParts,
-            AtomicReference<Hint> hintRef);
+            AtomicReference<Hint> hintRef, ContextUnrelatedLookup lookup);
 
     /**
      * @param key
@@ -94,4 +105,19 @@ public interface ExecutionContext {
      */
     ExecutionContext getParent();
 
+    /**
+     *
+     * @param attributes
+     * @return a new child execution context
+     * @since 2.5
+     */
+    ExecutionContext setRenderingAttributes(RenderingAttributes attributes);
+
+    /**
+     *
+     * @return the render-scoped attributes or <code>null</code> if not set
+     * @since 2.5
+     */
+    RenderingAttributes getRenderingAttributes();
+
 }
@@ -15,9 +15,12 @@
  */
 package org.trimou.engine.context;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import org.trimou.engine.config.Configuration;
 import org.trimou.engine.config.EngineConfigurationKey;
-import org.trimou.engine.resolver.Resolver;
+import org.trimou.engine.convert.ContextConverter;
 
 /**
  *
@@ -29,15 +32,27 @@ public final class ExecutionContexts {
     }
 
     /**
+     * If {@link EngineConfigurationKey#STACK_EXECUTION_CONTEXT_ENABLED} is set
+     * and no {@link ExecutorService} is configured, i.e. no asynchronous
+     * helpers may be involved, the returned context is backed by a
+     * render-scoped array stack. Otherwise a hierarchy of immutable contexts is
+     * used.
      *
      * @param configuration
      * @return a new global execution context for the given configuration
      */
     public static ExecutionContext newGlobalExecutionContext(Configuration configuration) {
-        return new DefaultExecutionContext(null, configuration, configuration.getGlobalData(), null,
-                configuration.getIntegerPropertyValue(EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT), null,
-                configuration.getResolvers().toArray(new Resolver[configuration.getResolvers().size()]),
-                configuration.getContextConverters().isEmpty() ? null : configuration.getContextConverters());
+        int invocationLimit = configuration
+                .getIntegerPropertyValue(EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT);
+        List<ContextConverter> converters = configuration.getContextConverters().isEmpty() ? null
+                : configuration.getContextConverters();
+        if (configuration.getBooleanPropertyValue(EngineConfigurationKey.STACK_EXECUTION_CONTEXT_ENABLED)
+                && configuration.geExecutorService() == null) {
+            return new StackExecutionContext(configuration, configuration.getGlobalData(), invocationLimit,
+                    converters);
+        }
+        return new DefaultExecutionContext(null, configuration, configuration.getGlobalData(), null, invocationLimit,
+                null, null, converters);
     }
 
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.context;
+
+import java.util.function.Function;
+
+import org.trimou.engine.listener.MustacheRenderingEvent;
+import org.trimou.engine.resolver.ResolutionContext;
+import org.trimou.handlebars.Options;
+
+/**
+ * A render-scoped attribute store. A new store is created for each rendering
+ * and discarded once the rendering is finished, i.e. after all the release
+ * callbacks of the {@link MustacheRenderingEvent} are invoked. Unlike a
+ * {@link ThreadLocal} the store is also available to asynchronous helpers.
+ * <p>
+ * Implementations must be thread-safe. <code>null</code> values are not
+ * supported.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ * @see MustacheRenderingEvent#getRenderingAttributes()
+ * @see ResolutionContext#getRenderingAttributes()
+ * @see Options#getRenderingAttributes()
+ */
+public interface RenderingAttributes {
+
+    /**
+     *
+     * @param name
+     * @return the attribute value or <code>null</code> if no such attribute
+     *         exists
+     */
+    Object getAttribute(String name);
+
+    /**
+     *
+     * @param name
+     * @param value
+     *            If <code>null</code> the attribute is removed
+     * @return the previous value or <code>null</code>
+     */
+    Object setAttribute(String name, Object value);
+
+    /**
+     *
+     * @param name
+     * @return the removed value or <code>null</code>
+     */
+    Object removeAttribute(String name);
+
+    /**
+     * The mapping function is invoked at most once per rendering. Note that it
+     * must not attempt to modify the store.
+     *
+     * @param name
+     * @param mappingFunction
+     * @return the current (existing or computed) value
+     */
+    Object computeAttributeIfAbsent(String name,
+            Function<String, Object> mappingFunction);
+
+}
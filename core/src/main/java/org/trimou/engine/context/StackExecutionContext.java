@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.context;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.convert.ContextConverter;
+import org.trimou.engine.parser.Template;
+import org.trimou.engine.resolver.EnhancedResolver.Hint;
+import org.trimou.engine.segment.Segment;
+
+/**
+ * An execution context backed by a render-scoped array stack. A modification
+ * does not result in a new immutable child context. Instead, the state is
+ * written to the next level of the stack and the (reused) context instance
+ * representing this level is returned. The stack is created lazily for each
+ * rendering, the global context itself is immutable and may be shared.
+ *
+ * <p>
+ * This implementation relies on the fact that the contexts are used in LIFO
+ * order, i.e. a context must not be used once its parent was modified again.
+ * That's why it's only used if no {@link java.util.concurrent.ExecutorService}
+ * is configured, i.e. if no asynchronous helpers may be involved.
+ * </p>
+ *
+ * @author Martin Kouba
+ * @see ExecutionContexts#newGlobalExecutionContext(Configuration)
+ */
+final class StackExecutionContext extends AbstractExecutionContext {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int invocationLimit;
+
+    // Only set for the global context
+    private final Object globalData;
+
+    // Null for the global context
+    private final Stack stack;
+
+    private final int level;
+
+    /**
+     * Creates a new global context.
+     *
+     * @param configuration
+     * @param globalData
+     * @param invocationLimit
+     * @param converters
+     */
+    StackExecutionContext(Configuration configuration, Object globalData,
+            int invocationLimit, List<ContextConverter> converters) {
+        super(configuration, converters);
+        this.invocationLimit = invocationLimit;
+        this.globalData = globalData;
+        this.stack = null;
+        this.level = 0;
+    }
+
+    private StackExecutionContext(StackExecutionContext global, Stack stack,
+            int level) {
+        super(global.configuration, global.converters);
+        this.invocationLimit = global.invocationLimit;
+        this.globalData = null;
+        this.stack = stack;
+        this.level = level;
+    }
+
+    @Override
+    public ExecutionContext setContextObject(Object object) {
+        return getStack().push(level, convertContextObject(object), null, null,
+                getInvocationLimitCounter());
+    }
+
+    @Override
+    public Object getFirstContextObject() {
+        if (stack == null) {
+            return globalData;
+        }
+        for (int i = level; i >= 0; i--) {
+            if (stack.contextObjects[i] != null) {
+                return stack.contextObjects[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ExecutionContext setTemplateInvocation(Template template) {
+        int invocationLimitCounter = getInvocationLimitCounter();
+        if (invocationLimitCounter < 0
+                && getTemplateInvocations(template) > configuration
+                        .getIntegerPropertyValue(
+                                EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT)) {
+            throw recursiveInvocationLimitExceeded(invocationLimitCounter,
+                    stack != null ? stack.templates[level] : null);
+        }
+        return getStack().push(level, null, template, null,
+                invocationLimitCounter - 1);
+    }
+
+    @Override
+    public ExecutionContext setDefiningSections(Iterable<Segment> segments) {
+        Map<String, Segment> definingSections = null;
+        for (Segment segment : segments) {
+            if (getDefiningSection(segment.getText()) == null) {
+                if (definingSections == null) {
+                    definingSections = new HashMap<>();
+                }
+                definingSections.put(segment.getText(), segment);
+            }
+        }
+        return getStack().push(level, null, null, definingSections,
+                getInvocationLimitCounter());
+    }
+
+    @Override
+    public Segment getDefiningSection(String name) {
+        if (stack == null) {
+            return null;
+        }
+        for (int i = level; i > 0; i--) {
+            Map<String, Segment> definingSections = stack.definingSections[i];
+            if (definingSections != null) {
+                Segment section = definingSections.get(name);
+                if (section != null) {
+                    return section;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ExecutionContext getParent() {
+        return stack != null ? stack.contexts[level - 1] : null;
+    }
+
+    @Override
+    public ExecutionContext setRenderingAttributes(
+            RenderingAttributes attributes) {
+        // The attributes are render-scoped, i.e. shared by all the levels
+        Stack stack = getStack();
+        stack.renderingAttributes = attributes;
+        return stack.push(level, null, null, null,
+                getInvocationLimitCounter());
+    }
+
+    @Override
+    public RenderingAttributes getRenderingAttributes() {
+        return stack != null ? stack.renderingAttributes : null;
+    }
+
+    @Override
+    protected Object resolveContextObject(String name, ValueWrapper value,
+            AtomicReference<Hint> hintRef) {
+        if (stack == null) {
+            return globalData != null
+                    ? resolveContextObject(globalData, name, value, hintRef)
+                    : null;
+        }
+        Object leading = null;
+        for (int i = level; i >= 0; i--) {
+            Object contextObject = stack.contextObjects[i];
+            if (contextObject != null) {
+                leading = resolveContextObject(contextObject, name, value,
+                        hintRef);
+                if (leading != null) {
+                    break;
+                }
+            }
+        }
+        return leading;
+    }
+
+    private Stack getStack() {
+        return stack != null ? stack : new Stack(this);
+    }
+
+    private int getInvocationLimitCounter() {
+        return stack != null ? stack.invocationLimitCounters[level]
+                : invocationLimit;
+    }
+
+    private int getTemplateInvocations(Template template) {
+        // Only used if the invocation limit is exceeded
+        int invocations = 0;
+        if (stack != null) {
+            for (int i = level; i > 0; i--) {
+                if (template.equals(stack.templates[i])) {
+                    invocations++;
+                }
+            }
+        }
+        return invocations;
+    }
+
+    /**
+     * The render-scoped stack. The level 0 always represents the global
+     * context.
+     */
+    private static final class Stack {
+
+        private final StackExecutionContext global;
+
+        private StackExecutionContext[] contexts;
+
+        private Object[] contextObjects;
+
+        private Template[] templates;
+
+        private Map<String, Segment>[] definingSections;
+
+        private int[] invocationLimitCounters;
+
+        private RenderingAttributes renderingAttributes;
+
+        @SuppressWarnings("unchecked")
+        Stack(StackExecutionContext global) {
+            this.global = global;
+            this.contexts = new StackExecutionContext[INITIAL_CAPACITY];
+            this.contextObjects = new Object[INITIAL_CAPACITY];
+            this.templates = new Template[INITIAL_CAPACITY];
+            this.definingSections = new Map[INITIAL_CAPACITY];
+            this.invocationLimitCounters = new int[INITIAL_CAPACITY];
+            contexts[0] = global;
+            contextObjects[0] = global.globalData;
+            invocationLimitCounters[0] = global.invocationLimit;
+        }
+
+        StackExecutionContext push(int parentLevel, Object contextObject,
+                Template template, Map<String, Segment> definingSections,
+                int invocationLimitCounter) {
+            int level = parentLevel + 1;
+            if (level == contexts.length) {
+                grow();
+            }
+            contextObjects[level] = contextObject;
+            templates[level] = template;
+            this.definingSections[level] = definingSections;
+            invocationLimitCounters[level] = invocationLimitCounter;
+            StackExecutionContext context = contexts[level];
+            if (context == null) {
+                context = new StackExecutionContext(global, this, level);
+                contexts[level] = context;
+            }
+            return context;
+        }
+
+        private void grow() {
+            int capacity = contexts.length * 2;
+            contexts = Arrays.copyOf(contexts, capacity);
+            contextObjects = Arrays.copyOf(contextObjects, capacity);
+            templates = Arrays.copyOf(templates, capacity);
+            definingSections = Arrays.copyOf(definingSections, capacity);
+            invocationLimitCounters = Arrays.copyOf(invocationLimitCounters,
+                    capacity);
+        }
+
+    }
+
+}
@@ -41,12 +41,24 @@ public final class ValueWrapper extends AbstractReleaseCallbackContainer
 
     private Hint hint;
 
+    private final RenderingAttributes renderingAttributes;
+
     /**
      *
      * @param key
      */
     public ValueWrapper(String key) {
+        this(key, null);
+    }
+
+    /**
+     *
+     * @param key
+     * @param renderingAttributes
+     */
+    public ValueWrapper(String key, RenderingAttributes renderingAttributes) {
         this.key = key;
+        this.renderingAttributes = renderingAttributes;
     }
 
     /**
@@ -82,6 +94,11 @@ public final class ValueWrapper extends AbstractReleaseCallbackContainer
         return keyPartIndex;
     }
 
+    @Override
+    public RenderingAttributes getRenderingAttributes() {
+        return renderingAttributes;
+    }
+
     void processNextPart() {
         keyPartIndex++;
     }
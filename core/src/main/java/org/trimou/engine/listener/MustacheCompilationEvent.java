@@ -16,6 +16,7 @@
 package org.trimou.engine.listener;
 
 import org.trimou.Mustache;
+import org.trimou.engine.text.TextProcessor;
 
 /**
  *
@@ -28,4 +29,13 @@ public interface MustacheCompilationEvent {
      */
     Mustache getMustache();
 
+    /**
+     *
+     * @return the number of characters removed from the static text of the
+     *         template by the registered text processors
+     * @since 2.5
+     * @see MustacheParsingEvent#addTextProcessor(TextProcessor)
+     */
+    long getTextLengthSaved();
+
 }
@@ -17,6 +17,8 @@ package org.trimou.engine.listener;
 
 import java.io.Reader;
 
+import org.trimou.engine.text.TextProcessor;
+
 /**
  *
  * @author Martin Kouba
@@ -43,4 +45,14 @@ public interface MustacheParsingEvent {
      */
     void setMustacheContents(Reader contents);
 
+    /**
+     * Register a processor for the static text of the template. Processors are
+     * applied once the template is parsed, in the order of registration.
+     *
+     * @param processor
+     * @since 2.5
+     * @see MustacheCompilationEvent#getTextLengthSaved()
+     */
+    void addTextProcessor(TextProcessor processor);
+
 }
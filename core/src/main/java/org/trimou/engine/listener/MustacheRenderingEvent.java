@@ -15,6 +15,7 @@
  */
 package org.trimou.engine.listener;
 
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.id.Identified;
 import org.trimou.engine.resource.ReleaseCallbackContainer;
 
@@ -40,4 +41,14 @@ public interface MustacheRenderingEvent extends ReleaseCallbackContainer, Identi
      */
     long getMustacheGeneratedId();
 
+    /**
+     * The attributes are shared by all the helpers and resolvers involved in
+     * the rendering, including the asynchronous ones. The attributes are
+     * discarded after all the release callbacks are invoked.
+     *
+     * @return the render-scoped attributes
+     * @since 2.5
+     */
+    RenderingAttributes getRenderingAttributes();
+
 }
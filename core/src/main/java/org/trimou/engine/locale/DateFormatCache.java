@@ -0,0 +1,315 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.locale;
+
+import java.text.DateFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.trimou.annotations.Internal;
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.EngineConfigurationKey;
+
+/**
+ * Caches {@link DateFormat} instances per locale, time zone and style or
+ * pattern. Since {@link DateFormat} is not thread-safe, each cache entry holds
+ * a prototype and a small pool of clones.
+ * <p>
+ * If possible, a custom pattern is formatted with an equivalent thread-safe
+ * {@link DateTimeFormatter} instead. This is only the case for numeric
+ * patterns (e.g. <code>dd.MM.yyyy HH:mm</code>), locales with ASCII digits and
+ * the Gregorian calendar.
+ * <p>
+ * The size of the cache is limited by
+ * {@link EngineConfigurationKey#DATE_FORMAT_CACHE_MAX_SIZE}.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+@Internal
+public final class DateFormatCache {
+
+    /**
+     * Use {@link DateFormat#getDateInstance(int, Locale)}
+     */
+    public static final int NO_TIME = -1;
+
+    private static final int POOL_SIZE = 4;
+
+    // 1582-10-15T00:00:00Z - the default Gregorian change date
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    // 10000-01-01T00:00:00Z - java.time prints a sign for bigger years
+    private static final long MAX_FOUR_DIGIT_YEAR = 253402300800000L;
+
+    private final ComputingCache<Key, Entry> entries;
+
+    /**
+     *
+     * @param configuration
+     * @param consumerId
+     */
+    public DateFormatCache(Configuration configuration, String consumerId) {
+        this.entries = configuration.getComputingCacheFactory().create(
+                consumerId, Entry::new, null,
+                configuration.getLongPropertyValue(
+                        EngineConfigurationKey.DATE_FORMAT_CACHE_MAX_SIZE),
+                null);
+    }
+
+    /**
+     *
+     * @param value
+     *            A {@link Date} or a {@link Number} (milliseconds since the
+     *            epoch)
+     * @param dateStyle
+     * @param timeStyle
+     *            The time style or {@link #NO_TIME}
+     * @param locale
+     * @param timeZone
+     *            May be <code>null</code> - the default time zone is used
+     * @return the formatted value
+     */
+    public String format(Object value, int dateStyle, int timeStyle,
+            Locale locale, TimeZone timeZone) {
+        return entries
+                .get(new Key(locale, timeZone, null, dateStyle, timeStyle))
+                .format(value);
+    }
+
+    /**
+     *
+     * @param value
+     *            A {@link Date} or a {@link Number} (milliseconds since the
+     *            epoch)
+     * @param pattern
+     * @param locale
+     * @param timeZone
+     *            May be <code>null</code> - the default time zone is used
+     * @return the formatted value
+     * @see SimpleDateFormat
+     */
+    public String format(Object value, String pattern, Locale locale,
+            TimeZone timeZone) {
+        return entries.get(new Key(locale, timeZone, pattern, 0, 0))
+                .format(value);
+    }
+
+    long size() {
+        return entries.size();
+    }
+
+    /**
+     *
+     * @param pattern
+     * @return <code>true</code> if the given {@link SimpleDateFormat} pattern
+     *         produces the same output when used with
+     *         {@link DateTimeFormatter}, <code>false</code> otherwise
+     */
+    static boolean isJavaTimeCompatible(String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted) {
+                continue;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int count = 1;
+                while (i + count < pattern.length()
+                        && pattern.charAt(i + count) == c) {
+                    count++;
+                }
+                switch (c) {
+                case 'y':
+                    break;
+                case 'M':
+                case 'd':
+                case 'H':
+                case 'h':
+                case 'k':
+                case 'K':
+                case 'm':
+                case 's':
+                    if (count > 2) {
+                        return false;
+                    }
+                    break;
+                case 'S':
+                    // Milliseconds vs fraction of second
+                    if (count != 3) {
+                        return false;
+                    }
+                    break;
+                default:
+                    // Text fields and fields with different semantics
+                    return false;
+                }
+                i += count - 1;
+            } else if (c == '[' || c == ']' || c == '{' || c == '}'
+                    || c == '#') {
+                // Reserved by DateTimeFormatter
+                return false;
+            }
+        }
+        return !quoted;
+    }
+
+    private static final class Entry {
+
+        private final DateFormat prototype;
+
+        private final AtomicReferenceArray<DateFormat> pool;
+
+        private final DateTimeFormatter formatter;
+
+        Entry(Key key) {
+            DateFormat dateFormat;
+            if (key.pattern != null) {
+                dateFormat = new SimpleDateFormat(key.pattern, key.locale);
+            } else if (key.timeStyle == NO_TIME) {
+                dateFormat = DateFormat.getDateInstance(key.dateStyle,
+                        key.locale);
+            } else {
+                dateFormat = DateFormat.getDateTimeInstance(key.dateStyle,
+                        key.timeStyle, key.locale);
+            }
+            if (key.timeZone != null) {
+                dateFormat.setTimeZone(key.timeZone);
+            }
+            this.prototype = dateFormat;
+            this.pool = new AtomicReferenceArray<>(POOL_SIZE);
+            if (key.pattern != null && isJavaTimeCompatible(key.pattern)
+                    && DecimalFormatSymbols.getInstance(key.locale)
+                            .getZeroDigit() == '0'
+                    && Calendar.getInstance(key.locale)
+                            .getClass() == GregorianCalendar.class
+                    && (key.timeZone == null || key.timeZone.hasSameRules(
+                            TimeZone.getTimeZone(key.timeZone.getID())))) {
+                this.formatter = DateTimeFormatter
+                        .ofPattern(key.pattern, key.locale)
+                        .withZone(key.timeZone != null ? key.timeZone.toZoneId()
+                                : ZoneId.systemDefault());
+            } else {
+                this.formatter = null;
+            }
+        }
+
+        String format(Object value) {
+            if (formatter != null) {
+                long millis;
+                if (value instanceof Date) {
+                    millis = ((Date) value).getTime();
+                } else {
+                    millis = ((Number) value).longValue();
+                }
+                if (millis >= GREGORIAN_CUTOVER
+                        && millis < MAX_FOUR_DIGIT_YEAR) {
+                    return formatter.format(Instant.ofEpochMilli(millis));
+                }
+            }
+            DateFormat dateFormat = acquire();
+            try {
+                return dateFormat.format(value);
+            } finally {
+                release(dateFormat);
+            }
+        }
+
+        private DateFormat acquire() {
+            for (int i = 0; i < POOL_SIZE; i++) {
+                DateFormat dateFormat = pool.getAndSet(i, null);
+                if (dateFormat != null) {
+                    return dateFormat;
+                }
+            }
+            return (DateFormat) prototype.clone();
+        }
+
+        private void release(DateFormat dateFormat) {
+            for (int i = 0; i < POOL_SIZE; i++) {
+                if (pool.compareAndSet(i, null, dateFormat)) {
+                    return;
+                }
+            }
+            // The pool is full - the instance is discarded
+        }
+
+    }
+
+    private static final class Key {
+
+        private final Locale locale;
+
+        private final TimeZone timeZone;
+
+        // TimeZone does not override equals()
+        private final String timeZoneId;
+
+        private final String pattern;
+
+        private final int dateStyle;
+
+        private final int timeStyle;
+
+        Key(Locale locale, TimeZone timeZone, String pattern, int dateStyle,
+                int timeStyle) {
+            this.locale = locale;
+            this.timeZone = timeZone;
+            this.timeZoneId = timeZone != null ? timeZone.getID() : null;
+            this.pattern = pattern;
+            this.dateStyle = dateStyle;
+            this.timeStyle = timeStyle;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(locale, timeZoneId, pattern, dateStyle,
+                    timeStyle);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return dateStyle == other.dateStyle && timeStyle == other.timeStyle
+                    && locale.equals(other.locale)
+                    && Objects.equals(timeZoneId, other.timeZoneId)
+                    && Objects.equals(pattern, other.pattern);
+        }
+
+    }
+
+}
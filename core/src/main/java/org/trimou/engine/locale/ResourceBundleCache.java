@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.locale;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import org.trimou.annotations.Internal;
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.cache.ComputingCacheFactory;
+import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.EngineConfigurationKey;
+
+/**
+ * Caches {@link ResourceBundle} instances and the values of resource bundle
+ * keys so that the {@link ResourceBundle#getBundle(String, Locale)} lookup
+ * does not need to be performed repeatedly. The size of the caches is limited
+ * by {@link EngineConfigurationKey#RESOURCE_BUNDLE_CACHE_MAX_SIZE}.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+@Internal
+public final class ResourceBundleCache {
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final ComputingCache<Key, ResourceBundle> bundles;
+
+    private final ComputingCache<Key, Object> values;
+
+    /**
+     *
+     * @param configuration
+     * @param consumerId
+     */
+    public ResourceBundleCache(Configuration configuration,
+            String consumerId) {
+        ComputingCacheFactory cacheFactory = configuration
+                .getComputingCacheFactory();
+        Long maxSize = configuration.getLongPropertyValue(
+                EngineConfigurationKey.RESOURCE_BUNDLE_CACHE_MAX_SIZE);
+        this.bundles = cacheFactory.create(consumerId + ".bundles",
+                key -> ResourceBundle.getBundle(key.getBaseName(),
+                        key.getLocale()),
+                null, maxSize, null);
+        this.values = cacheFactory.create(consumerId + ".values", key -> {
+            ResourceBundle bundle = getBundle(key.getBaseName(),
+                    key.getLocale());
+            return bundle.containsKey(key.getKey())
+                    ? bundle.getObject(key.getKey()) : NOT_FOUND;
+        }, null, maxSize, null);
+    }
+
+    /**
+     *
+     * @param baseName
+     * @param locale
+     * @return the resource bundle
+     * @see ResourceBundle#getBundle(String, Locale)
+     */
+    public ResourceBundle getBundle(String baseName, Locale locale) {
+        return bundles.get(new Key(baseName, locale, null));
+    }
+
+    /**
+     *
+     * @param baseName
+     * @param locale
+     * @param key
+     * @return the object for the given key or <code>null</code> if the bundle
+     *         does not contain the key
+     */
+    public Object getObject(String baseName, Locale locale, String key) {
+        Object value = values.get(new Key(baseName, locale, key));
+        return value != NOT_FOUND ? value : null;
+    }
+
+    /**
+     * Invalidate all the cached bundles and values. The JDK resource bundle
+     * cache is cleared as well so that the bundles are reloaded.
+     *
+     * @see ResourceBundle#clearCache()
+     */
+    public void invalidate() {
+        ResourceBundle.clearCache();
+        bundles.clear();
+        values.clear();
+    }
+
+    /**
+     * A composite cache key.
+     */
+    public static final class Key {
+
+        private final String baseName;
+
+        private final Locale locale;
+
+        private final String key;
+
+        private final int hashCode;
+
+        /**
+         *
+         * @param baseName
+         * @param locale
+         * @param key
+         *            May be <code>null</code>
+         */
+        public Key(String baseName, Locale locale, String key) {
+            this.baseName = baseName;
+            this.locale = locale;
+            this.key = key;
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + baseName.hashCode();
+            result = prime * result + locale.hashCode();
+            result = prime * result + ((key == null) ? 0 : key.hashCode());
+            this.hashCode = result;
+        }
+
+        public String getBaseName() {
+            return baseName;
+        }
+
+        public Locale getLocale() {
+            return locale;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hashCode == other.hashCode
+                    && baseName.equals(other.baseName)
+                    && locale.equals(other.locale)
+                    && (key == null ? other.key == null
+                            : key.equals(other.key));
+        }
+
+    }
+
+}
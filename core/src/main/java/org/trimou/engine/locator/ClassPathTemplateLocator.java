@@ -133,6 +133,13 @@ public class ClassPathTemplateLocator extends PathTemplateLocator<String> {
         return locateRealPath(toRealPath(templateId));
     }
 
+    @Override
+    public long getLastModified(String templateId) {
+        URL resource = classLoader
+                .getResource(getResourceName(toRealPath(templateId)));
+        return resource != null ? Files.getLastModified(resource) : 0L;
+    }
+
     @Override
     public Set<String> getAllIdentifiers() {
 
@@ -192,8 +199,7 @@ public class ClassPathTemplateLocator extends PathTemplateLocator<String> {
 
     private Reader locateRealPath(String realPath) {
 
-        final String name = getRootPath() != null
-                ? getRootPath() + addSuffix(realPath) : addSuffix(realPath);
+        final String name = getResourceName(realPath);
         Reader reader = null;
 
         try {
@@ -216,6 +222,11 @@ public class ClassPathTemplateLocator extends PathTemplateLocator<String> {
         return reader;
     }
 
+    private String getResourceName(String realPath) {
+        return getRootPath() != null ? getRootPath() + addSuffix(realPath)
+                : addSuffix(realPath);
+    }
+
     private String constructVirtualPath(File root, File source) {
 
         File parent = source.getParentFile();
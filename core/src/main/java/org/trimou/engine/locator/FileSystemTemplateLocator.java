@@ -64,11 +64,16 @@ public class FileSystemTemplateLocator extends FilePathTemplateLocator {
         checkRootDir();
     }
 
+    @Override
+    public long getLastModified(String filePath) {
+        // Returns 0 if the file does not exist
+        return getTemplateFile(toRealPath(filePath)).lastModified();
+    }
+
     @Override
     public Reader locateRealPath(String realPath) {
         try {
-            File template = new File(new File(getRootPath()),
-                    addSuffix(realPath));
+            File template = getTemplateFile(realPath);
             if (!Files.isFileUsable(template)) {
                 return null;
             }
@@ -83,6 +88,10 @@ public class FileSystemTemplateLocator extends FilePathTemplateLocator {
         }
     }
 
+    private File getTemplateFile(String realPath) {
+        return new File(new File(getRootPath()), addSuffix(realPath));
+    }
+
     @Override
     protected String getRealPathSeparator() {
         return Strings.FILE_SEPARATOR;
@@ -60,6 +60,22 @@ public interface TemplateLocator extends WithPriority, ConfigurationAware {
         return Collections.emptySet();
     }
 
+    /**
+     * The value is used to check whether a cached template was modified. The
+     * check should be cheap, i.e. the template contents should not be read.
+     *
+     * @param name
+     *            The template identifier
+     * @return the time the template with the given name was last modified
+     *         (milliseconds since the epoch), or <code>0</code> if not known
+     *         or no such template exists
+     * @see EngineConfigurationKey#TEMPLATE_CACHE_REVALIDATION_INTERVAL
+     * @since 2.5
+     */
+    default long getLastModified(String name) {
+        return 0L;
+    }
+
     @Override
     default int getPriority() {
         return DEFAULT_PRIORITY;
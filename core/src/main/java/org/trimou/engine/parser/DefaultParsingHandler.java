@@ -15,6 +15,8 @@
  */
 package org.trimou.engine.parser;
 
+import static org.trimou.engine.config.EngineConfigurationKey.INTERN_TEXT_SEGMENTS;
+import static org.trimou.engine.config.EngineConfigurationKey.LAZY_SECTION_COMPILATION;
 import static org.trimou.engine.config.EngineConfigurationKey.REMOVE_STANDALONE_LINES;
 import static org.trimou.engine.config.EngineConfigurationKey.REMOVE_UNNECESSARY_SEGMENTS;
 import static org.trimou.engine.config.EngineConfigurationKey.REUSE_LINE_SEPARATOR_SEGMENTS;
@@ -39,6 +41,7 @@ import org.trimou.engine.segment.ContainerSegment;
 import org.trimou.engine.segment.ExtendSectionSegment;
 import org.trimou.engine.segment.ExtendSegment;
 import org.trimou.engine.segment.InvertedSectionSegment;
+import org.trimou.engine.segment.LazySegmentList;
 import org.trimou.engine.segment.LineSeparatorSegment;
 import org.trimou.engine.segment.Origin;
 import org.trimou.engine.segment.PartialSegment;
@@ -49,6 +52,7 @@ import org.trimou.engine.segment.SegmentType;
 import org.trimou.engine.segment.SetDelimitersSegment;
 import org.trimou.engine.segment.TextSegment;
 import org.trimou.engine.segment.ValueSegment;
+import org.trimou.engine.text.TextProcessor;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
 import org.trimou.util.ImmutableList;
@@ -69,7 +73,9 @@ class DefaultParsingHandler implements ParsingHandler {
 
     private final Deque<ContainerSegmentBase> containerStack = new ArrayDeque<>();
 
-    private final List<Template> nestedTemplates = new ArrayList<>();
+    private final List<NestedTemplateBase> nestedTemplateBases = new ArrayList<>();
+
+    private final TextInterner textInterner;
 
     private MustacheEngine engine;
 
@@ -91,6 +97,25 @@ class DefaultParsingHandler implements ParsingHandler {
 
     private NestedTemplateBase currentNestedBase;
 
+    private boolean lazySectionCompilation;
+
+    private boolean internTextSegments;
+
+    private TextProcessor textProcessor;
+
+    /**
+     *
+     * @param textInterner
+     */
+    DefaultParsingHandler(TextInterner textInterner) {
+        this.textInterner = textInterner;
+    }
+
+    @Override
+    public void setTextProcessor(TextProcessor textProcessor) {
+        this.textProcessor = textProcessor;
+    }
+
     @Override
     public void startTemplate(String name, Delimiters delimiters,
             MustacheEngine engine) {
@@ -106,6 +131,10 @@ class DefaultParsingHandler implements ParsingHandler {
         handlebarsSupportEnabled = engine.getConfiguration()
                 .getBooleanPropertyValue(
                         EngineConfigurationKey.HANDLEBARS_SUPPORT_ENABLED);
+        lazySectionCompilation = engine.getConfiguration()
+                .getBooleanPropertyValue(LAZY_SECTION_COMPILATION);
+        internTextSegments = engine.getConfiguration()
+                .getBooleanPropertyValue(INTERN_TEXT_SEGMENTS);
 
         start = System.currentTimeMillis();
         LOGGER.debug("Start compilation of {}", new Object[] { name });
@@ -125,11 +154,28 @@ class DefaultParsingHandler implements ParsingHandler {
                 .getBooleanPropertyValue(REMOVE_UNNECESSARY_SEGMENTS)) {
             SegmentBases.removeUnnecessarySegments(rootSegmentBase);
         }
+        if (textProcessor != null) {
+            // Process the root and nested templates at once so that the text
+            // is processed in the order of appearance
+            List<ContainerSegmentBase> containers = new ArrayList<>();
+            containers.add(rootSegmentBase);
+            containers.addAll(nestedTemplateBases);
+            SegmentBases.processText(containers, textProcessor, this::intern);
+        }
         if (engine.getConfiguration()
                 .getBooleanPropertyValue(REUSE_LINE_SEPARATOR_SEGMENTS)) {
             SegmentBases.reuseLineSeparatorSegments(rootSegmentBase);
         }
 
+        List<Template> nestedTemplates = new ArrayList<>(
+                nestedTemplateBases.size());
+        for (NestedTemplateBase nestedBase : nestedTemplateBases) {
+            Template nested = new Template(engine.getConfiguration()
+                    .getIdentifierGenerator().generate(Mustache.class),
+                    nestedBase.getContent(), engine);
+            nested.initRootSegment(nestedBase.asSegment(nested));
+            nestedTemplates.add(nested);
+        }
         template = new Template(engine.getConfiguration()
                 .getIdentifierGenerator().generate(Mustache.class),
                 templateName, engine, nestedTemplates);
@@ -138,17 +184,23 @@ class DefaultParsingHandler implements ParsingHandler {
             nested.initParent(template);
         }
 
-        LOGGER.debug("Compilation of {} finished [time: {} ms, segments: {}]",
-                templateName, System.currentTimeMillis() - start,
-                template.getRootSegment().getSegmentsSize(true));
+        if (LOGGER.isDebugEnabled()) {
+            // Counting the segments would force the materialization of lazy
+            // sections
+            LOGGER.debug(
+                    "Compilation of {} finished [time: {} ms, segments: {}]",
+                    templateName, System.currentTimeMillis() - start,
+                    lazySectionCompilation ? "n/a"
+                            : template.getRootSegment().getSegmentsSize(true));
+        }
 
-        nestedTemplates.clear();
+        nestedTemplateBases.clear();
         containerStack.clear();
     }
 
     @Override
     public void text(String text) {
-        addSegment(new SegmentBase(SegmentType.TEXT, text, line,
+        addSegment(new SegmentBase(SegmentType.TEXT, intern(text), line,
                 incrementAndGetIndex()));
     }
 
@@ -177,7 +229,8 @@ class DefaultParsingHandler implements ParsingHandler {
         case INVERTED_SECTION:
         case EXTEND:
         case EXTEND_SECTION:
-            push(new ContainerSegmentBase(tag, line, incrementAndGetIndex()));
+            push(new ContainerSegmentBase(tag, line, incrementAndGetIndex(),
+                    lazySectionCompilation));
             break;
         case NESTED_TEMPLATE:
             nestedTemplate(tag);
@@ -192,8 +245,8 @@ class DefaultParsingHandler implements ParsingHandler {
 
     @Override
     public void lineSeparator(String separator) {
-        addSegment(
-                new LineSeparatorBase(separator, line, incrementAndGetIndex()));
+        addSegment(new LineSeparatorBase(intern(separator), line,
+                incrementAndGetIndex()));
         line++;
     }
 
@@ -280,13 +333,9 @@ class DefaultParsingHandler implements ParsingHandler {
         }
 
         if (container instanceof NestedTemplateBase) {
-            // Do not add nested template as a segment
-            NestedTemplateBase nestedBase = (NestedTemplateBase) container;
-            Template nested = new Template(engine.getConfiguration()
-                    .getIdentifierGenerator().generate(Mustache.class),
-                    container.getContent(), engine);
-            nested.initRootSegment(nestedBase.asSegment(nested));
-            nestedTemplates.add(nested);
+            // Do not add nested template as a segment - the template is built
+            // once the whole template is parsed
+            nestedTemplateBases.add((NestedTemplateBase) container);
             currentNestedBase = null;
         } else {
             addSegment(container);
@@ -368,6 +417,10 @@ class DefaultParsingHandler implements ParsingHandler {
         return (RootSegmentBase) root;
     }
 
+    private String intern(String text) {
+        return internTextSegments ? textInterner.intern(text) : text;
+    }
+
     private int incrementAndGetIndex() {
         return ++index;
     }
@@ -381,15 +434,12 @@ class DefaultParsingHandler implements ParsingHandler {
         if (engine.getConfiguration().getBooleanPropertyValue(
                 EngineConfigurationKey.NESTED_TEMPLATE_SUPPORT_ENABLED)) {
             // First check existing nested templates
-            for (Template nested : nestedTemplates) {
-                if (nested.getName().equals(tag.getContent())) {
+            for (NestedTemplateBase nested : nestedTemplateBases) {
+                if (nested.getContent().equals(tag.getContent())) {
                     throw new MustacheException(
                             MustacheProblem.COMPILE_NESTED_TEMPLATE_ERROR,
                             "A nested template with the name [%s] is already defined at line %s in the template [%s]",
-                            tag.getContent(),
-                            // The root segment of a nested template references
-                            // the line from the defining template
-                            nested.getRootSegment().getOrigin().getLine(),
+                            tag.getContent(), nested.getLine(),
                             templateName);
                 }
             }
@@ -448,15 +498,24 @@ class DefaultParsingHandler implements ParsingHandler {
 
         private final List<SegmentBase> segments;
 
+        private final boolean lazy;
+
         ContainerSegmentBase(SegmentType type, String content, int line,
                 int index) {
             super(type, content, line, index);
             this.segments = new ArrayList<>();
+            this.lazy = false;
         }
 
-        ContainerSegmentBase(ParsedTag tag, int line, int index) {
+        ContainerSegmentBase(ParsedTag tag, int line, int index,
+                boolean lazySectionCompilation) {
             super(tag, line, index);
             this.segments = new ArrayList<>();
+            // Only the content of regular and inverted sections may be
+            // compiled lazily
+            this.lazy = lazySectionCompilation
+                    && (SegmentType.SECTION.equals(getType())
+                            || SegmentType.INVERTED_SECTION.equals(getType()));
         }
 
         boolean addSegment(SegmentBase segment) {
@@ -490,6 +549,13 @@ class DefaultParsingHandler implements ParsingHandler {
         }
 
         protected List<Segment> getSegments(Template template) {
+            if (lazy && !segments.isEmpty()) {
+                return new LazySegmentList(() -> buildSegments(template));
+            }
+            return buildSegments(template);
+        }
+
+        private List<Segment> buildSegments(Template template) {
             ImmutableListBuilder<Segment> builder = ImmutableList.builder();
             for (SegmentBase wrapper : segments) {
                 builder.add(wrapper.asSegment(template));
@@ -506,6 +572,11 @@ class DefaultParsingHandler implements ParsingHandler {
             return segments.listIterator();
         }
 
+        void replaceSegments(List<SegmentBase> newSegments) {
+            segments.clear();
+            segments.addAll(newSegments);
+        }
+
     }
 
     static class LineSeparatorBase extends SegmentBase {
@@ -18,6 +18,7 @@ package org.trimou.engine.parser;
 import org.trimou.Mustache;
 import org.trimou.annotations.Internal;
 import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.text.TextProcessor;
 import org.trimou.exception.MustacheException;
 
 /**
@@ -26,6 +27,17 @@ import org.trimou.exception.MustacheException;
 @Internal
 public interface ParsingHandler {
 
+    /**
+     * Set the processor for the static text of the template. Must be called
+     * before the parsing is started.
+     *
+     * @param textProcessor
+     * @since 2.5
+     */
+    default void setTextProcessor(TextProcessor textProcessor) {
+        // No-op by default
+    }
+
     /**
      * Parsing started.
      *
@@ -9,12 +9,15 @@ import org.trimou.annotations.Internal;
 @Internal
 public class ParsingHandlerFactory {
 
+    // Shared by all the handlers created by this factory, i.e. per engine
+    private final TextInterner textInterner = new TextInterner();
+
     /**
      *
      * @return the parsing handler
      */
     public ParsingHandler createParsingHandler() {
-        return new DefaultParsingHandler();
+        return new DefaultParsingHandler(textInterner);
     }
 
 }
@@ -16,21 +16,26 @@
 package org.trimou.engine.parser;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trimou.engine.parser.DefaultParsingHandler.ContainerSegmentBase;
+import org.trimou.engine.parser.DefaultParsingHandler.LineSeparatorBase;
 import org.trimou.engine.parser.DefaultParsingHandler.PartialSegmentBase;
 import org.trimou.engine.parser.DefaultParsingHandler.RootSegmentBase;
 import org.trimou.engine.parser.DefaultParsingHandler.SegmentBase;
 import org.trimou.engine.segment.SegmentType;
+import org.trimou.engine.text.TextProcessor;
 import org.trimou.util.Strings;
 
 /**
@@ -116,6 +121,78 @@ final class SegmentBases {
         }
     }
 
+    /**
+     * Each run of text and line separators is processed. The runs of all the
+     * containers are processed in the order of appearance in the template. If
+     * the processed text differs, the run is replaced with text and line
+     * separator segments, i.e. the line separators are preserved so that the
+     * indentation of standalone partials still works. A run which results in
+     * an empty text is removed.
+     *
+     * @param containers
+     * @param processor
+     * @param interner
+     */
+    static void processText(List<? extends ContainerSegmentBase> containers,
+            TextProcessor processor, UnaryOperator<String> interner) {
+
+        Map<SegmentBase, TextRun> runs = new IdentityHashMap<>();
+        for (ContainerSegmentBase container : containers) {
+            readTextRuns(container, runs);
+        }
+        List<TextRun> ordered = new ArrayList<>(runs.values());
+        ordered.sort(Comparator.comparingInt(run -> run.getStart().getIndex()));
+        for (TextRun run : ordered) {
+            run.process(processor, interner);
+        }
+        for (ContainerSegmentBase container : containers) {
+            replaceTextRuns(container, runs);
+        }
+    }
+
+    private static void readTextRuns(ContainerSegmentBase container,
+            Map<SegmentBase, TextRun> runs) {
+        TextRun run = null;
+        for (SegmentBase segment : container) {
+            if (isText(segment)) {
+                if (run == null) {
+                    run = new TextRun();
+                    runs.put(segment, run);
+                }
+                run.segments.add(segment);
+            } else {
+                run = null;
+                if (segment instanceof ContainerSegmentBase) {
+                    readTextRuns((ContainerSegmentBase) segment, runs);
+                }
+            }
+        }
+    }
+
+    private static void replaceTextRuns(ContainerSegmentBase container,
+            Map<SegmentBase, TextRun> runs) {
+        List<SegmentBase> replaced = new ArrayList<>();
+        for (SegmentBase segment : container) {
+            if (isText(segment)) {
+                TextRun run = runs.get(segment);
+                if (run != null) {
+                    replaced.addAll(run.processed);
+                }
+            } else {
+                if (segment instanceof ContainerSegmentBase) {
+                    replaceTextRuns((ContainerSegmentBase) segment, runs);
+                }
+                replaced.add(segment);
+            }
+        }
+        container.replaceSegments(replaced);
+    }
+
+    private static boolean isText(SegmentBase segment) {
+        return SegmentType.TEXT.equals(segment.getType())
+                || SegmentType.LINE_SEPARATOR.equals(segment.getType());
+    }
+
     /**
      *
      * @param standaloneLine
@@ -250,4 +327,58 @@ final class SegmentBases {
         return currentLine;
     }
 
+    private static class TextRun {
+
+        private final List<SegmentBase> segments = new ArrayList<>();
+
+        private List<SegmentBase> processed;
+
+        SegmentBase getStart() {
+            return segments.get(0);
+        }
+
+        void process(TextProcessor processor, UnaryOperator<String> interner) {
+            StringBuilder builder = new StringBuilder();
+            for (SegmentBase segment : segments) {
+                builder.append(segment.getContent());
+            }
+            String text = builder.toString();
+            String result = processor.process(text);
+            if (result.equals(text)) {
+                processed = segments;
+                return;
+            }
+            // Split the processed text into text and line separator segments
+            processed = new ArrayList<>();
+            int line = getStart().getLine();
+            int index = getStart().getIndex();
+            int start = 0;
+            int length = result.length();
+            for (int i = 0; i < length; i++) {
+                char c = result.charAt(i);
+                if (c != '\n' && c != '\r') {
+                    continue;
+                }
+                String separator = c == '\r' && i + 1 < length
+                        && result.charAt(i + 1) == '\n'
+                                ? Strings.LINE_SEPARATOR_CRLF
+                                : String.valueOf(c);
+                if (i > start) {
+                    processed.add(new SegmentBase(SegmentType.TEXT,
+                            interner.apply(result.substring(start, i)), line,
+                            index));
+                }
+                processed.add(new LineSeparatorBase(
+                        interner.apply(separator), line++, index));
+                i += separator.length() - 1;
+                start = i + 1;
+            }
+            if (start < length) {
+                processed.add(new SegmentBase(SegmentType.TEXT,
+                        interner.apply(result.substring(start)), line, index));
+            }
+        }
+
+    }
+
 }
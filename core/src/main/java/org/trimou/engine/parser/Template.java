@@ -23,8 +23,10 @@ import java.util.Map;
 import org.trimou.Mustache;
 import org.trimou.annotations.Internal;
 import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.context.DefaultRenderingAttributes;
 import org.trimou.engine.context.ExecutionContext;
 import org.trimou.engine.context.ExecutionContexts;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.listener.MustacheListener;
 import org.trimou.engine.listener.MustacheRenderingEvent;
 import org.trimou.engine.resource.AbstractReleaseCallbackContainer;
@@ -116,14 +118,17 @@ public class Template implements Mustache {
                         .generate(MustacheRenderingEvent.class));
         try {
             renderingStarted(event);
+            ExecutionContext executionContext = globalExecutionContext
+                    .setRenderingAttributes(event.attributes);
             appendable = rootSegment.execute(appendable,
-                    data != null ? globalExecutionContext.setContextObject(data)
-                            : globalExecutionContext);
+                    data != null ? executionContext.setContextObject(data)
+                            : executionContext);
             // We need for flush the async appendable if needed
             RootSegment.flushAsyncAppendable(appendable);
             renderingFinished(event);
         } finally {
             event.release();
+            event.attributes.clear();
         }
     }
 
@@ -187,12 +192,15 @@ public class Template implements Mustache {
 
         private final long id;
 
+        private final DefaultRenderingAttributes attributes;
+
         /**
          *
          * @param id
          */
         public DefaultMustacheRenderingEvent(long id) {
             this.id = id;
+            this.attributes = new DefaultRenderingAttributes();
         }
 
         @Override
@@ -210,6 +218,11 @@ public class Template implements Mustache {
             return id;
         }
 
+        @Override
+        public RenderingAttributes getRenderingAttributes() {
+            return attributes;
+        }
+
     }
 
     @Override
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.parser;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Deduplicates the text content of templates compiled by the same engine. The
+ * canonical instances are only weakly referenced so that the content of
+ * templates which are no longer used may be garbage collected.
+ *
+ * @author Martin Kouba
+ * @see org.trimou.engine.config.EngineConfigurationKey#INTERN_TEXT_SEGMENTS
+ */
+class TextInterner {
+
+    private final Map<String, WeakReference<String>> canonical = new WeakHashMap<>();
+
+    /**
+     *
+     * @param text
+     * @return the canonical instance equal to the given text
+     */
+    synchronized String intern(String text) {
+        WeakReference<String> ref = canonical.get(text);
+        if (ref != null) {
+            String value = ref.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        canonical.put(text, new WeakReference<>(text));
+        return text;
+    }
+
+}
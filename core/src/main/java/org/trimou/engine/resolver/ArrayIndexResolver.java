@@ -62,6 +62,11 @@ public class ArrayIndexResolver extends IndexResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null && contextObjectType.isArray();
+    }
+
     private boolean isArray(Object base) {
 
         if (base.getClass().isArray()) {
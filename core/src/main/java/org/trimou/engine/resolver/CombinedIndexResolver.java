@@ -86,6 +86,13 @@ public class CombinedIndexResolver extends IndexResolver implements Validateable
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && (List.class.isAssignableFrom(contextObjectType)
+                        || contextObjectType.isArray());
+    }
+
 
 
     @Override
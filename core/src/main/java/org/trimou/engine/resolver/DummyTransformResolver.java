@@ -61,4 +61,11 @@ public class DummyTransformResolver extends TransformResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        // The marker is a string
+        return contextObjectType == null
+                || String.class.equals(contextObjectType);
+    }
+
 }
@@ -64,4 +64,10 @@ public class ListIndexResolver extends IndexResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && List.class.isAssignableFrom(contextObjectType);
+    }
+
 }
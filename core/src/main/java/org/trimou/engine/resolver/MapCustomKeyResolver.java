@@ -41,6 +41,12 @@ public abstract class MapCustomKeyResolver extends AbstractResolver {
         return map.get(convert(name));
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && Map.class.isAssignableFrom(contextObjectType);
+    }
+
     /**
      *
      * @param name
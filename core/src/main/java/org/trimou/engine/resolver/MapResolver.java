@@ -58,6 +58,13 @@ public class MapResolver extends AbstractResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && (Map.class.isAssignableFrom(contextObjectType)
+                        || Mapper.class.isAssignableFrom(contextObjectType));
+    }
+
     @Override
     public Hint createHint(Object contextObject, String name,
             ResolutionContext context) {
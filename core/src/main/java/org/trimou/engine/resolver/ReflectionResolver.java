@@ -117,6 +117,11 @@ public class ReflectionResolver extends AbstractResolver {
         }
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null;
+    }
+
     @Override
     public Hint createHint(Object contextObject, String name,
             ResolutionContext context) {
@@ -16,6 +16,7 @@
 package org.trimou.engine.resolver;
 
 import org.trimou.engine.context.ExecutionContext;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.resource.ReleaseCallbackContainer;
 import org.trimou.engine.segment.Segment;
 
@@ -43,4 +44,14 @@ public interface ResolutionContext extends ReleaseCallbackContainer {
      */
     int getKeyPartIndex();
 
+    /**
+     *
+     * @return the attributes of the current rendering or <code>null</code> if
+     *         not available
+     * @since 2.5
+     */
+    default RenderingAttributes getRenderingAttributes() {
+        return null;
+    }
+
 }
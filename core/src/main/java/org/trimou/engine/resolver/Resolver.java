@@ -58,6 +58,25 @@ public interface Resolver extends WithPriority, ConfigurationAware {
     Object resolve(Object contextObject, String name,
             ResolutionContext context);
 
+    /**
+     * A resolver may declare that it's never able to resolve a value for the
+     * given type of context object. In that case, it's skipped during
+     * resolution for any context object of the given type. The result must only
+     * depend on the given type, i.e. it should not change over time.
+     *
+     * @param contextObjectType
+     *            The type of the context object, or <code>null</code> if the
+     *            context object is <code>null</code> (context-unrelated lookup)
+     * @return <code>true</code> if this resolver may be able to resolve a value
+     *         for the given type of context object, <code>false</code>
+     *         otherwise
+     * @see org.trimou.engine.config.Configuration#getResolvers(Class)
+     * @since 2.5
+     */
+    default boolean appliesTo(Class<?> contextObjectType) {
+        return true;
+    }
+
     @Override
     default int getPriority() {
         return DEFAULT_PRIORITY;
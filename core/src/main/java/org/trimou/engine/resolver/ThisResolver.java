@@ -49,6 +49,11 @@ public class ThisResolver extends AbstractResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null;
+    }
+
     @Override
     public Hint createHint(Object contextObject, String name, ResolutionContext context) {
         return hint;
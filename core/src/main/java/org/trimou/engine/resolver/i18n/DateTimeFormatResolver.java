@@ -18,7 +18,6 @@ package org.trimou.engine.resolver.i18n;
 import static org.trimou.engine.priority.Priorities.rightAfter;
 
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -28,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trimou.engine.config.ConfigurationKey;
 import org.trimou.engine.config.SimpleConfigurationKey;
+import org.trimou.engine.locale.DateFormatCache;
 import org.trimou.engine.resolver.CombinedIndexResolver;
 import org.trimou.engine.resolver.ResolutionContext;
 import org.trimou.engine.resolver.TransformResolver;
@@ -66,6 +66,8 @@ public class DateTimeFormatResolver extends TransformResolver {
 
     private String customPattern;
 
+    private DateFormatCache formats;
+
     /**
      *
      */
@@ -105,11 +107,21 @@ public class DateTimeFormatResolver extends TransformResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && (Date.class.isAssignableFrom(contextObjectType)
+                        || Number.class.isAssignableFrom(contextObjectType)
+                        || Calendar.class.isAssignableFrom(contextObjectType));
+    }
+
     @Override
     public void init() {
         super.init();
         customPattern = configuration
                 .getStringPropertyValue(CUSTOM_PATTERN_KEY);
+        formats = new DateFormatCache(configuration,
+                DateTimeFormatResolver.class.getName());
         LOGGER.info("Initialized [customPattern: {}]", customPattern);
     }
 
@@ -128,18 +140,16 @@ public class DateTimeFormatResolver extends TransformResolver {
     }
 
     private String format(int style, Object object) {
-        return DateFormat.getDateTimeInstance(style, style, getCurrentLocale())
-                .format(object);
+        return formats.format(object, style, style, getCurrentLocale(), null);
     }
 
     private String formatDate(int style, Object object) {
-        return DateFormat.getDateInstance(style, getCurrentLocale()).format(
-                object);
+        return formats.format(object, style, DateFormatCache.NO_TIME,
+                getCurrentLocale(), null);
     }
 
     private String formatCustom(Object object) {
-        return new SimpleDateFormat(customPattern, getCurrentLocale())
-                .format(object);
+        return formats.format(object, customPattern, getCurrentLocale(), null);
     }
 
 }
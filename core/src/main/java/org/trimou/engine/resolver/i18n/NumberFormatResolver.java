@@ -68,6 +68,12 @@ public class NumberFormatResolver extends TransformResolver {
                 && (contextObject instanceof Number);
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && Number.class.isAssignableFrom(contextObjectType);
+    }
+
     @Override
     public Object transform(Object contextObject, String name,
             ResolutionContext context) {
@@ -19,6 +19,7 @@ import static org.trimou.engine.priority.Priorities.rightAfter;
 
 import java.util.ResourceBundle;
 
+import org.trimou.engine.locale.ResourceBundleCache;
 import org.trimou.engine.resolver.CombinedIndexResolver;
 import org.trimou.engine.resolver.DummyTransformResolver;
 import org.trimou.engine.resolver.ResolutionContext;
@@ -37,6 +38,8 @@ import org.trimou.lambda.i18n.ResourceBundleLambda;
  */
 public class ResourceBundleResolver extends DummyTransformResolver {
 
+    private ResourceBundleCache bundles;
+
     /**
      *
      * @param baseName
@@ -56,15 +59,28 @@ public class ResourceBundleResolver extends DummyTransformResolver {
         super(priority, baseName);
     }
 
+    @Override
+    public void init() {
+        super.init();
+        this.bundles = new ResourceBundleCache(configuration,
+                ResourceBundleResolver.class.getName());
+    }
+
     @Override
     public Object transform(Object contextObject, String name,
             ResolutionContext context) {
-        ResourceBundle bundle = ResourceBundle.getBundle(matchingName(0),
-                getCurrentLocale());
-        if (bundle.containsKey(name)) {
-            return bundle.getObject(name);
+        return bundles.getObject(matchingName(0), getCurrentLocale(), name);
+    }
+
+    /**
+     * Invalidate the cached resource bundles.
+     *
+     * @since 2.5
+     */
+    public void invalidateCache() {
+        if (bundles != null) {
+            bundles.invalidate();
         }
-        return null;
     }
 
 }
@@ -48,7 +48,9 @@ abstract class AbstractContainerSegment extends AbstractSegment
             List<Segment> segments) {
         super(text, origin);
         this.segments = segments;
-        this.singleton = segments.size() == 1 ? segments.get(0) : null;
+        // Do not force the materialization of lazy segments
+        this.singleton = !(segments instanceof LazySegmentList)
+                && segments.size() == 1 ? segments.get(0) : null;
     }
 
     public Appendable execute(Appendable appendable, ExecutionContext context) {
@@ -16,22 +16,29 @@
 package org.trimou.engine.segment;
 
 import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheTagInfo;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.context.ExecutionContext;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.context.ValueWrapper;
 import org.trimou.engine.interpolation.LiteralSupport;
 import org.trimou.engine.parser.Template;
@@ -276,6 +283,22 @@ class HelperExecutionHandler {
         // true if no placeholder found, also if hash map is empty
         private final boolean isHashValuePlaceholderFound;
 
+        // Keys and values with the same index form a hash entry, only
+        // initialized if a hash placeholder is found
+        private final String[] hashKeys;
+
+        private final Object[] hashValues;
+
+        // The number of value wrappers created when resolving params and hash
+        private final int valueWrappersCapacity;
+
+        // See also EngineConfigurationKey.DYNAMIC_KEY_CACHE_SIZE
+        private final int dynamicKeyCacheSize;
+
+        // Lazily initialized, a slot is only filled once - colliding keys are
+        // not cached
+        private volatile AtomicReferenceArray<ValueProvider> dynamicKeys;
+
         private OptionsBuilder(List<Object> parameters,
                 Map<String, Object> hash, HelperAwareSegment segment,
                 MustacheEngine engine) {
@@ -287,6 +310,57 @@ class HelperExecutionHandler {
                     parameters);
             this.isHashValuePlaceholderFound = initHashValuePlaceholderFound(
                     hash);
+            int capacity = 0;
+            for (Object param : parameters) {
+                capacity += getValueWrappersCount(param);
+            }
+            if (isHashValuePlaceholderFound) {
+                this.hashKeys = new String[hash.size()];
+                this.hashValues = new Object[hash.size()];
+                int idx = 0;
+                for (Entry<String, Object> entry : hash.entrySet()) {
+                    hashKeys[idx] = entry.getKey();
+                    hashValues[idx] = entry.getValue();
+                    capacity += getValueWrappersCount(entry.getValue());
+                    idx++;
+                }
+            } else {
+                this.hashKeys = null;
+                this.hashValues = null;
+            }
+            this.valueWrappersCapacity = capacity;
+            this.dynamicKeyCacheSize = engine.getConfiguration()
+                    .getIntegerPropertyValue(
+                            EngineConfigurationKey.DYNAMIC_KEY_CACHE_SIZE);
+        }
+
+        /**
+         *
+         * @param key
+         * @return the value provider for the given dynamic key or
+         *         <code>null</code> if the cache is disabled or the slot is
+         *         occupied by another key
+         */
+        ValueProvider getValueProvider(String key) {
+            if (dynamicKeyCacheSize <= 0) {
+                return null;
+            }
+            AtomicReferenceArray<ValueProvider> providers = dynamicKeys;
+            if (providers == null) {
+                // Benign race - at worst a few providers are created again
+                providers = new AtomicReferenceArray<>(dynamicKeyCacheSize);
+                dynamicKeys = providers;
+            }
+            int index = (key.hashCode() & Integer.MAX_VALUE)
+                    % dynamicKeyCacheSize;
+            ValueProvider provider = providers.get(index);
+            if (provider == null) {
+                provider = new ValueProvider(key, engine.getConfiguration());
+                if (!providers.compareAndSet(index, null, provider)) {
+                    provider = providers.get(index);
+                }
+            }
+            return provider.getKey().equals(key) ? provider : null;
         }
 
         @Override
@@ -315,99 +389,7 @@ class HelperExecutionHandler {
 
         public DefaultOptions build(Appendable appendable,
                 ExecutionContext executionContext) {
-            List<ValueWrapper> valueWrappers = isParamValuePlaceholderFound
-                    || isHashValuePlaceholderFound ? new LinkedList<>() : null;
-            return new DefaultOptions(appendable, executionContext, segment,
-                    getFinalParameters(executionContext, valueWrappers),
-                    getFinalHash(executionContext, valueWrappers),
-                    valueWrappers, engine, this);
-        }
-
-        private List<Object> getFinalParameters(
-                ExecutionContext executionContext,
-                List<ValueWrapper> valueWrappers) {
-            if (isParamValuePlaceholderFound) {
-                // At this point parameters list is never empty
-                int size = parameters.size();
-                switch (size) {
-                case 1:
-                    // Very often there will be only single param
-                    return Collections
-                            .singletonList(resolveValue(parameters.get(0),
-                                    valueWrappers, executionContext));
-                default:
-                    List<Object> finalParams = new ArrayList<>(size);
-                    for (Object param : parameters) {
-                        finalParams.add(resolveValue(param, valueWrappers,
-                                executionContext));
-                    }
-                    return Collections.unmodifiableList(finalParams);
-                }
-            } else {
-                return parameters;
-            }
-        }
-
-        private Map<String, Object> getFinalHash(
-                ExecutionContext executionContext,
-                List<ValueWrapper> valueWrappers) {
-            if (isHashValuePlaceholderFound) {
-                // At this point hash map is never empty
-                int size = hash.size();
-                switch (size) {
-                case 1:
-                    Entry<String, Object> singleEntry = hash.entrySet()
-                            .iterator().next();
-                    return Collections.singletonMap(singleEntry.getKey(),
-                            resolveValue(singleEntry.getValue(), valueWrappers,
-                                    executionContext));
-                default:
-                    Map<String, Object> finalHash = new HashMap<>();
-                    for (Entry<String, Object> entry : hash.entrySet()) {
-                        finalHash.put(entry.getKey(),
-                                resolveValue(entry.getValue(), valueWrappers,
-                                        executionContext));
-                    }
-                    return Collections.unmodifiableMap(finalHash);
-                }
-            } else {
-                return hash;
-            }
-        }
-
-        private Object resolveValue(Object value,
-                List<ValueWrapper> valueWrappers,
-                ExecutionContext executionContext) {
-            if (value instanceof ValuePlaceholder) {
-                if (value instanceof ListValuePlaceholder) {
-                    ListValuePlaceholder listValues = (ListValuePlaceholder) value;
-                    if (listValues.hasValuePlaceholderElement) {
-                        ImmutableListBuilder<Object> builder = ImmutableList
-                                .builder();
-                        for (Object element : listValues) {
-                            builder.add(resolveValue(element, valueWrappers,
-                                    executionContext));
-                        }
-                        return builder.build();
-                    } else {
-                        // Values are immutable
-                        return listValues.getValues();
-                    }
-                } else {
-                    final ValueWrapper wrapper;
-                    if (value instanceof DefaultValuePlaceholder) {
-                        wrapper = ((DefaultValuePlaceholder) value)
-                                .getProvider().get(executionContext);
-                    } else {
-                        wrapper = executionContext
-                                .getValue(((ValuePlaceholder) value).getName());
-                    }
-                    valueWrappers.add(wrapper);
-                    return wrapper.get();
-                }
-            } else {
-                return value;
-            }
+            return new DefaultOptions(appendable, executionContext, this);
         }
 
         private boolean initParamValuePlaceholderFound(
@@ -436,14 +418,32 @@ class HelperExecutionHandler {
             return false;
         }
 
+        private static int getValueWrappersCount(Object value) {
+            if (value instanceof ListValuePlaceholder) {
+                int count = 0;
+                for (Object element : (ListValuePlaceholder) value) {
+                    count += getValueWrappersCount(element);
+                }
+                return count;
+            }
+            return value instanceof ValuePlaceholder ? 1 : 0;
+        }
+
     }
 
+    /**
+     * A single instance is created per helper invocation. Resolved params and
+     * hash values are stored in arrays and exposed through immutable views,
+     * value wrappers are tracked in an array.
+     */
     private static class DefaultOptions implements Options {
 
         private static final Logger LOGGER = LoggerFactory
                 .getLogger(DefaultOptions.class);
 
-        protected List<ValueWrapper> valueWrappers;
+        protected ValueWrapper[] valueWrappers;
+
+        protected int valueWrappersSize;
 
         protected Appendable appendable;
 
@@ -451,49 +451,81 @@ class HelperExecutionHandler {
 
         protected ExecutionContext executionContext;
 
-        private final MustacheEngine engine;
+        private final OptionsBuilder definition;
 
-        private final HelperAwareSegment segment;
+        private final Object[] paramValues;
 
-        private final List<Object> parameters;
+        private final Object[] hashValues;
 
-        private final Map<String, Object> hash;
+        private List<Object> parameters;
 
-        private final HelperDefinition originalDefinition;
+        private Map<String, Object> hash;
 
         /**
          *
          * @param appendable
          * @param executionContext
-         * @param segment
-         * @param parameters
-         * @param hash
-         * @param valueWrappers
-         * @param engine
-         * @param originalDefinition
+         * @param definition
          */
         DefaultOptions(Appendable appendable, ExecutionContext executionContext,
-                HelperAwareSegment segment, List<Object> parameters,
-                Map<String, Object> hash, List<ValueWrapper> valueWrappers,
-                MustacheEngine engine, HelperDefinition originalDefinition) {
+                OptionsBuilder definition) {
             this.appendable = appendable;
-            this.valueWrappers = valueWrappers;
             this.executionContext = executionContext;
             this.pushed = 0;
-            this.segment = segment;
-            this.parameters = parameters;
-            this.hash = hash;
-            this.engine = engine;
-            this.originalDefinition = originalDefinition;
+            this.definition = definition;
+            if (definition.isParamValuePlaceholderFound) {
+                // At this point parameters list is never empty
+                List<Object> params = definition.parameters;
+                this.paramValues = new Object[params.size()];
+                for (int i = 0; i < paramValues.length; i++) {
+                    paramValues[i] = resolveValue(params.get(i));
+                }
+            } else {
+                this.paramValues = null;
+                this.parameters = definition.parameters;
+            }
+            if (definition.isHashValuePlaceholderFound) {
+                // At this point hash map is never empty
+                Object[] values = definition.hashValues;
+                this.hashValues = new Object[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    hashValues[i] = resolveValue(values[i]);
+                }
+            } else {
+                this.hashValues = null;
+                this.hash = definition.hash;
+            }
+        }
+
+        /**
+         *
+         * @param appendable
+         * @param original
+         */
+        private DefaultOptions(Appendable appendable, DefaultOptions original) {
+            this.appendable = appendable;
+            this.executionContext = original.executionContext;
+            this.pushed = 0;
+            this.definition = original.definition;
+            this.paramValues = null;
+            this.hashValues = null;
+            this.parameters = original.getParameters();
+            this.hash = original.getHash();
         }
 
         @Override
         public List<Object> getParameters() {
+            if (parameters == null) {
+                parameters = new ArrayListView(paramValues);
+            }
             return parameters;
         }
 
         @Override
         public Map<String, Object> getHash() {
+            if (hash == null) {
+                hash = new ArrayMapView(definition.hashKeys, hashValues);
+            }
             return hash;
         }
 
@@ -508,7 +540,7 @@ class HelperExecutionHandler {
 
         @Override
         public void fn() {
-            appendable = segment.fn(appendable, executionContext);
+            appendable = definition.segment.fn(appendable, executionContext);
         }
 
         @Override
@@ -541,11 +573,11 @@ class HelperExecutionHandler {
 
         @Override
         public Object getValue(String key) {
-            if (valueWrappers == null) {
-                valueWrappers = new ArrayList<>(5);
-            }
-            ValueWrapper wrapper = executionContext.getValue(key);
-            valueWrappers.add(wrapper);
+            ValueProvider provider = definition.getValueProvider(key);
+            ValueWrapper wrapper = provider != null
+                    ? provider.get(executionContext)
+                    : executionContext.getValue(key);
+            addValueWrapper(wrapper);
             return wrapper.get();
         }
 
@@ -561,7 +593,7 @@ class HelperExecutionHandler {
                     appendable);
 
             // Now submit the executable and get the future
-            ExecutorService executor = engine.getConfiguration()
+            ExecutorService executor = definition.engine.getConfiguration()
                     .geExecutorService();
             if (executor == null) {
                 throw new MustacheException(
@@ -573,9 +605,7 @@ class HelperExecutionHandler {
                         // We need a separate appendable for the async
                         // execution
                         DefaultOptions asyncOptions = new DefaultOptions(
-                                new AsyncAppendable(asyncAppendable),
-                                executionContext, segment, parameters, hash,
-                                new ArrayList<>(), engine, originalDefinition);
+                                new AsyncAppendable(asyncAppendable), this);
                         executable.execute(asyncOptions);
                         return (AsyncAppendable) asyncOptions
                                 .getAppendable();
@@ -588,13 +618,14 @@ class HelperExecutionHandler {
         public String source(String templateId) {
             Checker.checkArgumentNotEmpty(templateId);
 
-            String mustacheSource = engine.getMustacheSource(templateId);
+            String mustacheSource = definition.engine
+                    .getMustacheSource(templateId);
 
             if (mustacheSource == null) {
                 throw new MustacheException(
                         MustacheProblem.RENDER_INVALID_PARTIAL_KEY,
                         "No mustache template found for the given key: %s %s",
-                        templateId, segment.getOrigin());
+                        templateId, definition.segment.getOrigin());
             }
             return mustacheSource;
         }
@@ -606,34 +637,36 @@ class HelperExecutionHandler {
 
         @Override
         public void fn(Appendable appendable) {
-            segment.fn(appendable, executionContext);
+            definition.segment.fn(appendable, executionContext);
         }
 
         @Override
         public MustacheTagInfo getTagInfo() {
-            return segment.getTagInfo();
+            return definition.getTagInfo();
         }
 
         @Override
         public String getContentLiteralBlock() {
-            if (segment instanceof ContainerSegment) {
-                return ((ContainerSegment) segment).getContentLiteralBlock();
-            } else {
-                return Strings.EMPTY;
-            }
+            return definition.getContentLiteralBlock();
         }
 
         @Override
         public HelperDefinition getOriginalDefinition() {
-            return originalDefinition;
+            return definition;
+        }
+
+        @Override
+        public RenderingAttributes getRenderingAttributes() {
+            return executionContext.getRenderingAttributes();
         }
 
         protected void partial(String templateId, Appendable appendable,
                 ExecutionContext executionContext) {
             Checker.checkArgumentsNotNull(templateId, appendable);
 
+            HelperAwareSegment segment = definition.segment;
             Template partialTemplate = Segments.lookupTemplate(templateId,
-                    engine, segment.getOrigin().getTemplate());
+                    definition.engine, segment.getOrigin().getTemplate());
 
             if (partialTemplate == null) {
                 throw new MustacheException(
@@ -647,17 +680,11 @@ class HelperExecutionHandler {
         }
 
         void release() {
-            if (valueWrappers != null) {
-                int wrappersSize = valueWrappers.size();
-                if (wrappersSize == 1) {
-                    valueWrappers.get(0).release();
-                } else if (wrappersSize > 1) {
-                    for (ValueWrapper wrapper : valueWrappers) {
-                        wrapper.release();
-                    }
-                }
+            for (int i = 0; i < valueWrappersSize; i++) {
+                valueWrappers[i].release();
             }
             if (pushed > 0) {
+                HelperAwareSegment segment = definition.segment;
                 LOGGER.info(
                         "{} remaining objects pushed on the context stack will be automatically garbage collected [helperName: {}, template: {}]",
                         pushed, splitHelperName(segment.getTagInfo().getText(), segment).next(),
@@ -665,6 +692,156 @@ class HelperExecutionHandler {
             }
         }
 
+        private Object resolveValue(Object value) {
+            if (value instanceof ValuePlaceholder) {
+                if (value instanceof ListValuePlaceholder) {
+                    ListValuePlaceholder listValues = (ListValuePlaceholder) value;
+                    if (listValues.hasValuePlaceholderElement) {
+                        ImmutableListBuilder<Object> builder = ImmutableList
+                                .builder();
+                        for (Object element : listValues) {
+                            builder.add(resolveValue(element));
+                        }
+                        return builder.build();
+                    } else {
+                        // Values are immutable
+                        return listValues.getValues();
+                    }
+                } else {
+                    final ValueWrapper wrapper;
+                    if (value instanceof DefaultValuePlaceholder) {
+                        wrapper = ((DefaultValuePlaceholder) value)
+                                .getProvider().get(executionContext);
+                    } else {
+                        wrapper = executionContext
+                                .getValue(((ValuePlaceholder) value).getName());
+                    }
+                    addValueWrapper(wrapper);
+                    return wrapper.get();
+                }
+            } else {
+                return value;
+            }
+        }
+
+        private void addValueWrapper(ValueWrapper wrapper) {
+            if (valueWrappers == null) {
+                valueWrappers = new ValueWrapper[Math
+                        .max(definition.valueWrappersCapacity, 2)];
+            } else if (valueWrappersSize == valueWrappers.length) {
+                valueWrappers = Arrays.copyOf(valueWrappers,
+                        valueWrappersSize * 2);
+            }
+            valueWrappers[valueWrappersSize++] = wrapper;
+        }
+
+    }
+
+    /**
+     * An immutable list backed by an array.
+     */
+    private static final class ArrayListView extends AbstractList<Object>
+            implements RandomAccess {
+
+        private final Object[] values;
+
+        ArrayListView(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+    }
+
+    /**
+     * An immutable map backed by an array of keys and an array of values. The
+     * number of hash entries is usually very small so that a linear lookup is
+     * sufficient.
+     */
+    private static final class ArrayMapView extends AbstractMap<String, Object> {
+
+        private final String[] keys;
+
+        private final Object[] values;
+
+        ArrayMapView(String[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int idx = indexOf(key);
+            return idx != -1 ? values[idx] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) != -1;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+
+                        private int idx = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return idx < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Object> entry = new SimpleImmutableEntry<>(
+                                    keys[idx], values[idx]);
+                            idx++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
     }
 
     private static class DefaultValuePlaceholder implements ValuePlaceholder {
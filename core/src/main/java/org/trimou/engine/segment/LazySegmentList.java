@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.segment;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.trimou.annotations.Internal;
+import org.trimou.util.Checker;
+
+/**
+ * An immutable list of segments which is only materialized when first needed,
+ * e.g. when the owning container segment is executed for the first time.
+ * Materialization is thread-safe and happens at most once.
+ *
+ * @author Martin Kouba
+ * @see org.trimou.engine.config.EngineConfigurationKey#LAZY_SECTION_COMPILATION
+ */
+@Internal
+public final class LazySegmentList extends AbstractList<Segment> {
+
+    // Guarded by this
+    private Supplier<List<Segment>> supplier;
+
+    private volatile List<Segment> segments;
+
+    /**
+     *
+     * @param supplier
+     */
+    public LazySegmentList(Supplier<List<Segment>> supplier) {
+        Checker.checkArgumentNotNull(supplier);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Segment get(int index) {
+        return materialize().get(index);
+    }
+
+    @Override
+    public int size() {
+        return materialize().size();
+    }
+
+    @Override
+    public Iterator<Segment> iterator() {
+        return materialize().iterator();
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the segments were already materialized,
+     *         <code>false</code> otherwise
+     */
+    public boolean isMaterialized() {
+        return segments != null;
+    }
+
+    private List<Segment> materialize() {
+        List<Segment> result = segments;
+        if (result == null) {
+            synchronized (this) {
+                result = segments;
+                if (result == null) {
+                    result = supplier.get();
+                    segments = result;
+                    // Release the segment bases
+                    supplier = null;
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -18,6 +18,7 @@ package org.trimou.engine.segment;
 import static org.trimou.engine.config.EngineConfigurationKey.DEBUG_MODE;
 import static org.trimou.engine.config.EngineConfigurationKey.TEMPLATE_CACHE_ENABLED;
 import static org.trimou.engine.config.EngineConfigurationKey.TEMPLATE_CACHE_EXPIRATION_TIMEOUT;
+import static org.trimou.engine.config.EngineConfigurationKey.TEMPLATE_CACHE_REVALIDATION_INTERVAL;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,14 +42,17 @@ final class Segments {
      *
      * @param configuration
      * @return <code>true</code> if it's possible to cache the template in a
-     *         segment, i.e. if the cache is enabled, no expiration timeout is
-     *         set and debug mode is not enabled, <code>false</code> otherwise
+     *         segment, i.e. if the cache is enabled, no expiration timeout
+     *         and no revalidation interval is set and debug mode is not
+     *         enabled, <code>false</code> otherwise
      */
     static boolean isTemplateCachingAllowed(Configuration configuration) {
         return !configuration.getBooleanPropertyValue(DEBUG_MODE)
                 && configuration.getBooleanPropertyValue(TEMPLATE_CACHE_ENABLED)
                 && configuration.getLongPropertyValue(
-                        TEMPLATE_CACHE_EXPIRATION_TIMEOUT) <= 0;
+                        TEMPLATE_CACHE_EXPIRATION_TIMEOUT) <= 0
+                && configuration.getLongPropertyValue(
+                        TEMPLATE_CACHE_REVALIDATION_INTERVAL) < 0;
     }
 
     /**
@@ -21,6 +21,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.trimou.engine.config.Configuration;
 import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.context.ContextUnrelatedLookup;
 import org.trimou.engine.context.ExecutionContext;
 import org.trimou.engine.context.ValueWrapper;
 import org.trimou.engine.resolver.EnhancedResolver.Hint;
@@ -43,6 +44,11 @@ class ValueProvider {
      */
     private final AtomicReference<Hint> hint;
 
+    /**
+     * @see EngineConfigurationKey#CONTEXT_UNRELATED_LOOKUP_CACHE_ENABLED
+     */
+    private final ContextUnrelatedLookup lookup;
+
     /**
      *
      * @param text
@@ -62,10 +68,20 @@ class ValueProvider {
         } else {
             this.hint = null;
         }
+        if (configuration.getBooleanPropertyValue(
+                EngineConfigurationKey.CONTEXT_UNRELATED_LOOKUP_CACHE_ENABLED)) {
+            this.lookup = new ContextUnrelatedLookup();
+        } else {
+            this.lookup = null;
+        }
+    }
+
+    String getKey() {
+        return key;
     }
 
     ValueWrapper get(ExecutionContext context) {
-        ValueWrapper value = context.getValue(key, keyParts, hint);
+        ValueWrapper value = context.getValue(key, keyParts, hint, lookup);
         if (hint != null && value.getHint() != null) {
             hint.compareAndSet(null, value.getHint());
         }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.engine.text;
+
+import org.trimou.engine.listener.MustacheParsingEvent;
+
+/**
+ * Processes the static text of a template once the template is parsed, e.g.
+ * to minify the text. The processing happens at compile time, i.e. there is no
+ * overhead during rendering.
+ * <p>
+ * The processor is invoked for each run of text and line separators between
+ * two tags, after the standalone lines are removed. The runs are processed in
+ * the order of appearance in the template, including the runs of nested
+ * templates, so that a processor registered for a single template may keep
+ * some state between invocations (e.g. whether the current run is inside a
+ * <code>&lt;pre&gt;</code> element). The line separators of the processed
+ * text are preserved.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ * @see MustacheParsingEvent#addTextProcessor(TextProcessor)
+ */
+@FunctionalInterface
+public interface TextProcessor {
+
+    /**
+     *
+     * @param text
+     *            The text, never <code>null</code> nor empty
+     * @return the processed text, an empty string means the text is removed
+     */
+    String process(String text);
+
+}
@@ -20,20 +20,24 @@ import static org.trimou.handlebars.OptionsHashKeys.GUARD;
 import static org.trimou.handlebars.OptionsHashKeys.KEY;
 import static org.trimou.handlebars.OptionsHashKeys.UNIT;
 
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.config.ConfigurationKey;
 import org.trimou.engine.config.SimpleConfigurationKey;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
+import org.trimou.handlebars.FragmentStore.Fragment;
 import org.trimou.handlebars.HelperDefinition.ValuePlaceholder;
 import org.trimou.util.ImmutableSet;
 
@@ -68,7 +72,10 @@ import org.trimou.util.ImmutableSet;
  * <code>guard</code> may be any object - every time the helper is executed the
  * current value of the {@link Object#toString()} is compared to the
  * {@link Object#toString()} value of the guard referenced during the last
- * update of the fragment. If they're not equal the fragment is updated.
+ * update of the fragment. If they're not equal the fragment is updated. By
+ * default, the expiration is measured from the last use of the fragment. If a
+ * custom {@link FragmentStore} is used the expiration is measured from the
+ * last update of the fragment.
  * </p>
  *
  * <code>
@@ -84,8 +91,19 @@ import org.trimou.util.ImmutableSet;
  * </p>
  *
  * <p>
- * To limit the size of the fragment cache use
- * {@link #FRAGMENT_CACHE_MAX_SIZE_KEY}.
+ * Only one thread updates an expired fragment at a time. Other threads keep
+ * using the previous content in the meantime. If
+ * {@link #FRAGMENT_CACHE_ASYNC_REVALIDATION_KEY} is set to <code>true</code>
+ * and an {@link ExecutorService} is configured, the update is performed
+ * asynchronously and the thread which detected the expiration also uses the
+ * previous content.
+ * </p>
+ *
+ * <p>
+ * By default, the fragments are stored in memory. To limit the size of the
+ * fragment cache use {@link #FRAGMENT_CACHE_MAX_SIZE_KEY} and/or
+ * {@link #FRAGMENT_CACHE_MAX_BYTES_KEY}. A custom {@link FragmentStore} may be
+ * used to share the fragments, e.g. among multiple JVMs.
  * </p>
  *
  * @author Martin Kouba
@@ -98,10 +116,62 @@ public class CacheHelper extends BasicSectionHelper {
     public static final ConfigurationKey FRAGMENT_CACHE_MAX_SIZE_KEY = new SimpleConfigurationKey(
             CacheHelper.class.getName() + ".fragmentCacheMaxSize", 500L);
 
+    /**
+     * Limit the approximate memory footprint of the cached content (two bytes
+     * per char). The least recently used fragments are invalidated once the
+     * limit is exceeded. Zero and negative values mean no limit.
+     */
+    public static final ConfigurationKey FRAGMENT_CACHE_MAX_BYTES_KEY = new SimpleConfigurationKey(
+            CacheHelper.class.getName() + ".fragmentCacheMaxBytes", 0L);
+
+    /**
+     * If set to <code>true</code> and an {@link ExecutorService} is
+     * configured, expired fragments are updated asynchronously and the
+     * previous content is used until the update is finished.
+     * <p>
+     * Note that the update may be performed after the rendering of the
+     * template is finished. Therefore, the data referenced in the fragment
+     * must remain valid.
+     */
+    public static final ConfigurationKey FRAGMENT_CACHE_ASYNC_REVALIDATION_KEY = new SimpleConfigurationKey(
+            CacheHelper.class.getName() + ".fragmentCacheAsyncRevalidation",
+            false);
+
     private static final Logger LOGGER = LoggerFactory
             .getLogger(CacheHelper.class);
 
-    private volatile ComputingCache<Key, Fragment> fragments;
+    private volatile FragmentStore fragments;
+
+    private volatile DefaultFragmentStore defaultFragments;
+
+    private final boolean sharedStore;
+
+    private final ConcurrentMap<String, Update> updates;
+
+    private boolean asyncRevalidation;
+
+    /**
+     * The fragments are stored in memory.
+     *
+     * @see #FRAGMENT_CACHE_MAX_SIZE_KEY
+     * @see #FRAGMENT_CACHE_MAX_BYTES_KEY
+     */
+    public CacheHelper() {
+        this(null);
+    }
+
+    /**
+     *
+     * @param fragmentStore
+     *            The store used to cache the fragments, if <code>null</code>
+     *            the fragments are stored in memory
+     * @since 2.5
+     */
+    public CacheHelper(FragmentStore fragmentStore) {
+        this.fragments = fragmentStore;
+        this.sharedStore = fragmentStore != null;
+        this.updates = new ConcurrentHashMap<>();
+    }
 
     @Override
     public void execute(Options options) {
@@ -112,42 +182,61 @@ public class CacheHelper extends BasicSectionHelper {
         Object expire = hash.get(EXPIRE);
         Object unit = expire != null ? hash.get(UNIT) : null;
 
-        StringBuilder fragmentKey = new StringBuilder();
-        fragmentKey.append(options.getTagInfo().getTemplateGeneratedId());
-        fragmentKey.append(options.getTagInfo().getId());
+        StringBuilder keyBuilder = new StringBuilder();
+        // The generated id is not stable across engines and JVMs
+        keyBuilder.append(sharedStore ? options.getTagInfo().getTemplateName()
+                : options.getTagInfo().getTemplateGeneratedId());
+        keyBuilder.append(options.getTagInfo().getId());
         if (key != null) {
-            fragmentKey.append(key.toString());
+            keyBuilder.append(key.toString());
         }
-
-        Fragment fragment = fragments
-                .get(new Key(fragmentKey.toString(), options));
-
-        if (fragment.getHits() > 0 && (isExpired(fragment, expire, unit)
-                || isGuardCompromised(fragment, guard))) {
-            fragment.update(getContent(options), guard);
+        String fragmentKey = keyBuilder.toString();
+        long timeToLive = getTimeToLive(expire, unit);
+
+        Fragment fragment = fragments.get(fragmentKey);
+
+        if (fragment == null) {
+            fragment = compute(fragmentKey, options, guard, timeToLive);
+        } else if (isExpired(fragmentKey, fragment, timeToLive)
+                || isGuardCompromised(fragment, guard)) {
+            // Only one thread updates the fragment, others use the previous
+            // content
+            Update update = new Update();
+            if (updates.putIfAbsent(fragmentKey, update) == null) {
+                ExecutorService executor = asyncRevalidation
+                        ? configuration.geExecutorService() : null;
+                if (executor != null) {
+                    revalidate(executor, fragmentKey, update, options, guard,
+                            timeToLive);
+                } else {
+                    fragment = update(fragmentKey, update, options, guard,
+                            timeToLive);
+                }
+            }
         }
-        fragment.touch();
         options.append(fragment.getContent());
     }
 
     public void init() {
         super.init();
-        this.fragments = configuration.getComputingCacheFactory().create(
-                CacheHelper.class.getName(),
-                key -> {
-                    Fragment fragment = new Fragment();
-                    fragment.update(getContent(key.getOptions()),
-                            key.getOptions().getHash().get(GUARD));
-                    key.cleanupAfterCompute();
-                    return fragment;
-                }, null,
-                configuration.getLongPropertyValue(FRAGMENT_CACHE_MAX_SIZE_KEY),
-                null);
+        if (fragments == null) {
+            this.defaultFragments = new DefaultFragmentStore(
+                    configuration.getComputingCacheFactory(),
+                    configuration
+                            .getLongPropertyValue(FRAGMENT_CACHE_MAX_SIZE_KEY),
+                    configuration
+                            .getLongPropertyValue(FRAGMENT_CACHE_MAX_BYTES_KEY));
+            this.fragments = defaultFragments;
+        }
+        this.asyncRevalidation = configuration
+                .getBooleanPropertyValue(FRAGMENT_CACHE_ASYNC_REVALIDATION_KEY);
     }
 
     @Override
     public Set<ConfigurationKey> getConfigurationKeys() {
-        return Collections.singleton(FRAGMENT_CACHE_MAX_SIZE_KEY);
+        return ImmutableSet.of(FRAGMENT_CACHE_MAX_SIZE_KEY,
+                FRAGMENT_CACHE_MAX_BYTES_KEY,
+                FRAGMENT_CACHE_ASYNC_REVALIDATION_KEY);
     }
 
     @Override
@@ -211,7 +300,7 @@ public class CacheHelper extends BasicSectionHelper {
         if (fragments == null || keyPart == null) {
             return;
         }
-        fragments.invalidate(fragmentKey -> fragmentKey.getKey().contains(keyPart));
+        fragments.invalidate(fragmentKey -> fragmentKey.contains(keyPart));
     }
 
     @Override
@@ -219,9 +308,63 @@ public class CacheHelper extends BasicSectionHelper {
         return ImmutableSet.of(KEY, GUARD, EXPIRE, UNIT);
     }
 
-    private boolean isExpired(Fragment fragment, Object expire, Object unit) {
+    private Fragment compute(String fragmentKey, Options options, Object guard,
+            long timeToLive) {
+        Update update = new Update();
+        Update existing = updates.putIfAbsent(fragmentKey, update);
+        if (existing != null) {
+            if (existing.owner != Thread.currentThread()) {
+                // Wait for the fragment computed by another thread
+                try {
+                    return existing.join();
+                } catch (CompletionException | CancellationException e) {
+                    // The computation failed - try again
+                }
+            }
+            // E.g. a recursive invocation - do not cache the content
+            return new Fragment(getContent(options), null, 0);
+        }
+        return update(fragmentKey, update, options, guard, timeToLive);
+    }
+
+    private Fragment update(String fragmentKey, Update update, Options options,
+            Object guard, long timeToLive) {
+        try {
+            Fragment fragment = new Fragment(getContent(options),
+                    guard != null ? guard.toString() : null,
+                    sharedStore && timeToLive > 0
+                            ? System.currentTimeMillis() + timeToLive : 0);
+            fragments.put(fragmentKey, fragment);
+            update.complete(fragment);
+            return fragment;
+        } catch (RuntimeException e) {
+            update.completeExceptionally(e);
+            throw e;
+        } finally {
+            updates.remove(fragmentKey, update);
+        }
+    }
+
+    private void revalidate(ExecutorService executor, String fragmentKey,
+            Update update, Options options, Object guard, long timeToLive) {
+        try {
+            executor.execute(() -> {
+                try {
+                    update(fragmentKey, update, options, guard, timeToLive);
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to update the cache fragment", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            updates.remove(fragmentKey, update);
+            update.cancel(false);
+            LOGGER.warn("Unable to submit the cache fragment update", e);
+        }
+    }
+
+    private long getTimeToLive(Object expire, Object unit) {
         if (expire == null) {
-            return false;
+            return 0;
         }
         TimeUnit timeUnit;
         if (unit != null) {
@@ -251,8 +394,18 @@ public class CacheHelper extends BasicSectionHelper {
                         MustacheProblem.RENDER_HELPER_INVALID_OPTIONS, e);
             }
         }
-        return (System.currentTimeMillis() - fragment.getLastUsed()) > timeUnit
-                .toMillis(duration);
+        return timeUnit.toMillis(duration);
+    }
+
+    private boolean isExpired(String fragmentKey, Fragment fragment,
+            long timeToLive) {
+        long now = System.currentTimeMillis();
+        if (sharedStore) {
+            return fragment.isExpired(now);
+        }
+        // The default store - the expiration is measured from the last use
+        long lastUsed = defaultFragments.touch(fragmentKey, now);
+        return timeToLive > 0 && lastUsed > 0 && (now - lastUsed) > timeToLive;
     }
 
     private boolean isGuardCompromised(Fragment fragment, Object guard) {
@@ -268,133 +421,12 @@ public class CacheHelper extends BasicSectionHelper {
         return content.toString();
     }
 
-    private static class Fragment {
-
-        private final AtomicLong hits;
-
-        private final AtomicLong lastUsed;
-
-        private final AtomicReference<String> content;
-
-        private final AtomicReference<String> guard;
-
-        private Fragment() {
-            this.hits = new AtomicLong(0);
-            this.lastUsed = new AtomicLong();
-            this.content = new AtomicReference<>();
-            this.guard = new AtomicReference<>();
-        }
-
-        /**
-         * @return the cached content
-         */
-        String getContent() {
-            return content.get();
-        }
-
-        void touch() {
-            this.hits.incrementAndGet();
-            this.lastUsed.set(System.currentTimeMillis());
-        }
-
-        void update(String content, Object guard) {
-            this.content.set(content);
-            if (guard != null) {
-                this.guard.set(guard.toString());
-            }
-        }
-
-        /**
-         * @return the lastHit
-         */
-        Long getLastUsed() {
-            return lastUsed.get();
-        }
-
-        /**
-         * @return the number of hits
-         */
-        Long getHits() {
-            return hits.get();
-        }
-
-        /**
-         * @return the guard
-         */
-        String getGuard() {
-            return guard.get();
-        }
-
-    }
-
-    private static class Key {
-
-        private final String key;
-
-        private Options options;
-
-        private Key(String key, Options options) {
-            this.key = key;
-            this.options = options;
-        }
-
-        void cleanupAfterCompute() {
-            this.options = null;
-        }
-
-        /**
-         * @return the key
-         */
-        String getKey() {
-            return key;
-        }
-
-        /**
-         * @return the options
-         */
-        Options getOptions() {
-            return options;
-        }
-
-        /*
-         * (non-Javadoc)
-         *
-         * @see java.lang.Object#hashCode()
-         */
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((key == null) ? 0 : key.hashCode());
-            return result;
-        }
+    /**
+     * A pending update of a fragment.
+     */
+    private static class Update extends CompletableFuture<Fragment> {
 
-        /*
-         * (non-Javadoc)
-         *
-         * @see java.lang.Object#equals(java.lang.Object)
-         */
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
-            }
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            Key other = (Key) obj;
-            if (key == null) {
-                if (other.key != null) {
-                    return false;
-                }
-            } else if (!key.equals(other.key)) {
-                return false;
-            }
-            return true;
-        }
+        private final Thread owner = Thread.currentThread();
 
     }
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.handlebars;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.cache.ComputingCacheFactory;
+
+/**
+ * The default in-process fragment store backed by a {@link ComputingCache}.
+ *
+ * @author Martin Kouba
+ * @see CacheHelper#FRAGMENT_CACHE_MAX_SIZE_KEY
+ * @see CacheHelper#FRAGMENT_CACHE_MAX_BYTES_KEY
+ */
+class DefaultFragmentStore implements FragmentStore {
+
+    private final ComputingCache<String, Holder> fragments;
+
+    private final long maxBytes;
+
+    // The approximate size of the stored content - may be greater than the
+    // actual size, e.g. if the cache evicts some fragments due to the max
+    // size limit
+    private final AtomicLong bytes;
+
+    /**
+     *
+     * @param cacheFactory
+     * @param maxSize
+     * @param maxBytes
+     */
+    DefaultFragmentStore(ComputingCacheFactory cacheFactory, Long maxSize,
+            long maxBytes) {
+        this.fragments = cacheFactory.create(CacheHelper.class.getName(),
+                key -> new Holder(), null, maxSize, null);
+        this.maxBytes = maxBytes;
+        this.bytes = new AtomicLong();
+    }
+
+    @Override
+    public Fragment get(String key) {
+        Holder holder = fragments.getIfPresent(key);
+        return holder != null ? holder.fragment : null;
+    }
+
+    @Override
+    public void put(String key, Fragment fragment) {
+        Holder holder = fragments.get(key);
+        long previousBytes = holder.getBytes();
+        holder.lastUsed = System.currentTimeMillis();
+        holder.fragment = fragment;
+        if (maxBytes > 0 && bytes.addAndGet(
+                holder.getBytes() - previousBytes) > maxBytes) {
+            enforceMaxBytes();
+        }
+    }
+
+    @Override
+    public void invalidate(Predicate<String> keyPredicate) {
+        fragments.invalidate(keyPredicate::test);
+    }
+
+    @Override
+    public void clear() {
+        fragments.clear();
+        bytes.set(0);
+    }
+
+    /**
+     * Mark the fragment as used.
+     *
+     * @param key
+     * @param now
+     * @return the time the fragment was last used or put, or zero if no such
+     *         fragment exists
+     */
+    long touch(String key, long now) {
+        Holder holder = fragments.getIfPresent(key);
+        if (holder == null) {
+            return 0;
+        }
+        long lastUsed = holder.lastUsed;
+        holder.lastUsed = now;
+        return lastUsed;
+    }
+
+    private synchronized void enforceMaxBytes() {
+        Map<String, Holder> present = fragments.getAllPresent();
+        long total = 0;
+        for (Holder holder : present.values()) {
+            total += holder.getBytes();
+        }
+        if (total > maxBytes) {
+            // Invalidate the least recently used fragments first
+            List<Entry<String, Holder>> entries = new ArrayList<>(
+                    present.entrySet());
+            entries.sort(Comparator
+                    .comparingLong(entry -> entry.getValue().lastUsed));
+            Set<String> evicted = new HashSet<>();
+            for (Entry<String, Holder> entry : entries) {
+                if (total <= maxBytes) {
+                    break;
+                }
+                evicted.add(entry.getKey());
+                total -= entry.getValue().getBytes();
+            }
+            fragments.invalidate(evicted::contains);
+        }
+        bytes.set(total);
+    }
+
+    private static class Holder {
+
+        private volatile Fragment fragment;
+
+        private volatile long lastUsed;
+
+        /**
+         * @return the approximate size of the content in bytes (two bytes per
+         *         char)
+         */
+        long getBytes() {
+            Fragment value = fragment;
+            return value != null ? value.getContent().length() * 2L : 0L;
+        }
+
+    }
+
+}
@@ -15,9 +15,19 @@
  */
 package org.trimou.handlebars;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.config.ConfigurationKey;
+import org.trimou.engine.config.SimpleConfigurationKey;
+import org.trimou.exception.MustacheException;
+import org.trimou.exception.MustacheProblem;
+import org.trimou.handlebars.HelperDefinition.ValuePlaceholder;
 import org.trimou.handlebars.i18n.LocaleAwareValueHelper;
 
 /**
@@ -37,27 +47,69 @@ import org.trimou.handlebars.i18n.LocaleAwareValueHelper;
  * {{fmt '%tA' now locale='en'}}
  * </pre>
  *
+ * Format strings are parsed into {@link FormatPlan}s which are cached. Literal
+ * format strings are parsed during template compilation.
+ *
  * @author Martin Kouba
  * @see Formatter
+ * @see FormatPlan
  */
 public class FormatHelper extends LocaleAwareValueHelper {
 
+    /**
+     * Limit the size of the cache of format plans. Use zero value to disable
+     * the cache.
+     *
+     * @since 2.5
+     */
+    public static final ConfigurationKey PLAN_CACHE_MAX_SIZE_KEY = new SimpleConfigurationKey(
+            FormatHelper.class.getName() + ".planCacheMaxSize", 500L);
+
+    private volatile ComputingCache<String, FormatPlan> plans;
+
+    @Override
+    protected void init() {
+        super.init();
+        this.plans = configuration.getComputingCacheFactory().create(
+                FormatHelper.class.getName(), FormatPlan::compile, null,
+                configuration.getLongPropertyValue(PLAN_CACHE_MAX_SIZE_KEY),
+                null);
+    }
+
+    @Override
+    public Set<ConfigurationKey> getConfigurationKeys() {
+        return Collections.singleton(PLAN_CACHE_MAX_SIZE_KEY);
+    }
+
     @Override
     protected int numberOfRequiredParameters() {
         return 2;
     }
 
-    @SuppressWarnings("resource")
+    @Override
+    public void validate(HelperDefinition definition) {
+        super.validate(definition);
+        Object pattern = definition.getParameters().get(0);
+        if (!(pattern instanceof ValuePlaceholder)) {
+            // Literal format string
+            plans.get(pattern.toString());
+        }
+    }
+
     @Override
     public void execute(Options options) {
-        // Note that we intentionally don't close the Formatter as we don't want
-        // to close the appendable
-        Formatter formatter = new Formatter(options.getAppendable(), getLocale(options));
-        if (options.getParameters().size() == 2) {
-            formatter.format(options.getParameters().get(0).toString(), options.getParameters().get(1));
+        List<Object> params = options.getParameters();
+        FormatPlan plan = plans.get(params.get(0).toString());
+        Object[] args;
+        if (params.size() == 2) {
+            args = new Object[] { params.get(1) };
         } else {
-            formatter.format(options.getParameters().get(0).toString(),
-                    options.getParameters().subList(1, options.getParameters().size()).toArray());
+            args = params.subList(1, params.size()).toArray();
+        }
+        try {
+            plan.format(options.getAppendable(), getLocale(options), args);
+        } catch (IOException e) {
+            throw new MustacheException(MustacheProblem.RENDER_IO_ERROR, e);
         }
     }
 
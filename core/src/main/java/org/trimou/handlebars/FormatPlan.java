@@ -0,0 +1,326 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.handlebars;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+
+import org.trimou.annotations.Internal;
+
+/**
+ * A printf-style format pattern parsed into a reusable plan. The most common
+ * format specifiers, i.e. <code>%s</code>, <code>%d</code>, <code>%f</code>
+ * and <code>%.2f</code> (any precision), are processed directly. For any other
+ * specifier, or if the arguments do not match the specifiers (e.g. a
+ * {@link Formattable} argument), a {@link Formatter} is used. The output is
+ * the same in both cases.
+ * <p>
+ * An instance is thread-safe.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ * @see Formatter
+ */
+@Internal
+public final class FormatPlan {
+
+    private static final int STRING = 0;
+
+    private static final int INTEGER = 1;
+
+    private static final int DECIMAL = 2;
+
+    private static final int DEFAULT_PRECISION = 6;
+
+    private static final String NULL = "null";
+
+    private final String pattern;
+
+    // null if a Formatter must be always used
+    private final String[] literals;
+
+    // Conversion types and precisions of the specifiers - specifier i is
+    // located between literal i and literal i + 1
+    private final int[] types;
+
+    private final int[] precisions;
+
+    // The last used locale and its symbols
+    private volatile LocaleSymbols symbols;
+
+    private FormatPlan(String pattern, String[] literals, int[] types,
+            int[] precisions) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.types = types;
+        this.precisions = precisions;
+    }
+
+    /**
+     *
+     * @param pattern
+     * @return the plan for the given pattern
+     */
+    public static FormatPlan compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<int[]> specifiers = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (++i == pattern.length()) {
+                return new FormatPlan(pattern, null, null, null);
+            }
+            c = pattern.charAt(i);
+            if (c == '%') {
+                literal.append('%');
+            } else if (c == 'n') {
+                literal.append(System.lineSeparator());
+            } else if (c == 's') {
+                specifiers.add(new int[] { STRING, -1 });
+            } else if (c == 'd') {
+                specifiers.add(new int[] { INTEGER, -1 });
+            } else if (c == 'f') {
+                specifiers.add(new int[] { DECIMAL, DEFAULT_PRECISION });
+            } else if (c == '.') {
+                int start = i + 1;
+                int end = start;
+                while (end < pattern.length()
+                        && Character.isDigit(pattern.charAt(end))) {
+                    end++;
+                }
+                // Precision must be followed by 'f'
+                if (end == start || end - start > 3
+                        || end == pattern.length()
+                        || pattern.charAt(end) != 'f') {
+                    return new FormatPlan(pattern, null, null, null);
+                }
+                specifiers.add(new int[] { DECIMAL,
+                        Integer.parseInt(pattern.substring(start, end)) });
+                i = end;
+            } else {
+                // Flags, width, explicit indexes, other conversions
+                return new FormatPlan(pattern, null, null, null);
+            }
+            if (literals.size() < specifiers.size()) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+            }
+        }
+        literals.add(literal.toString());
+        int[] types = new int[specifiers.size()];
+        int[] precisions = new int[specifiers.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = specifiers.get(i)[0];
+            precisions[i] = specifiers.get(i)[1];
+        }
+        return new FormatPlan(pattern,
+                literals.toArray(new String[literals.size()]), types,
+                precisions);
+    }
+
+    /**
+     *
+     * @return the original pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     *
+     * @param appendable
+     * @param locale
+     * @param args
+     * @throws IOException
+     * @see Formatter#format(Locale, String, Object...)
+     */
+    @SuppressWarnings("resource")
+    public void format(Appendable appendable, Locale locale, Object... args)
+            throws IOException {
+        String[] formatted = formatArgs(locale, args);
+        if (formatted == null) {
+            // Note that we intentionally don't close the Formatter as we don't
+            // want to close the appendable
+            new Formatter(appendable, locale).format(pattern, args);
+            return;
+        }
+        appendable.append(literals[0]);
+        for (int i = 0; i < formatted.length; i++) {
+            appendable.append(formatted[i]);
+            appendable.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     *
+     * @param locale
+     * @param args
+     * @return the formatted string
+     * @see String#format(Locale, String, Object...)
+     */
+    public String format(Locale locale, Object... args) {
+        if (types != null && types.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder();
+        try {
+            format(builder, locale, args);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     *
+     * @param locale
+     * @param args
+     * @return the formatted args or <code>null</code> if a {@link Formatter}
+     *         must be used
+     */
+    private String[] formatArgs(Locale locale, Object[] args) {
+        if (literals == null || args.length < types.length) {
+            return null;
+        }
+        String[] formatted = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Object arg = args[i];
+            switch (types[i]) {
+            case STRING:
+                if (arg instanceof Formattable) {
+                    return null;
+                }
+                formatted[i] = String.valueOf(arg);
+                break;
+            case INTEGER:
+                if (arg == null) {
+                    formatted[i] = NULL;
+                } else if ((arg instanceof Integer || arg instanceof Long
+                        || arg instanceof Short || arg instanceof Byte)
+                        && getSymbols(locale).isAsciiZero()) {
+                    formatted[i] = Long.toString(((Number) arg).longValue());
+                } else {
+                    return null;
+                }
+                break;
+            case DECIMAL:
+                if (arg == null) {
+                    // Formatter applies the precision to "null"
+                    formatted[i] = NULL.substring(0,
+                            Math.min(NULL.length(), precisions[i]));
+                } else {
+                    formatted[i] = formatDecimal(arg, precisions[i], locale);
+                    if (formatted[i] == null) {
+                        return null;
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException();
+            }
+        }
+        return formatted;
+    }
+
+    private String formatDecimal(Object arg, int precision, Locale locale) {
+        BigDecimal decimal;
+        boolean negative;
+        if (arg instanceof Double || arg instanceof Float) {
+            double value = ((Number) arg).doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return null;
+            }
+            negative = value < 0 || (value == 0.0
+                    && Double.doubleToRawLongBits(value) != 0L);
+            // Formatter also rounds the shortest decimal representation
+            decimal = new BigDecimal(Double.toString(value));
+        } else if (arg instanceof BigDecimal) {
+            decimal = (BigDecimal) arg;
+            negative = decimal.signum() < 0;
+        } else {
+            return null;
+        }
+        LocaleSymbols localeSymbols = getSymbols(locale);
+        if (!localeSymbols.isAsciiZero()) {
+            return null;
+        }
+        decimal = decimal.setScale(precision, RoundingMode.HALF_UP);
+        if (negative && decimal.signum() == 0) {
+            // Negative zero, e.g. -0.001 formatted as -0.00
+            return null;
+        }
+        String value = decimal.toPlainString();
+        if (localeSymbols.decimalSeparator != '.') {
+            value = value.replace('.', localeSymbols.decimalSeparator);
+        }
+        return value;
+    }
+
+    private LocaleSymbols getSymbols(Locale locale) {
+        LocaleSymbols last = symbols;
+        if (last == null || !last.matches(locale)) {
+            last = new LocaleSymbols(locale);
+            symbols = last;
+        }
+        return last;
+    }
+
+    private static final class LocaleSymbols {
+
+        private final Locale locale;
+
+        private final char zeroDigit;
+
+        private final char decimalSeparator;
+
+        LocaleSymbols(Locale locale) {
+            this.locale = locale;
+            if (locale != null) {
+                DecimalFormatSymbols dfs = DecimalFormatSymbols
+                        .getInstance(locale);
+                this.zeroDigit = dfs.getZeroDigit();
+                this.decimalSeparator = dfs.getDecimalSeparator();
+            } else {
+                // No localization is applied
+                this.zeroDigit = '0';
+                this.decimalSeparator = '.';
+            }
+        }
+
+        boolean matches(Locale locale) {
+            return this.locale == null ? locale == null
+                    : this.locale.equals(locale);
+        }
+
+        boolean isAsciiZero() {
+            return zeroDigit == '0';
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.handlebars;
+
+import java.util.function.Predicate;
+
+import org.trimou.util.Checker;
+
+/**
+ * Stores the template fragments cached by {@link CacheHelper}. An
+ * implementation may share the fragments among multiple engines, JVMs or
+ * nodes. An implementation must be thread-safe.
+ *
+ * @author Martin Kouba
+ * @see CacheHelper#CacheHelper(FragmentStore)
+ * @see MappedFileFragmentStore
+ * @since 2.5
+ */
+public interface FragmentStore {
+
+    /**
+     * An expired fragment may be returned so that the helper is able to use
+     * the previous content while the fragment is being updated.
+     *
+     * @param key
+     * @return the stored fragment or <code>null</code> if no such fragment
+     *         exists
+     */
+    Fragment get(String key);
+
+    /**
+     * Store the fragment, replacing any previous fragment with the same key.
+     * An implementation is not required to keep the fragment, e.g. if a size
+     * limit is exceeded.
+     *
+     * @param key
+     * @param fragment
+     */
+    void put(String key, Fragment fragment);
+
+    /**
+     * Invalidate all the fragments whose keys satisfy the predicate.
+     *
+     * @param keyPredicate
+     */
+    void invalidate(Predicate<String> keyPredicate);
+
+    /**
+     * Invalidate all the fragments.
+     */
+    default void clear() {
+        invalidate(key -> true);
+    }
+
+    /**
+     * An immutable cached fragment.
+     */
+    final class Fragment {
+
+        private final String content;
+
+        private final String guard;
+
+        private final long expiresAt;
+
+        /**
+         *
+         * @param content
+         * @param guard
+         *            May be <code>null</code>
+         * @param expiresAt
+         *            The expiration time in milliseconds since the epoch, zero
+         *            or negative value means the fragment never expires
+         */
+        public Fragment(String content, String guard, long expiresAt) {
+            Checker.checkArgumentNotNull(content);
+            this.content = content;
+            this.guard = guard;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return the cached content
+         */
+        public String getContent() {
+            return content;
+        }
+
+        /**
+         * @return the string representation of the guard used during the
+         *         last update, or <code>null</code>
+         */
+        public String getGuard() {
+            return guard;
+        }
+
+        /**
+         * @return the expiration time in milliseconds since the epoch
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         *
+         * @param now
+         * @return <code>true</code> if the fragment is expired at the given
+         *         time, <code>false</code> otherwise
+         */
+        public boolean isExpired(long now) {
+            return expiresAt > 0 && now > expiresAt;
+        }
+
+    }
+
+}
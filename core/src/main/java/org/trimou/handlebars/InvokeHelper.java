@@ -20,13 +20,22 @@ import static org.trimou.handlebars.OptionsHashKeys.M;
 import static org.trimou.handlebars.OptionsHashKeys.METHOD;
 import static org.trimou.handlebars.OptionsHashKeys.ON;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.config.ConfigurationKey;
@@ -39,6 +48,9 @@ import org.trimou.util.Primitives;
 /**
  * Invokes public methods with parameters via reflection.
  * <p>
+ * The method handle resolved for a tag is cached and reused as long as the
+ * class of the instance and the classes of the parameters do not change.
+ * <p>
  * All the helper parameters are considered to be method parameters.
  * <p>
  * The method name must be always defined - either using the key
@@ -111,6 +123,15 @@ public class InvokeHelper extends BasicHelper {
 
     private volatile ComputingCache<MethodKey, Optional<Method>> methodCache;
 
+    /**
+     * Original definitions are compared by identity, i.e. one site per tag.
+     * The keys are weakly referenced so that a site does not prevent the tag
+     * (and its template) from being garbage collected.
+     */
+    private final ConcurrentMap<Object, InvocationSite> invocationSites = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<HelperDefinition> staleDefinitions = new ReferenceQueue<>();
+
     private final ClassLoader classLoader;
 
     private final String defaultMethodName;
@@ -169,19 +190,28 @@ public class InvokeHelper extends BasicHelper {
             clazz = instance.getClass();
         }
 
-        Method method = methodCache.get(new MethodKey(clazz,
-                methodName.toString(), getParamTypes(options))).orElse(null);
-        if (method == null) {
-            throw new MustacheException(
-                    MustacheProblem.RENDER_HELPER_INVALID_OPTIONS,
-                    "Unable to find unambiguous method with name \"%s\" and parameter types %s on class %s [%s]",
-                    methodName, getParamTypes(options), clazz.getName(),
-                    options.getTagInfo());
+        String name = methodName.toString();
+        InvocationSite site = getInvocationSite(
+                options.getOriginalDefinition());
+        Invocation invocation = site.invocation;
+        if (invocation == null
+                || !invocation.matches(clazz, name, options.getParameters())) {
+            invocation = createInvocation(clazz, name, options);
+            site.invocation = invocation;
         }
 
+        Object value;
         try {
-            Object value = method.invoke(instance,
+            value = invocation.invoke(instance,
                     options.getParameters().toArray());
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MustacheException(MustacheProblem.RENDER_GENERIC_ERROR,
+                    e);
+        }
+
+        try {
             if (isSection(options)) {
                 if (value != null) {
                     options.push(value);
@@ -240,6 +270,22 @@ public class InvokeHelper extends BasicHelper {
         return ImmutableSet.of(ON, M, METHOD, CLASS);
     }
 
+    private InvocationSite getInvocationSite(HelperDefinition definition) {
+        InvocationSite site = invocationSites
+                .get(new DefinitionKey(definition));
+        if (site == null) {
+            // Remove the sites of tags which were garbage collected
+            Reference<?> stale;
+            while ((stale = staleDefinitions.poll()) != null) {
+                invocationSites.remove(stale);
+            }
+            site = invocationSites.computeIfAbsent(
+                    new DefinitionReference(definition, staleDefinitions),
+                    key -> new InvocationSite());
+        }
+        return site;
+    }
+
     private static boolean matches(Method method, List<Class<?>> paramTypes) {
         Class<?>[] methodParamTypes = method.getParameterTypes();
         if (methodParamTypes.length != paramTypes.size()) {
@@ -254,16 +300,53 @@ public class InvokeHelper extends BasicHelper {
         return true;
     }
 
-    private List<Class<?>> getParamTypes(Options options) {
-        int size = options.getParameters().size();
-        if (size == 0) {
-            return Collections.emptyList();
+    private Invocation createInvocation(Class<?> clazz, String methodName,
+            Options options) {
+        List<Object> params = options.getParameters();
+        Class<?>[] paramTypes = new Class<?>[params.size()];
+        for (int i = 0; i < paramTypes.length; i++) {
+            paramTypes[i] = params.get(i).getClass();
+        }
+        List<Class<?>> paramTypesList = paramTypes.length == 0
+                ? Collections.emptyList()
+                : Arrays.asList(paramTypes);
+        Method method = methodCache
+                .get(new MethodKey(clazz, methodName, paramTypesList))
+                .orElse(null);
+        if (method == null) {
+            throw new MustacheException(
+                    MustacheProblem.RENDER_HELPER_INVALID_OPTIONS,
+                    "Unable to find unambiguous method with name \"%s\" and parameter types %s on class %s [%s]",
+                    methodName, paramTypesList, clazz.getName(),
+                    options.getTagInfo());
+        }
+        try {
+            return new Invocation(clazz, methodName, paramTypes,
+                    toMethodHandle(method));
+        } catch (IllegalAccessException e) {
+            throw new MustacheException(MustacheProblem.RENDER_GENERIC_ERROR,
+                    e);
         }
-        List<Class<?>> paramTypes = new ArrayList<>(size);
-        for (Object param : options.getParameters()) {
-            paramTypes.add(param.getClass());
+    }
+
+    /**
+     *
+     * @param method
+     * @return a method handle of type <code>(Object,Object[])Object</code>,
+     *         the first argument is the instance (ignored for static methods)
+     * @throws IllegalAccessException
+     */
+    private static MethodHandle toMethodHandle(Method method)
+            throws IllegalAccessException {
+        int paramCount = method.getParameterCount();
+        // Varargs are not collected - consistent with Method.invoke()
+        MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                .asFixedArity();
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
         }
-        return paramTypes;
+        return handle.asType(MethodType.genericMethodType(paramCount + 1))
+                .asSpreader(Object[].class, paramCount);
     }
 
     private Class<?> loadClassIfNeeded(Options options) {
@@ -358,6 +441,112 @@ public class InvokeHelper extends BasicHelper {
 
     }
 
+    /**
+     * A lookup key, equal to the {@link DefinitionReference} of the same
+     * definition.
+     */
+    private static final class DefinitionKey {
+
+        private final HelperDefinition definition;
+
+        private DefinitionKey(HelperDefinition definition) {
+            this.definition = definition;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(definition);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof DefinitionReference
+                    && ((DefinitionReference) obj).get() == definition;
+        }
+
+    }
+
+    private static final class DefinitionReference
+            extends WeakReference<HelperDefinition> {
+
+        private final int hashCode;
+
+        private DefinitionReference(HelperDefinition definition,
+                ReferenceQueue<HelperDefinition> queue) {
+            super(definition, queue);
+            this.hashCode = System.identityHashCode(definition);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof DefinitionKey) {
+                HelperDefinition definition = get();
+                return definition != null
+                        && definition == ((DefinitionKey) obj).definition;
+            }
+            if (obj instanceof DefinitionReference) {
+                HelperDefinition definition = get();
+                return definition != null
+                        && definition == ((DefinitionReference) obj).get();
+            }
+            return false;
+        }
+
+    }
+
+    private static final class InvocationSite {
+
+        // The last resolved invocation
+        private volatile Invocation invocation;
+
+    }
+
+    private static final class Invocation {
+
+        private final Class<?> clazz;
+
+        private final String methodName;
+
+        private final Class<?>[] paramTypes;
+
+        private final MethodHandle handle;
+
+        private Invocation(Class<?> clazz, String methodName,
+                Class<?>[] paramTypes, MethodHandle handle) {
+            this.clazz = clazz;
+            this.methodName = methodName;
+            this.paramTypes = paramTypes;
+            this.handle = handle;
+        }
+
+        boolean matches(Class<?> clazz, String methodName,
+                List<Object> params) {
+            if (this.clazz != clazz || paramTypes.length != params.size()
+                    || !this.methodName.equals(methodName)) {
+                return false;
+            }
+            for (int i = 0; i < paramTypes.length; i++) {
+                if (paramTypes[i] != params.get(i).getClass()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Object invoke(Object instance, Object[] args) throws Throwable {
+            return (Object) handle.invokeExact(instance, args);
+        }
+
+    }
+
     private static class MethodComputingFunction
             implements ComputingCache.Function<MethodKey, Optional<Method>> {
 
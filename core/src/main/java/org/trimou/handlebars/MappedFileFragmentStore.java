@@ -0,0 +1,242 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.handlebars;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trimou.exception.MustacheException;
+import org.trimou.exception.MustacheProblem;
+import org.trimou.util.Checker;
+
+/**
+ * A fragment store backed by a memory-mapped file. Multiple JVMs on the same
+ * host may share the fragments if they use the same file and the same layout
+ * (number of slots and slot size).
+ * <p>
+ * The file is divided into fixed-size slots. The slot is determined by the
+ * hash code of the fragment key. A colliding fragment simply replaces the
+ * previous one. A fragment which does not fit into a slot is not stored.
+ * Access to a slot is guarded by a file region lock. Note that only a single
+ * instance per file should be used in a JVM.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+public class MappedFileFragmentStore implements FragmentStore, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(MappedFileFragmentStore.class);
+
+    // keyLength (0 means empty slot), guardLength (-1 means no guard),
+    // contentLength, expiresAt
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slots;
+
+    private final int slotSize;
+
+    private final Object[] locks;
+
+    /**
+     *
+     * @param file
+     * @param slots
+     *            The max number of fragments
+     * @param slotSize
+     *            The max size of a fragment in bytes (including key and guard
+     *            encoded in UTF-8)
+     * @throws IOException
+     */
+    public MappedFileFragmentStore(Path file, int slots, int slotSize)
+            throws IOException {
+        Checker.checkArgumentNotNull(file);
+        Checker.checkArgument(slots > 0, "The number of slots must be positive");
+        Checker.checkArgument(slotSize > HEADER_SIZE,
+                "The slot size must be greater than " + HEADER_SIZE);
+        Checker.checkArgument((long) slots * slotSize <= Integer.MAX_VALUE,
+                "The file size may not exceed " + Integer.MAX_VALUE);
+        this.slots = slots;
+        this.slotSize = slotSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // The file is extended if needed and the new content is zeroed, i.e.
+        // all the slots are empty
+        this.buffer = channel.map(MapMode.READ_WRITE, 0,
+                (long) slots * slotSize);
+        this.locks = new Object[Math.min(slots, LOCK_STRIPES)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Fragment get(String key) {
+        int slot = getSlot(key);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        synchronized (locks[slot % locks.length]) {
+            try (FileLock lock = lockSlot(slot, true)) {
+                ByteBuffer slotBuffer = getSlotBuffer(slot);
+                int keyLength = slotBuffer.getInt();
+                if (keyLength != keyBytes.length) {
+                    return null;
+                }
+                int guardLength = slotBuffer.getInt();
+                int contentLength = slotBuffer.getInt();
+                long expiresAt = slotBuffer.getLong();
+                byte[] storedKey = new byte[keyLength];
+                slotBuffer.get(storedKey);
+                for (int i = 0; i < keyLength; i++) {
+                    if (storedKey[i] != keyBytes[i]) {
+                        return null;
+                    }
+                }
+                String guard = null;
+                if (guardLength >= 0) {
+                    byte[] guardBytes = new byte[guardLength];
+                    slotBuffer.get(guardBytes);
+                    guard = new String(guardBytes, StandardCharsets.UTF_8);
+                }
+                byte[] contentBytes = new byte[contentLength];
+                slotBuffer.get(contentBytes);
+                return new Fragment(
+                        new String(contentBytes, StandardCharsets.UTF_8),
+                        guard, expiresAt);
+            } catch (IOException e) {
+                throw new MustacheException(MustacheProblem.RENDER_IO_ERROR,
+                        e);
+            }
+        }
+    }
+
+    @Override
+    public void put(String key, Fragment fragment) {
+        int slot = getSlot(key);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] guardBytes = fragment.getGuard() != null
+                ? fragment.getGuard().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] contentBytes = fragment.getContent()
+                .getBytes(StandardCharsets.UTF_8);
+        long size = (long) HEADER_SIZE + keyBytes.length
+                + (guardBytes != null ? guardBytes.length : 0)
+                + contentBytes.length;
+        boolean fits = size <= slotSize;
+        if (!fits) {
+            LOGGER.debug(
+                    "Fragment does not fit into a slot [key: {}, size: {}, slotSize: {}]",
+                    key, size, slotSize);
+        }
+        synchronized (locks[slot % locks.length]) {
+            try (FileLock lock = lockSlot(slot, false)) {
+                ByteBuffer slotBuffer = getSlotBuffer(slot);
+                if (!fits) {
+                    // Make sure the previous version is not used
+                    if (slotBuffer.getInt() == keyBytes.length
+                            && key.equals(readKey(slot))) {
+                        clearSlot(slot);
+                    }
+                    return;
+                }
+                // Clear the key first so that a partially written slot is
+                // never considered valid
+                slotBuffer.putInt(0);
+                slotBuffer.putInt(guardBytes != null ? guardBytes.length : -1);
+                slotBuffer.putInt(contentBytes.length);
+                slotBuffer.putLong(fragment.getExpiresAt());
+                slotBuffer.put(keyBytes);
+                if (guardBytes != null) {
+                    slotBuffer.put(guardBytes);
+                }
+                slotBuffer.put(contentBytes);
+                buffer.putInt(slot * slotSize, keyBytes.length);
+            } catch (IOException e) {
+                throw new MustacheException(MustacheProblem.RENDER_IO_ERROR,
+                        e);
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(Predicate<String> keyPredicate) {
+        for (int slot = 0; slot < slots; slot++) {
+            synchronized (locks[slot % locks.length]) {
+                try (FileLock lock = lockSlot(slot, false)) {
+                    String key = readKey(slot);
+                    if (key != null && keyPredicate.test(key)) {
+                        clearSlot(slot);
+                    }
+                } catch (IOException e) {
+                    throw new MustacheException(
+                            MustacheProblem.RENDER_IO_ERROR, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int getSlot(String key) {
+        // String.hashCode() is the same in all JVMs
+        return (key.hashCode() & Integer.MAX_VALUE) % slots;
+    }
+
+    private FileLock lockSlot(int slot, boolean shared) throws IOException {
+        return channel.lock((long) slot * slotSize, slotSize, shared);
+    }
+
+    private ByteBuffer getSlotBuffer(int slot) {
+        ByteBuffer slotBuffer = buffer.duplicate();
+        slotBuffer.position(slot * slotSize);
+        return slotBuffer;
+    }
+
+    private String readKey(int slot) {
+        ByteBuffer slotBuffer = getSlotBuffer(slot);
+        int keyLength = slotBuffer.getInt();
+        if (keyLength <= 0) {
+            return null;
+        }
+        slotBuffer.position(slot * slotSize + HEADER_SIZE);
+        byte[] keyBytes = new byte[keyLength];
+        slotBuffer.get(keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private void clearSlot(int slot) {
+        buffer.putInt(slot * slotSize, 0);
+    }
+
+}
@@ -21,6 +21,10 @@ import static org.trimou.handlebars.OptionsHashKeys.OUTPUT;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiConsumer;
 
 import org.trimou.exception.MustacheException;
@@ -28,9 +32,10 @@ import org.trimou.exception.MustacheProblem;
 import org.trimou.handlebars.HelperDefinition.ValuePlaceholder;
 
 /**
- * A simple numeric expression helper. During evaluation all the params are
- * converted to {@link BigDecimal}s. For the list of supported operators see the
- * {@link Operator} enum values, e.g.:
+ * A simple numeric expression helper. During evaluation the params are
+ * compared as {@link BigDecimal}s. However, {@link Integer}, {@link Long} and
+ * {@link Double} params are compared directly if possible. For the list of
+ * supported operators see the {@link Operator} enum values, e.g.:
  *
  * <pre>
  * {{numExpr val op="neg" out='It is a negative number!'}}
@@ -67,8 +72,18 @@ import org.trimou.handlebars.HelperDefinition.ValuePlaceholder;
  */
 public class NumericExpressionHelper extends BasicHelper {
 
+    // 2^53
+    private static final long MAX_EXACT_DOUBLE = 9007199254740992L;
+
+    private static final Long ZERO = 0L;
+
     private final Operator defaultOperator;
 
+    /**
+     * String literals converted during validation
+     */
+    private final ConcurrentMap<String, Object> literals;
+
     /**
      * {@link Operator#toString()} is used as the helper name.
      *
@@ -117,6 +132,7 @@ public class NumericExpressionHelper extends BasicHelper {
      */
     public NumericExpressionHelper(Operator defaultOperator) {
         this.defaultOperator = defaultOperator;
+        this.literals = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -134,7 +150,7 @@ public class NumericExpressionHelper extends BasicHelper {
                     options.getTagInfo().getLine());
         }
 
-        boolean result = operator.evaluate(options);
+        boolean result = operator.evaluate(options, literals);
 
         if (result) {
             if (isSection(options)) {
@@ -171,6 +187,16 @@ public class NumericExpressionHelper extends BasicHelper {
                     definition.getTagInfo().getTemplateName(),
                     definition.getTagInfo().getLine());
         }
+        for (Object param : definition.getParameters()) {
+            if (param instanceof String) {
+                String literal = param.toString();
+                try {
+                    literals.putIfAbsent(literal, parseLiteral(literal));
+                } catch (NumberFormatException ignored) {
+                    // The evaluation will fail
+                }
+            }
+        }
     }
 
     private Operator initOperator(Options options) {
@@ -182,8 +208,93 @@ public class NumericExpressionHelper extends BasicHelper {
         return operator != null ? operator : defaultOperator;
     }
 
-    private static BigDecimal getDecimal(int index, Options options) {
-        return getDecimal(options.getParameters().get(index), options);
+    private static Object getNumber(int index, Options options,
+            Map<String, Object> literals) {
+        return getNumber(options.getParameters().get(index), options,
+                literals);
+    }
+
+    /**
+     *
+     * @param value
+     * @param options
+     * @param literals
+     * @return {@link Integer}, {@link Long}, {@link Double},
+     *         {@link BigInteger} or {@link BigDecimal}
+     */
+    private static Object getNumber(Object value, Options options,
+            Map<String, Object> literals) {
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof BigDecimal
+                || value instanceof BigInteger) {
+            return value;
+        } else if (value instanceof String) {
+            Object literal = literals.get(value);
+            return literal != null ? literal : new BigDecimal(value.toString());
+        }
+        // Not a valid param
+        return getDecimal(value, options);
+    }
+
+    private static Object parseLiteral(String value) {
+        BigDecimal decimal = new BigDecimal(value);
+        try {
+            return decimal.longValueExact();
+        } catch (ArithmeticException e) {
+            return decimal;
+        }
+    }
+
+    private static int compare(int index1, int index2, Options options,
+            Map<String, Object> literals) {
+        return compare(getNumber(index1, options, literals),
+                getNumber(index2, options, literals));
+    }
+
+    /**
+     * {@link BigDecimal} is only used if it's not possible to compare the
+     * values as longs or doubles.
+     *
+     * @param val1
+     * @param val2
+     * @return the comparison result
+     * @see #getNumber(Object, Options, Map)
+     */
+    static int compare(Object val1, Object val2) {
+        if (val1 instanceof Double || val2 instanceof Double) {
+            if (isExactDouble(val1) && isExactDouble(val2)) {
+                double d1 = ((Number) val1).doubleValue();
+                double d2 = ((Number) val2).doubleValue();
+                // Note that -0.0 == 0.0
+                return d1 < d2 ? -1 : (d1 > d2 ? 1 : 0);
+            }
+        } else if (isIntegral(val1) && isIntegral(val2)) {
+            return Long.compare(((Number) val1).longValue(),
+                    ((Number) val2).longValue());
+        }
+        return toDecimal(val1).compareTo(toDecimal(val2));
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer;
+    }
+
+    private static boolean isExactDouble(Object value) {
+        if (value instanceof Double) {
+            double d = (Double) value;
+            // BigDecimal does not support NaN and infinity
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        } else if (isIntegral(value)) {
+            long l = ((Number) value).longValue();
+            return l >= -MAX_EXACT_DOUBLE && l <= MAX_EXACT_DOUBLE;
+        }
+        return false;
+    }
+
+    private static BigDecimal toDecimal(Object number) {
+        // The number is always valid - options are not needed
+        return number instanceof BigDecimal ? (BigDecimal) number
+                : getDecimal(number, null);
     }
 
     static BigDecimal getDecimal(Object value, Options options) {
@@ -237,51 +348,37 @@ public class NumericExpressionHelper extends BasicHelper {
          *
          * @see BigDecimal#compareTo(BigDecimal)
          */
-        GT(options -> {
-            BigDecimal val1 = getDecimal(0, options);
-            BigDecimal val2 = getDecimal(1, options);
-            return val1.compareTo(val2) > 0;
-        }),
+        GT((options, literals) -> compare(0, 1, options, literals) > 0),
         /**
          * Evaluates to true if the first value is greater than or equal to the
          * second value.
          *
          * @see BigDecimal#compareTo(BigDecimal)
          */
-        GE(options -> {
-            BigDecimal val1 = getDecimal(0, options);
-            BigDecimal val2 = getDecimal(1, options);
-            return val1.compareTo(val2) >= 0;
-        }),
+        GE((options, literals) -> compare(0, 1, options, literals) >= 0),
         /**
          * Evaluates to true if the first value is less than the second value.
          *
          * @see BigDecimal#compareTo(BigDecimal)
          */
-        LT(options -> {
-            BigDecimal val1 = getDecimal(0, options);
-            BigDecimal val2 = getDecimal(1, options);
-            return val1.compareTo(val2) < 0;
-        }),
+        LT((options, literals) -> compare(0, 1, options, literals) < 0),
         /**
          * Evaluates to true if the first value is less than or equal to the
          * second value.
          *
          * @see BigDecimal#compareTo(BigDecimal)
          */
-        LE(options -> {
-            BigDecimal val1 = getDecimal(0, options);
-            BigDecimal val2 = getDecimal(1, options);
-            return val1.compareTo(val2) <= 0;
-        }),
+        LE((options, literals) -> compare(0, 1, options, literals) <= 0),
         /**
          * Evaluates to true if the first value is negative.
          */
-        NEG(1, options -> getDecimal(0, options).compareTo(BigDecimal.ZERO) < 0),
+        NEG(1, (options, literals) -> compare(getNumber(0, options, literals),
+                ZERO) < 0),
         /**
          * Evaluates to true if the first value is positive.
          */
-        POS(1, options -> getDecimal(0, options).compareTo(BigDecimal.ZERO) > 0),
+        POS(1, (options, literals) -> compare(getNumber(0, options, literals),
+                ZERO) > 0),
         /**
          * Evaluates to true if the first value is found in the set of other
          * values. Elements of {@link Iterable}s and arrays are treated as
@@ -313,7 +410,11 @@ public class NumericExpressionHelper extends BasicHelper {
         }
 
         public boolean evaluate(Options options) {
-            return evaluator.evaluate(options);
+            return evaluate(options, Collections.emptyMap());
+        }
+
+        boolean evaluate(Options options, Map<String, Object> literals) {
+            return evaluator.evaluate(options, literals);
         }
 
         static Operator from(String value) {
@@ -331,14 +432,22 @@ public class NumericExpressionHelper extends BasicHelper {
 
     interface Evaluator {
 
-        boolean evaluate(Options options);
+        /**
+         *
+         * @param options
+         * @param literals
+         *            String literals converted during validation
+         * @return the result of evaluation
+         */
+        boolean evaluate(Options options, Map<String, Object> literals);
     }
 
     private static final class InEvaluator implements Evaluator {
 
         @Override
-        public boolean evaluate(Options options) {
-            BigDecimal val = getDecimal(0, options);
+        public boolean evaluate(Options options,
+                Map<String, Object> literals) {
+            Object val = getNumber(0, options, literals);
             for (int i = 1; i < options.getParameters().size(); i++) {
                 Object toTest = options.getParameters().get(i);
                 if (toTest == null) {
@@ -346,20 +455,20 @@ public class NumericExpressionHelper extends BasicHelper {
                 }
                 if (toTest instanceof Iterable) {
                     for (final Object o : ((Iterable<?>) toTest)) {
-                        if (test(val, getDecimal(o, options))) {
+                        if (compare(val, getNumber(o, options, literals)) == 0) {
                             return true;
                         }
                     }
                 } else if (toTest.getClass().isArray()) {
                     int length = Array.getLength(toTest);
                     for (int j = 0; j < length; j++) {
-                        if (test(val,
-                                getDecimal(Array.get(toTest, j), options))) {
+                        if (compare(val, getNumber(Array.get(toTest, j),
+                                options, literals)) == 0) {
                             return true;
                         }
                     }
                 } else {
-                    if (test(val, getDecimal(toTest, options))) {
+                    if (compare(val, getNumber(toTest, options, literals)) == 0) {
                         return true;
                     }
                 }
@@ -367,19 +476,14 @@ public class NumericExpressionHelper extends BasicHelper {
             return false;
         }
 
-        private boolean test(BigDecimal val1, BigDecimal val2) {
-            return val1.compareTo(val2) == 0;
-        }
-
     }
 
     private static class EqualsEvaluator implements Evaluator {
 
         @Override
-        public boolean evaluate(Options options) {
-            BigDecimal val1 = getDecimal(0, options);
-            BigDecimal val2 = getDecimal(1, options);
-            return val1.compareTo(val2) == 0;
+        public boolean evaluate(Options options,
+                Map<String, Object> literals) {
+            return compare(0, 1, options, literals) == 0;
         }
 
     }
@@ -393,8 +497,9 @@ public class NumericExpressionHelper extends BasicHelper {
         }
 
         @Override
-        public boolean evaluate(Options options) {
-            return !evaluator.evaluate(options);
+        public boolean evaluate(Options options,
+                Map<String, Object> literals) {
+            return !evaluator.evaluate(options, literals);
         }
 
     }
@@ -18,6 +18,7 @@ package org.trimou.handlebars;
 import java.util.function.Consumer;
 
 import org.trimou.Mustache;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.interpolation.KeySplitter;
 import org.trimou.exception.MustacheException;
 
@@ -152,6 +153,18 @@ public interface Options extends HelperDefinition {
      */
     HelperDefinition getOriginalDefinition();
 
+    /**
+     * The attributes are also available if the helper is executed
+     * asynchronously.
+     *
+     * @return the attributes of the current rendering or <code>null</code> if
+     *         not available
+     * @since 2.5
+     */
+    default RenderingAttributes getRenderingAttributes() {
+        return null;
+    }
+
     /**
      * Fluent version of {@link #append(CharSequence)}.
      *
@@ -16,13 +16,13 @@
 package org.trimou.handlebars.i18n;
 
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
 
 import org.trimou.engine.MustacheTagInfo;
+import org.trimou.engine.locale.DateFormatCache;
 import org.trimou.engine.resolver.i18n.DateTimeFormatResolver;
 
 /**
@@ -40,6 +40,15 @@ import org.trimou.engine.resolver.i18n.DateTimeFormatResolver;
 public class DateTimeFormatHelper extends
         AbstractTimeFormatHelper<Object, Integer> {
 
+    private DateFormatCache formats;
+
+    @Override
+    protected void init() {
+        super.init();
+        formats = new DateFormatCache(configuration,
+                DateTimeFormatHelper.class.getName());
+    }
+
     @Override
     protected String defaultFormat(Object value, Locale locale,
             TimeZone timeZone) {
@@ -49,19 +58,13 @@ public class DateTimeFormatHelper extends
     @Override
     protected String format(Object value, Integer style, Locale locale,
             TimeZone timeZone) {
-        DateFormat dateFormat = DateFormat.getDateTimeInstance(style, style,
-                locale);
-        dateFormat.setTimeZone(timeZone);
-        return dateFormat.format(value);
+        return formats.format(value, style, style, locale, timeZone);
     }
 
     @Override
     protected String format(Object value, String pattern, Locale locale,
             TimeZone timeZone) {
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern,
-                locale);
-        simpleDateFormat.setTimeZone(timeZone);
-        return simpleDateFormat.format(value);
+        return formats.format(value, pattern, locale, timeZone);
     }
 
     protected Object getFormattableObject(Object value, Locale locale,
@@ -23,15 +23,20 @@ import java.text.MessageFormat;
 import java.util.Formatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Locale.Category;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.locale.LocaleSupport;
+import org.trimou.engine.locale.ResourceBundleCache;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
+import org.trimou.handlebars.FormatPlan;
 import org.trimou.handlebars.Options;
 import org.trimou.handlebars.OptionsHashKeys;
 import org.trimou.util.Arrays;
@@ -92,6 +97,11 @@ import org.trimou.util.ImmutableSet;
  * {{msg "key" locale="fr"}}
  * </code>
  *
+ * <p>
+ * The resource bundles and the parsed message patterns are cached. Use
+ * {@link #invalidateCache()} to reload the bundles.
+ * </p>
+ *
  * @author Martin Kouba
  * @see LocaleSupport
  */
@@ -100,10 +110,16 @@ public class ResourceBundleHelper extends LocaleAwareValueHelper {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(ResourceBundleHelper.class);
 
+    private static final Object MISSING = new Object();
+
     private final String defaultBaseName;
 
     private final Format defaultFormat;
 
+    private ResourceBundleCache bundles;
+
+    private ComputingCache<MessageKey, Object> messages;
+
     /**
      *
      * @param defaultBaseName
@@ -122,33 +138,37 @@ public class ResourceBundleHelper extends LocaleAwareValueHelper {
         this.defaultFormat = defaultFormat;
     }
 
+    @Override
+    protected void init() {
+        super.init();
+        this.bundles = new ResourceBundleCache(configuration,
+                ResourceBundleHelper.class.getName());
+        this.messages = configuration.getComputingCacheFactory().create(
+                ResourceBundleHelper.class.getName() + ".messages",
+                this::compileMessage, null,
+                configuration.getLongPropertyValue(
+                        EngineConfigurationKey.RESOURCE_BUNDLE_CACHE_MAX_SIZE),
+                null);
+    }
+
     @Override
     public void execute(Options options) {
 
         String key = options.getParameters().get(0).toString();
         Object baseName = options.getHash().get(BASE_NAME);
-        ResourceBundle bundle = ResourceBundle.getBundle(
-                baseName != null ? baseName.toString() : defaultBaseName,
-                getLocale(options));
-
-        if (bundle.containsKey(key)) {
+        Format format = getFormat(options.getHash());
 
-            Format format = getFormat(options.getHash());
-            String stringValue = bundle.getString(key);
+        Object message = messages.get(new MessageKey(new ResourceBundleCache.Key(
+                baseName != null ? baseName.toString() : defaultBaseName,
+                getLocale(options), key), format));
 
+        if (message != MISSING) {
             if (Format.NO_FORMAT.equals(format)) {
-                append(options, stringValue);
+                append(options, message.toString());
             } else {
-                Object[] formatParams = getFormatParams(
-                        options.getParameters());
                 try {
-                    if (Format.PRINTF.equals(format)) {
-                        append(options, String.format(bundle.getString(key),
-                                formatParams));
-                    } else if (Format.MESSAGE.equals(format)) {
-                        append(options, MessageFormat
-                                .format(bundle.getString(key), formatParams));
-                    }
+                    append(options, ((CompiledMessage) message)
+                            .format(getFormatParams(options.getParameters())));
                 } catch (Exception e) {
                     throw new MustacheException(MustacheProblem.RENDER_IO_ERROR,
                             e);
@@ -157,6 +177,19 @@ public class ResourceBundleHelper extends LocaleAwareValueHelper {
         }
     }
 
+    /**
+     * Invalidate the cached resource bundles and messages.
+     *
+     * @since 2.5
+     */
+    public void invalidateCache() {
+        if (bundles == null) {
+            return;
+        }
+        bundles.invalidate();
+        messages.clear();
+    }
+
     @Override
     protected Set<String> getSupportedHashKeys() {
         return ImmutableSet.of(FORMAT, BASE_NAME, LOCALE);
@@ -177,6 +210,51 @@ public class ResourceBundleHelper extends LocaleAwareValueHelper {
         return format;
     }
 
+    private Object compileMessage(MessageKey messageKey) {
+        ResourceBundleCache.Key key = messageKey.key;
+        ResourceBundle bundle = bundles.getBundle(key.getBaseName(),
+                key.getLocale());
+        if (!bundle.containsKey(key.getKey())) {
+            return MISSING;
+        }
+        String pattern = bundle.getString(key.getKey());
+        switch (messageKey.format) {
+        case PRINTF:
+            return compilePrintf(pattern);
+        case MESSAGE:
+            MessageFormat messageFormat = new MessageFormat(pattern);
+            for (java.text.Format subformat : messageFormat.getFormats()) {
+                if (subformat != null) {
+                    // Subformats are not thread-safe
+                    return (CompiledMessage) params -> {
+                        synchronized (messageFormat) {
+                            return messageFormat.format(params);
+                        }
+                    };
+                }
+            }
+            return (CompiledMessage) messageFormat::format;
+        default:
+            return pattern;
+        }
+    }
+
+    /**
+     * The pattern is parsed into a {@link FormatPlan}. The default locale is
+     * used - consistent with {@link String#format(String, Object...)}.
+     *
+     * @param pattern
+     * @return the compiled message
+     */
+    static CompiledMessage compilePrintf(String pattern) {
+        if (pattern.indexOf('%') == -1) {
+            return params -> pattern;
+        }
+        FormatPlan plan = FormatPlan.compile(pattern);
+        return params -> plan.format(Locale.getDefault(Category.FORMAT),
+                params);
+    }
+
     private Object[] getFormatParams(List<Object> params) {
         if (params.size() > 1) {
             return params.subList(1, params.size()).toArray();
@@ -184,6 +262,43 @@ public class ResourceBundleHelper extends LocaleAwareValueHelper {
         return Arrays.EMPTY_OBJECT_ARRAY;
     }
 
+    @FunctionalInterface
+    interface CompiledMessage {
+
+        String format(Object[] params);
+
+    }
+
+    private static final class MessageKey {
+
+        private final ResourceBundleCache.Key key;
+
+        private final Format format;
+
+        MessageKey(ResourceBundleCache.Key key, Format format) {
+            this.key = key;
+            this.format = format;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + format.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MessageKey)) {
+                return false;
+            }
+            MessageKey other = (MessageKey) obj;
+            return format == other.format && key.equals(other.key);
+        }
+
+    }
+
     /**
      *
      * @author Martin Kouba
@@ -6,6 +6,7 @@ import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
 import org.trimou.engine.MustacheEngineBuilder.EngineBuiltCallback;
 import org.trimou.engine.locale.LocaleSupport;
+import org.trimou.engine.locale.ResourceBundleCache;
 import org.trimou.engine.resolver.i18n.ResourceBundleResolver;
 import org.trimou.handlebars.i18n.ResourceBundleHelper;
 import org.trimou.lambda.InputProcessingLambda;
@@ -31,6 +32,8 @@ public class ResourceBundleLambda extends InputProcessingLambda
 
     private LocaleSupport localeSupport;
 
+    private ResourceBundleCache bundles;
+
     /**
      *
      * @param baseName
@@ -57,13 +60,27 @@ public class ResourceBundleLambda extends InputProcessingLambda
                     "ResourceBundleLambda requires a LocaleSupport instance to work properly");
         }
 
-        ResourceBundle bundle = ResourceBundle.getBundle(baseName,
-                localeSupport.getCurrentLocale());
+        Object value;
+        if (bundles != null) {
+            value = bundles.getObject(baseName,
+                    localeSupport.getCurrentLocale(), text);
+        } else {
+            ResourceBundle bundle = ResourceBundle.getBundle(baseName,
+                    localeSupport.getCurrentLocale());
+            value = bundle.containsKey(text) ? bundle.getObject(text) : null;
+        }
+        return value != null ? value.toString() : Strings.EMPTY;
+    }
 
-        if (bundle.containsKey(text)) {
-            return bundle.getObject(text).toString();
+    /**
+     * Invalidate the cached resource bundles.
+     *
+     * @since 2.5
+     */
+    public void invalidateCache() {
+        if (bundles != null) {
+            bundles.invalidate();
         }
-        return Strings.EMPTY;
     }
 
     @Override
@@ -74,6 +91,8 @@ public class ResourceBundleLambda extends InputProcessingLambda
     @Override
     public void engineBuilt(MustacheEngine engine) {
         this.localeSupport = engine.getConfiguration().getLocaleSupport();
+        this.bundles = new ResourceBundleCache(engine.getConfiguration(),
+                ResourceBundleLambda.class.getName());
     }
 
 }
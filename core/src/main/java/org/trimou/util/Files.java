@@ -16,8 +16,17 @@
 package org.trimou.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,4 +104,45 @@ public final class Files {
         return true;
     }
 
+    /**
+     * The contents of the resource are not read.
+     *
+     * @param url
+     * @return the last modification timestamp of the given resource or
+     *         <code>0</code> if not known
+     * @since 2.5
+     */
+    public static long getLastModified(URL url) {
+        try {
+            if (Strings.URL_PROCOTOL_FILE.equals(url.getProtocol())) {
+                return Paths.get(url.toURI()).toFile().lastModified();
+            }
+            URLConnection connection = url.openConnection();
+            // Do not share the underlying resources so that they can be
+            // released, e.g. a cached jar file
+            connection.setUseCaches(false);
+            if (connection instanceof JarURLConnection) {
+                JarURLConnection jarConnection = (JarURLConnection) connection;
+                JarFile jarFile = jarConnection.getJarFile();
+                try {
+                    JarEntry entry = jarConnection.getJarEntry();
+                    return entry != null ? Math.max(entry.getTime(), 0L) : 0L;
+                } finally {
+                    jarFile.close();
+                }
+            }
+            try {
+                return connection.getLastModified();
+            } finally {
+                if (connection instanceof HttpURLConnection) {
+                    ((HttpURLConnection) connection).disconnect();
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOGGER.debug("Unable to get the last modification time of: {}",
+                    url, e);
+            return 0L;
+        }
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.BooleanSupplier;
+
+import org.trimou.annotations.Internal;
+
+/**
+ * Flushes the delegate once the specified number of characters is written
+ * since the last flush, so that the rendered output is streamed to the client
+ * gradually. Moreover, the abort condition is tested before each write. An
+ * {@link IOException} thrown by the delegate (e.g. a client disconnected) or
+ * a satisfied abort condition abort the rendering early.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+@Internal
+public class FlushingWriter extends Writer {
+
+    public static final int DEFAULT_FLUSH_THRESHOLD = 8192;
+
+    private final Writer delegate;
+
+    private final int flushThreshold;
+
+    private final BooleanSupplier abortCondition;
+
+    private int unflushed;
+
+    /**
+     *
+     * @param delegate
+     * @param flushThreshold
+     *            The number of characters written before the delegate is
+     *            flushed
+     * @param abortCondition
+     *            Tested before each write
+     */
+    public FlushingWriter(Writer delegate, int flushThreshold,
+            BooleanSupplier abortCondition) {
+        Checker.checkArgumentsNotNull(delegate, abortCondition);
+        Checker.checkArgument(flushThreshold > 0,
+                "Flush threshold must be greater than zero");
+        this.delegate = delegate;
+        this.flushThreshold = flushThreshold;
+        this.abortCondition = abortCondition;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        checkAborted();
+        delegate.write(c);
+        written(1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        checkAborted();
+        delegate.write(cbuf, off, len);
+        written(len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        checkAborted();
+        delegate.write(str, off, len);
+        written(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        unflushed = 0;
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private void checkAborted() throws IOException {
+        if (abortCondition.getAsBoolean()) {
+            throw new IOException("Rendering aborted");
+        }
+    }
+
+    private void written(int len) throws IOException {
+        unflushed += len;
+        if (unflushed >= flushThreshold) {
+            flush();
+        }
+    }
+
+}
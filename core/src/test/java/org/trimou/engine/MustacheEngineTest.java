@@ -133,6 +133,64 @@ public class MustacheEngineTest extends AbstractEngineTest {
         assertEquals("1", engine.getMustache("foo").render(null));
     }
 
+    @Test
+    public void testTemplateCacheRevalidation() {
+        Map<String, String> templates = new HashMap<>();
+        templates.put("foo", "0");
+        templates.put("bar", "bar");
+        Map<String, Long> timestamps = new HashMap<>();
+        timestamps.put("foo", 1L);
+        timestamps.put("bar", 1L);
+        templates.put("partial", "[{{>bar}}]");
+        templates.put("layout", "{{<base}}{{$content}}x{{/content}}{{/base}}");
+        templates.put("base", "<{{$content}}d{{/content}}>");
+        timestamps.put("partial", 1L);
+        timestamps.put("layout", 1L);
+        timestamps.put("base", 1L);
+        AtomicInteger locates = new AtomicInteger();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(
+                        EngineConfigurationKey.TEMPLATE_CACHE_REVALIDATION_INTERVAL,
+                        0)
+                .addTemplateLocator(new AbstractTemplateLocator(1) {
+
+                    @Override
+                    public Reader locate(String templateId) {
+                        locates.incrementAndGet();
+                        String template = templates.get(templateId);
+                        return template != null ? new StringReader(template)
+                                : null;
+                    }
+
+                    @Override
+                    public long getLastModified(String templateId) {
+                        return timestamps.getOrDefault(templateId, 0L);
+                    }
+                }).build();
+        Mustache bar = engine.getMustache("bar");
+        assertEquals("0", engine.getMustache("foo").render(null));
+        assertEquals(2, locates.get());
+        // Not modified
+        assertEquals("0", engine.getMustache("foo").render(null));
+        assertEquals(2, locates.get());
+        templates.put("foo", "1");
+        timestamps.put("foo", 2L);
+        assertEquals("1", engine.getMustache("foo").render(null));
+        assertEquals(3, locates.get());
+        assertEquals("1", engine.getMustache("foo").render(null));
+        assertEquals(bar, engine.getMustache("bar"));
+        assertEquals(3, locates.get());
+        // Partials and extended templates are revalidated as well
+        assertEquals("[bar]", engine.getMustache("partial").render(null));
+        assertEquals("<x>", engine.getMustache("layout").render(null));
+        templates.put("bar", "baz");
+        timestamps.put("bar", 2L);
+        templates.put("base", "<<{{$content}}d{{/content}}>>");
+        timestamps.put("base", 2L);
+        assertEquals("[baz]", engine.getMustache("partial").render(null));
+        assertEquals("<<x>>", engine.getMustache("layout").render(null));
+    }
+
     @Test
     public void testTemplateCacheDisabled() {
 
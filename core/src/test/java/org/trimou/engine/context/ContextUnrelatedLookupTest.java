@@ -0,0 +1,61 @@
+package org.trimou.engine.context;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.resolver.AbstractResolver;
+import org.trimou.engine.resolver.ResolutionContext;
+import org.trimou.util.ImmutableMap;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class ContextUnrelatedLookupTest {
+
+    @Test
+    public void testMissIsCached() {
+        assertLookups(true, 1);
+        assertLookups(false, 3);
+    }
+
+    private void assertLookups(boolean enabled, int expectedMisses) {
+        AtomicInteger fooLookups = new AtomicInteger();
+        AtomicInteger barLookups = new AtomicInteger();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(
+                        EngineConfigurationKey.CONTEXT_UNRELATED_LOOKUP_CACHE_ENABLED,
+                        enabled)
+                .addResolver(new AbstractResolver(1) {
+
+                    @Override
+                    public Object resolve(Object contextObject, String name,
+                            ResolutionContext context) {
+                        if ("foo".equals(name)) {
+                            fooLookups.incrementAndGet();
+                            return "FOO";
+                        } else if ("bar".equals(name)) {
+                            barLookups.incrementAndGet();
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean appliesTo(Class<?> contextObjectType) {
+                        return contextObjectType == null;
+                    }
+
+                }).build();
+        assertEquals("FOO|FOO|FOO|",
+                engine.compileMustache("{{#each items}}{{foo}}{{bar}}|{{/each}}")
+                        .render(ImmutableMap.of("items", new int[] { 1, 2, 3 })));
+        assertEquals(3, fooLookups.get());
+        assertEquals(expectedMisses, barLookups.get());
+    }
+
+}
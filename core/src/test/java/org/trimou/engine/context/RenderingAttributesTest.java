@@ -0,0 +1,103 @@
+package org.trimou.engine.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.listener.AbstractMustacheListener;
+import org.trimou.engine.listener.MustacheRenderingEvent;
+import org.trimou.engine.resolver.AbstractResolver;
+import org.trimou.engine.resolver.ResolutionContext;
+import org.trimou.handlebars.BasicValueHelper;
+import org.trimou.handlebars.HelpersBuilder;
+import org.trimou.handlebars.Options;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class RenderingAttributesTest {
+
+    @Test
+    public void testRenderingAttributes() {
+        assertRenderingAttributes(MustacheEngineBuilder.newBuilder(),
+                "{{user}}:{{attr 'user'}}");
+    }
+
+    @Test
+    public void testRenderingAttributesAsync() {
+        assertRenderingAttributes(
+                MustacheEngineBuilder.newBuilder()
+                        .setExecutorService(
+                                Executors.newSingleThreadExecutor()),
+                "{{user}}:{{#async}}{{attr 'user'}}{{/async}}");
+    }
+
+    @Test
+    public void testDefaultRenderingAttributes() {
+        DefaultRenderingAttributes attributes = new DefaultRenderingAttributes();
+        assertNull(attributes.getAttribute("foo"));
+        assertNull(attributes.removeAttribute("foo"));
+        assertNull(attributes.setAttribute("foo", "bar"));
+        assertEquals("bar", attributes.setAttribute("foo", "baz"));
+        assertEquals("baz",
+                attributes.computeAttributeIfAbsent("foo", name -> "qux"));
+        assertEquals("qux",
+                attributes.computeAttributeIfAbsent("qux", name -> name));
+        assertEquals("baz", attributes.setAttribute("foo", null));
+        assertNull(attributes.getAttribute("foo"));
+        attributes.clear();
+        assertNull(attributes.getAttribute("qux"));
+    }
+
+    private void assertRenderingAttributes(MustacheEngineBuilder builder,
+            String template) {
+        AtomicReference<RenderingAttributes> attributesRef = new AtomicReference<>();
+        MustacheEngine engine = builder
+                .addMustacheListener(new AbstractMustacheListener() {
+                    @Override
+                    public void renderingStarted(
+                            MustacheRenderingEvent event) {
+                        event.getRenderingAttributes().setAttribute("user",
+                                event.getMustacheName());
+                        attributesRef.set(event.getRenderingAttributes());
+                        event.registerReleaseCallback(() -> assertNotNull(
+                                event.getRenderingAttributes()
+                                        .getAttribute("user")));
+                    }
+                }).addResolver(new AbstractResolver(1) {
+                    @Override
+                    public Object resolve(Object contextObject, String name,
+                            ResolutionContext context) {
+                        return contextObject == null
+                                ? context.getRenderingAttributes()
+                                        .getAttribute(name)
+                                : null;
+                    }
+                })
+                .registerHelpers(HelpersBuilder.empty().addAsync()
+                        .add("attr", new BasicValueHelper() {
+                            @Override
+                            public void execute(Options options) {
+                                append(options, options.getRenderingAttributes()
+                                        .getAttribute(options.getParameters()
+                                                .get(0).toString())
+                                        .toString());
+                            }
+                        }).build())
+                .build();
+        assertEquals("foo:foo",
+                engine.compileMustache("foo", template).render(null));
+        assertEquals("bar:bar",
+                engine.compileMustache("bar", template).render("baz"));
+        // Discarded after the rendering
+        assertNull(attributesRef.get().getAttribute("user"));
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.trimou.engine.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trimou.AbstractEngineTest;
+import org.trimou.Hammer;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
+import org.trimou.engine.locator.MapTemplateLocator;
+import org.trimou.exception.MustacheException;
+import org.trimou.exception.MustacheProblem;
+import org.trimou.util.ImmutableMap;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class StackExecutionContextTest extends AbstractEngineTest {
+
+    @Before
+    @Override
+    public void buildEngine() {
+        engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(
+                        EngineConfigurationKey.STACK_EXECUTION_CONTEXT_ENABLED,
+                        true)
+                .build();
+    }
+
+    @Test
+    public void testImplementation() {
+        assertTrue(ExecutionContexts.newGlobalExecutionContext(
+                engine.getConfiguration()) instanceof StackExecutionContext);
+        // Disabled by default
+        assertTrue(ExecutionContexts.newGlobalExecutionContext(
+                MustacheEngineBuilder.newBuilder().build()
+                        .getConfiguration()) instanceof DefaultExecutionContext);
+        MustacheEngine asyncEngine = MustacheEngineBuilder.newBuilder()
+                .setProperty(
+                        EngineConfigurationKey.STACK_EXECUTION_CONTEXT_ENABLED,
+                        true)
+                .setExecutorService(Executors.newSingleThreadExecutor())
+                .build();
+        assertTrue(ExecutionContexts.newGlobalExecutionContext(asyncEngine
+                .getConfiguration()) instanceof DefaultExecutionContext);
+    }
+
+    @Test
+    public void testStack() {
+        ExecutionContext global = ExecutionContexts
+                .newGlobalExecutionContext(engine.getConfiguration());
+        Hammer hammer = new Hammer();
+        ExecutionContext ctx1 = global.setContextObject(hammer);
+        assertSame(global, ctx1.getParent());
+        ExecutionContext ctx2 = ctx1.setContextObject("foo");
+        assertEquals("foo", ctx2.getFirstContextObject());
+        assertEquals("Edgar", ctx2.getValue("name").get());
+        assertSame(ctx1, ctx2.getParent());
+        // The context for the same level is reused
+        ExecutionContext ctx3 = ctx1.setContextObject("bar");
+        assertSame(ctx2, ctx3);
+        assertEquals("bar", ctx3.getFirstContextObject());
+        assertSame(hammer, ctx1.getFirstContextObject());
+        // Another rendering uses a separate stack
+        ExecutionContext other = global.setContextObject("baz");
+        assertEquals("baz", other.getFirstContextObject());
+        assertEquals("bar", ctx3.getFirstContextObject());
+        assertNull(ctx3.setDefiningSections(Collections.emptyList())
+                .getDefiningSection("foo"));
+    }
+
+    @Test
+    public void testRecursiveInvocationLimit() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(new MapTemplateLocator(
+                        ImmutableMap.of("node", "{{#child}}{{>node}}{{/child}}")))
+                .setProperty(
+                        EngineConfigurationKey.TEMPLATE_RECURSIVE_INVOCATION_LIMIT,
+                        2)
+                .setProperty(
+                        EngineConfigurationKey.STACK_EXECUTION_CONTEXT_ENABLED,
+                        true)
+                .build();
+        // Three invocations of the node template
+        assertEquals("", engine.getMustache("node").render(nodes(2)));
+        try {
+            engine.getMustache("node").render(nodes(3));
+            fail();
+        } catch (MustacheException e) {
+            assertEquals(
+                    MustacheProblem.RENDER_TEMPLATE_INVOCATION_RECURSIVE_LIMIT_EXCEEDED,
+                    e.getCode());
+        }
+    }
+
+    private Map<String, Object> nodes(int depth) {
+        Map<String, Object> node = ImmutableMap.of("child", false);
+        for (int i = 0; i < depth; i++) {
+            node = ImmutableMap.of("child", node);
+        }
+        return node;
+    }
+
+}
@@ -7,12 +7,16 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.trimou.AbstractEngineTest;
+import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.locator.MapTemplateLocator;
 import org.trimou.lambda.SpecCompliantLambda;
+import org.trimou.util.ImmutableMap;
 
 /**
  *
@@ -162,4 +166,100 @@ public class MustacheListenerTest extends AbstractEngineTest {
                 renderingEnds.get(0));
         assertTrue(callbackInvoked.get());
     }
+
+    @Test
+    public void testTextProcessor() {
+        final List<String> texts = new ArrayList<>();
+        final AtomicLong saved = new AtomicLong();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addMustacheListener(new AbstractMustacheListener() {
+
+                    @Override
+                    public void parsingStarted(MustacheParsingEvent event) {
+                        event.addTextProcessor(text -> {
+                            texts.add(text);
+                            return text.replaceAll("\\s+", " ");
+                        });
+                        event.addTextProcessor(String::trim);
+                    }
+
+                    @Override
+                    public void compilationFinished(
+                            MustacheCompilationEvent event) {
+                        saved.set(event.getTextLengthSaved());
+                    }
+
+                }).build();
+        assertEquals("<p> Hello </p>FooMe<b>!</b>",
+                engine.compileMustache("text_processor",
+                        "<p>  Hello  </p>\n  {{#foo}}  Foo{{name}}\n{{/foo}}  <b>!</b>  ")
+                        .render(ImmutableMap.of("foo", true, "name", "Me")));
+        assertEquals(4, texts.size());
+        assertEquals("<p>  Hello  </p>\n  ", texts.get(0));
+        assertEquals("  Foo", texts.get(1));
+        // Standalone lines are removed first
+        assertEquals("\n", texts.get(2));
+        assertEquals("  <b>!</b>  ", texts.get(3));
+        assertEquals(12, saved.get());
+    }
+
+    @Test
+    public void testTextProcessorPreservesLineSeparators() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(MapTemplateLocator.builder()
+                        .put("partial", "a\nb\n").build())
+                .build();
+        MustacheEngine identityEngine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(MapTemplateLocator.builder()
+                        .put("partial", "a\nb\n").build())
+                .addMustacheListener(new AbstractMustacheListener() {
+                    @Override
+                    public void parsingStarted(MustacheParsingEvent event) {
+                        event.addTextProcessor(text -> text);
+                    }
+                }).build();
+        MustacheEngine upperCaseEngine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(MapTemplateLocator.builder()
+                        .put("partial", "a\nb\n").build())
+                .addMustacheListener(new AbstractMustacheListener() {
+                    @Override
+                    public void parsingStarted(MustacheParsingEvent event) {
+                        event.addTextProcessor(String::toUpperCase);
+                    }
+                }).build();
+        String expected = engine
+                .compileMustache("text_processor_partial", "  {{>partial}}")
+                .render(null);
+        assertEquals("  a\n  b\n", expected);
+        assertEquals(expected, identityEngine
+                .compileMustache("text_processor_partial", "  {{>partial}}")
+                .render(null));
+        assertEquals("  A\n  B\n", upperCaseEngine
+                .compileMustache("text_processor_partial", "  {{>partial}}")
+                .render(null));
+    }
+
+    @Test
+    public void testTextProcessorOrder() {
+        final List<String> texts = new ArrayList<>();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addMustacheListener(new AbstractMustacheListener() {
+                    @Override
+                    public void parsingStarted(MustacheParsingEvent event) {
+                        event.addTextProcessor(text -> {
+                            texts.add(text);
+                            return text;
+                        });
+                    }
+                }).build();
+        assertEquals("Hello world!",
+                engine.compileMustache("text_processor_order",
+                        "Hello {{+nested}}world{{/nested}}{{>nested}}!")
+                        .render(null));
+        assertEquals(3, texts.size());
+        assertEquals("Hello ", texts.get(0));
+        assertEquals("world", texts.get(1));
+        assertEquals("!", texts.get(2));
+    }
+
 }
@@ -0,0 +1,97 @@
+package org.trimou.engine.locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class DateFormatCacheTest {
+
+    @Test
+    public void testIsJavaTimeCompatible() {
+        assertTrue(DateFormatCache.isJavaTimeCompatible("dd.MM.yyyy HH:mm"));
+        assertTrue(DateFormatCache.isJavaTimeCompatible("yy/M/d h:mm:ss.SSS"));
+        assertTrue(DateFormatCache.isJavaTimeCompatible("'Day' d 'at' k"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("M/d/yy h:mm a"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("dd MMM yyyy"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("YYYY-ww"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("HH:mm:ss.S"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("HH:mm [z]"));
+        assertFalse(DateFormatCache.isJavaTimeCompatible("HH 'mm"));
+    }
+
+    @Test
+    public void testFormat() {
+        DateFormatCache cache = new DateFormatCache(
+                MustacheEngineBuilder.newBuilder().build().getConfiguration(),
+                "test");
+        TimeZone timeZone = TimeZone.getTimeZone("Europe/Prague");
+        String[] patterns = { "dd.MM.yyyy HH:mm", "yy/M/d K:m:s.SSS",
+                "'Day' d 'at' k", "''yyy''", "M/d/yy h:mm a",
+                "EEEE, d MMMM yyyy" };
+        Locale[] locales = { Locale.ENGLISH, Locale.GERMANY,
+                new Locale("th", "TH", "TH"), new Locale("ja", "JP", "JP") };
+        long[] values = { 0L, 1376913600000L, 1500000000123L,
+                -13000000000000L, 300000000000000L };
+        for (String pattern : patterns) {
+            for (Locale locale : locales) {
+                SimpleDateFormat expected = new SimpleDateFormat(pattern,
+                        locale);
+                expected.setTimeZone(timeZone);
+                for (long value : values) {
+                    assertEquals(expected.format(new Date(value)),
+                            cache.format(new Date(value), pattern, locale,
+                                    timeZone));
+                    assertEquals(expected.format(value),
+                            cache.format(value, pattern, locale, timeZone));
+                }
+            }
+        }
+        Date now = new Date();
+        assertEquals(
+                DateFormat.getDateInstance(DateFormat.MEDIUM, Locale.GERMANY)
+                        .format(now),
+                cache.format(now, DateFormat.MEDIUM, DateFormatCache.NO_TIME,
+                        Locale.GERMANY, null));
+        assertEquals(
+                DateFormat.getDateTimeInstance(DateFormat.SHORT,
+                        DateFormat.SHORT, Locale.ENGLISH).format(now),
+                cache.format(now, DateFormat.SHORT, DateFormat.SHORT,
+                        Locale.ENGLISH, null));
+    }
+
+    @Test
+    public void testMaxSize() {
+        DateFormatCache cache = new DateFormatCache(MustacheEngineBuilder
+                .newBuilder()
+                .setProperty(EngineConfigurationKey.DATE_FORMAT_CACHE_MAX_SIZE,
+                        2L)
+                .build().getConfiguration(), "test");
+        TimeZone timeZone = TimeZone.getTimeZone("Europe/Prague");
+        for (String pattern : new String[] { "dd.MM.yyyy", "HH:mm", "yyyy",
+                "M/d/yy", "EEEE" }) {
+            assertEquals(new SimpleDateFormat(pattern, Locale.ENGLISH) {
+                {
+                    setTimeZone(timeZone);
+                }
+            }.format(new Date(0L)),
+                    cache.format(0L, pattern, Locale.ENGLISH, timeZone));
+            // The limit is checked before a new entry is computed
+            assertTrue(cache.size() <= 3);
+        }
+    }
+
+}
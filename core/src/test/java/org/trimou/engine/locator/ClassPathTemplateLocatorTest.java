@@ -40,6 +40,15 @@ public class ClassPathTemplateLocatorTest extends PathTemplateLocatorTest {
         assertEquals("{{bar}}", read(locator.locate("sub/subsub/qux")));
     }
 
+    @Test
+    public void testLastModified() {
+        TemplateLocator locator = new ClassPathTemplateLocator(1,
+                "locator/file", "foo");
+        MustacheEngineBuilder.newBuilder().addTemplateLocator(locator).build();
+        assertTrue(locator.getLastModified("index") > 0);
+        assertEquals(0, locator.getLastModified("unknown"));
+    }
+
     @Test
     public void testLocatorNoSuffix() throws IOException {
 
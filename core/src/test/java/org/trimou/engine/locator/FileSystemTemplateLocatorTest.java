@@ -3,6 +3,7 @@ package org.trimou.engine.locator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Set;
 
@@ -43,6 +44,18 @@ public class FileSystemTemplateLocatorTest extends PathTemplateLocatorTest {
         assertEquals("{{bar}}", read(locator.locate("sub/subsub/qux")));
     }
 
+    @Test
+    public void testLastModified() {
+        TemplateLocator locator = new FileSystemTemplateLocator(1,
+                "src/test/resources/locator/file", "foo");
+        MustacheEngineBuilder.newBuilder().addTemplateLocator(locator).build();
+        long lastModified = new File("src/test/resources/locator/file/index.foo")
+                .lastModified();
+        assertTrue(lastModified > 0);
+        assertEquals(lastModified, locator.getLastModified("index"));
+        assertEquals(0, locator.getLastModified("unknown"));
+    }
+
     @Test
     public void testLocatorNoSuffix() throws IOException {
 
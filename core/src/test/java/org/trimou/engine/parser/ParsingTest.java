@@ -2,15 +2,20 @@ package org.trimou.engine.parser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
 import org.junit.Test;
 import org.trimou.AbstractEngineTest;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
 import org.trimou.engine.MustacheTagInfo;
 import org.trimou.engine.MustacheTagType;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.segment.ExtendSectionSegment;
 import org.trimou.engine.segment.ExtendSegment;
 import org.trimou.engine.segment.InvertedSectionSegment;
@@ -268,4 +273,24 @@ public class ParsingTest extends AbstractEngineTest {
         assertEquals(expectedText, segment.getText());
     }
 
+    @Test
+    public void testInternTextSegments() {
+        String text = "<footer>Copyright Foo</footer>";
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(EngineConfigurationKey.INTERN_TEXT_SEGMENTS, true)
+                .build();
+        Template foo = (Template) engine.compileMustache("foo",
+                "{{foo}}" + text);
+        Template bar = (Template) engine.compileMustache("bar",
+                "{{#bar}}{{/bar}}" + text);
+        assertSame(foo.getRootSegment().getSegments().get(1).getText(),
+                bar.getRootSegment().getSegments().get(1).getText());
+        // Interning is disabled by default
+        foo = (Template) this.engine.compileMustache("foo", "{{foo}}" + text);
+        bar = (Template) this.engine.compileMustache("bar",
+                "{{#bar}}{{/bar}}" + text);
+        assertNotSame(foo.getRootSegment().getSegments().get(1).getText(),
+                bar.getRootSegment().getSegments().get(1).getText());
+    }
+
 }
@@ -2,6 +2,7 @@ package org.trimou.engine.resolver;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,7 @@ import org.trimou.Hammer;
 import org.trimou.Mustache;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.handlebars.BasicHelper;
 import org.trimou.handlebars.Options;
 
@@ -141,18 +143,54 @@ public class EnhancedResolverTest extends AbstractTest {
             }
 
         };
+        BasicHelper helper = new BasicHelper() {
+            @Override
+            public void execute(Options options) {
+                append(options, options.getValue("foo").toString());
+            }
+        };
         MustacheEngine engine = MustacheEngineBuilder.newBuilder()
                 .omitServiceLoaderConfigurationExtensions()
+                .addResolver(resolver).registerHelper("foo", helper).build();
+        Mustache mustache = engine.compileMustache("enhancedresolver_helper1",
+                "{{foo 'bar'}}");
+        assertEquals("true", mustache.render(null));
+        assertFalse(hintCreate.get());
+    }
+
+    @Test
+    public void testHintIsCreatedForCachedDynamicKey() {
+
+        final AtomicBoolean hintCreate = new AtomicBoolean(false);
+        EnhancedResolver resolver = new AbstractResolver(10) {
+
+            @Override
+            public Object resolve(Object contextObject, String name,
+                    ResolutionContext context) {
+                return true;
+            }
+
+            @Override
+            public Hint createHint(Object contextObject, String name,
+                    ResolutionContext context) {
+                hintCreate.set(true);
+                return null;
+            }
+
+        };
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .setProperty(EngineConfigurationKey.DYNAMIC_KEY_CACHE_SIZE, 16)
                 .addResolver(resolver).registerHelper("foo", new BasicHelper() {
                     @Override
                     public void execute(Options options) {
                         append(options, options.getValue("foo").toString());
                     }
                 }).build();
-        Mustache mustache = engine.compileMustache("enhancedresolver_helper1",
+        Mustache mustache = engine.compileMustache("enhancedresolver_helper2",
                 "{{foo 'bar'}}");
         assertEquals("true", mustache.render(null));
-        assertFalse(hintCreate.get());
+        assertTrue(hintCreate.get());
     }
 
 }
@@ -1,10 +1,13 @@
 package org.trimou.engine.resolver;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -39,4 +42,23 @@ public class MapResolverTest extends AbstractEngineTest {
                 engine.compileMustache("map", templateContents).render(data));
     }
 
+    @Test
+    public void testAppliesTo() {
+        MapResolver resolver = new MapResolver();
+        assertFalse(resolver.appliesTo(null));
+        assertFalse(resolver.appliesTo(String.class));
+        assertTrue(resolver.appliesTo(HashMap.class));
+        assertTrue(resolver.appliesTo(Mapper.class));
+        List<Resolver> stringResolvers = engine.getConfiguration()
+                .getResolvers(String.class);
+        assertFalse(stringResolvers.stream()
+                .anyMatch(r -> r instanceof MapResolver));
+        assertTrue(stringResolvers.stream()
+                .anyMatch(r -> r instanceof ReflectionResolver));
+        assertTrue(engine.getConfiguration().getResolvers(HashMap.class)
+                .stream().anyMatch(r -> r instanceof MapResolver));
+        assertFalse(engine.getConfiguration().getResolvers(null).stream()
+                .anyMatch(r -> r instanceof ReflectionResolver));
+    }
+
 }
@@ -1,6 +1,8 @@
 package org.trimou.engine.segment;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
 
@@ -8,6 +10,9 @@ import org.junit.Test;
 import org.trimou.AbstractEngineTest;
 import org.trimou.Hammer;
 import org.trimou.Mustache;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.parser.Template;
 import org.trimou.lambda.InputProcessingLambda;
 import org.trimou.lambda.Lambda;
@@ -167,4 +172,27 @@ public class SectionSegmentTest extends AbstractEngineTest {
                 mustache.render(new String[] { "1", "2", "3" }));
     }
 
+    @Test
+    public void testLazySectionCompilation() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(EngineConfigurationKey.LAZY_SECTION_COMPILATION,
+                        true)
+                .build();
+        Template template = (Template) engine.compileMustache("lazy",
+                "{{#admin}}{{#each items}}{{this}}{{/each}}{{/admin}}{{^admin}}-{{/admin}}");
+        SectionSegment admin = (SectionSegment) template.getRootSegment()
+                .getSegments().get(0);
+        assertTrue(admin.getSegments() instanceof LazySegmentList);
+        LazySegmentList adminSegments = (LazySegmentList) admin.getSegments();
+        assertFalse(adminSegments.isMaterialized());
+        assertEquals("-",
+                template.render(ImmutableMap.of("admin", false)));
+        assertFalse(adminSegments.isMaterialized());
+        assertEquals("12", template.render(ImmutableMap.of("admin", true,
+                "items", ImmutableList.of(1, 2))));
+        assertTrue(adminSegments.isMaterialized());
+        assertEquals("{{#each items}}{{this}}{{/each}}",
+                admin.getContentLiteralBlock());
+    }
+
 }
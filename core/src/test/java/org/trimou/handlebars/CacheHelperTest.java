@@ -2,6 +2,9 @@ package org.trimou.handlebars;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
@@ -99,6 +102,27 @@ public class CacheHelperTest extends AbstractTest {
         assertEquals("3000", mustache.render(hammer3));
     }
 
+    @Test
+    public void testExpirationMeasuredFromLastUse()
+            throws InterruptedException {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .registerHelpers(HelpersBuilder.empty().addCache().build())
+                .build();
+        Hammer hammer = new Hammer();
+        hammer.setAge(1);
+        Mustache mustache = engine.compileMustache("cache_idle_01",
+                "{{#cache expire=500}}{{this.age}}{{/cache}}");
+        assertEquals("1", mustache.render(hammer));
+        hammer.setAge(2);
+        Thread.sleep(300);
+        assertEquals("1", mustache.render(hammer));
+        Thread.sleep(300);
+        // Not used for less than 500 ms
+        assertEquals("1", mustache.render(hammer));
+        Thread.sleep(600);
+        assertEquals("2", mustache.render(hammer));
+    }
+
     @Test
     public void testHelperConfiguration() throws InterruptedException {
         final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
@@ -121,6 +145,62 @@ public class CacheHelperTest extends AbstractTest {
         assertEquals("33", mustache.render(hammer3));
     }
 
+    @Test
+    public void testMaxBytes() throws InterruptedException {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                // Two fragments of 4 chars fit
+                .setProperty(CacheHelper.FRAGMENT_CACHE_MAX_BYTES_KEY, 16)
+                .registerHelpers(HelpersBuilder.empty().addCache().build())
+                .build();
+        Hammer hammer1 = new Hammer(1000);
+        Hammer hammer2 = new Hammer(2000);
+        Hammer hammer3 = new Hammer(3000);
+        Mustache mustache = engine.compileMustache("cache_bytes_01",
+                "{{#cache key=this.id}}{{this.age}}{{/cache}}");
+        assertEquals("1000", mustache.render(hammer1));
+        Thread.sleep(5);
+        assertEquals("2000", mustache.render(hammer2));
+        hammer1.setAge(1001);
+        hammer2.setAge(2001);
+        Thread.sleep(5);
+        assertEquals("1000", mustache.render(hammer1));
+        Thread.sleep(5);
+        assertEquals("2000", mustache.render(hammer2));
+        Thread.sleep(5);
+        // The least recently used fragment (hammer1) is invalidated
+        assertEquals("3000", mustache.render(hammer3));
+        assertEquals("2000", mustache.render(hammer2));
+        assertEquals("1001", mustache.render(hammer1));
+    }
+
+    @Test
+    public void testAsyncRevalidation() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                    .setExecutorService(executor)
+                    .setProperty(
+                            CacheHelper.FRAGMENT_CACHE_ASYNC_REVALIDATION_KEY,
+                            true)
+                    .registerHelpers(HelpersBuilder.empty().addCache().build())
+                    .build();
+            Hammer hammer = new Hammer();
+            hammer.setAge(1);
+            Mustache mustache = engine.compileMustache("cache_async_01",
+                    "{{#cache expire=1}}{{this.age}}{{/cache}}");
+            assertEquals("1", mustache.render(hammer));
+            Thread.sleep(50);
+            hammer.setAge(2);
+            // The previous content is used until the update is finished
+            assertEquals("1", mustache.render(hammer));
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+            assertEquals("2", mustache.render(hammer));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testValidation() {
         MustacheExceptionAssert
@@ -15,6 +15,7 @@ import org.trimou.engine.MustacheEngineBuilder;
 import org.trimou.engine.MustacheTagInfo;
 import org.trimou.engine.config.Configuration;
 import org.trimou.engine.config.ConfigurationKey;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.interpolation.BracketDotKeySplitter;
 import org.trimou.engine.interpolation.MissingValueHandler;
 import org.trimou.handlebars.EvalHelper.BracketDotNotation;
@@ -50,6 +51,24 @@ public class EvalHelperTest extends AbstractTest {
         assertEquals("deu", engine.compileMustache("{{eval '_mappings.language' locale}}").render(data));
     }
 
+    @Test
+    public void testDynamicKeyCache() {
+        for (int size : new int[] { 0, 1, 16 }) {
+            final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                    .registerHelpers(HelpersBuilder.empty().addEval().build())
+                    .setProperty(EngineConfigurationKey.DYNAMIC_KEY_CACHE_SIZE,
+                            size)
+                    .build();
+            Map<String, Object> data = ImmutableMap.of("keys",
+                    ImmutableList.of("a", "b", "c", "a", "b", "c"), "map",
+                    ImmutableMap.of("a", 1, "b", 2, "c", 3));
+            assertEquals("123123",
+                    engine.compileMustache(
+                            "{{#each keys}}{{eval 'map' this}}{{/each}}")
+                            .render(data));
+        }
+    }
+
     @Test
     public void testHelper() {
         final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
@@ -1,8 +1,12 @@
 package org.trimou.handlebars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.IllegalFormatException;
+import java.util.Locale;
 
 import org.junit.Test;
 import org.trimou.AbstractTest;
@@ -36,6 +40,38 @@ public class FormatHelperTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testFormatPlan() {
+        String[] patterns = { "Hello %s!", "%d items, %.2f EUR%n", "%f|%.0f",
+                "100%% %s %s", "%.3f", "%5s", "%,d", "%2$s %1$s", "%tY" };
+        Object[][] args = { { "me", 1 }, { 5, 1.005 }, { 0.125, -0.5 },
+                { null, new StringBuilder("foo") }, { -0.0001 },
+                { new BigDecimal("-12.3456"), 1 }, { 1.5f, 2 },
+                { 10L, 3.14159 }, { (short) -7, new BigDecimal("1E+3") },
+                { Double.NaN, Long.MIN_VALUE }, { "a", 1.0 } };
+        Locale[] locales = { Locale.ENGLISH, Locale.GERMANY,
+                Locale.forLanguageTag("ar-EG"), null };
+        for (String pattern : patterns) {
+            FormatPlan plan = FormatPlan.compile(pattern);
+            for (Object[] arg : args) {
+                for (Locale locale : locales) {
+                    String expected;
+                    try {
+                        expected = String.format(locale, pattern, arg);
+                    } catch (IllegalFormatException e) {
+                        try {
+                            plan.format(locale, arg);
+                            fail();
+                        } catch (IllegalFormatException expectedException) {
+                        }
+                        continue;
+                    }
+                    assertEquals(expected, plan.format(locale, arg));
+                }
+            }
+        }
+    }
+
     @Test
     public void testValidation() {
 
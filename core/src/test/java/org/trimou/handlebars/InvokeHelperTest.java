@@ -1,8 +1,10 @@
 package org.trimou.handlebars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -130,6 +132,26 @@ public class InvokeHelperTest extends AbstractTest {
                 .render(new Hammer()));
     }
 
+    @Test
+    public void testInvocationSiteChanges() {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .registerHelpers(HelpersBuilder.empty().addInvoke().build())
+                .build();
+        Map<Object, String> map = new HashMap<>();
+        map.put(1, "one");
+        map.put(2L, "two");
+        map.put("3", "three");
+        // The same tag - different receivers and param types
+        assertEquals("oo,ar,az,|one,two,three,",
+                engine.compileMustache("invoke_site_changes",
+                        "{{#each strings}}{{invoke 1 m='substring'}},{{/each}}|{{#each keys}}{{invoke this on=map m='get'}},{{/each}}")
+                        .render(ImmutableMap.of("strings",
+                                ImmutableList.of("foo", new StringBuilder("bar"),
+                                        "baz"),
+                                "keys", ImmutableList.of(1, 2L, "3"), "map",
+                                map)));
+    }
+
     @Test
     public void testRenderingErrors() {
         final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
@@ -147,4 +169,25 @@ public class InvokeHelperTest extends AbstractTest {
                         .render("bar"));
     }
 
+    @Test
+    public void testErrorNotWrapped() {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .registerHelpers(HelpersBuilder.empty().addInvoke().build())
+                .build();
+        try {
+            engine.compileMustache("invoke_error", "{{invoke m='fail'}}")
+                    .render(new Failing());
+            fail();
+        } catch (StackOverflowError expected) {
+        }
+    }
+
+    public static class Failing {
+
+        public void fail() {
+            throw new StackOverflowError();
+        }
+
+    }
+
 }
@@ -0,0 +1,78 @@
+package org.trimou.handlebars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trimou.Hammer;
+import org.trimou.Mustache;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.handlebars.FragmentStore.Fragment;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class MappedFileFragmentStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStore() throws IOException {
+        File file = folder.newFile("fragments");
+        try (MappedFileFragmentStore store = new MappedFileFragmentStore(
+                file.toPath(), 16, 64);
+                MappedFileFragmentStore other = new MappedFileFragmentStore(
+                        file.toPath(), 16, 64)) {
+            assertNull(store.get("foo"));
+            store.put("foo", new Fragment("Hello!", "guard", 10));
+            Fragment fragment = store.get("foo");
+            assertEquals("Hello!", fragment.getContent());
+            assertEquals("guard", fragment.getGuard());
+            assertEquals(10, fragment.getExpiresAt());
+            assertTrue(fragment.isExpired(11));
+            // The other store shares the same file
+            assertEquals("Hello!", other.get("foo").getContent());
+            other.put("bar", new Fragment("Čau!", null, 0));
+            assertNull(store.get("bar").getGuard());
+            assertEquals("Čau!", store.get("bar").getContent());
+            // Too big to fit into a slot
+            store.put("foo", new Fragment(
+                    "This content is definitely too long to fit into a single slot",
+                    null, 0));
+            assertNull(store.get("foo"));
+            store.invalidate(key -> key.startsWith("b"));
+            assertNull(other.get("bar"));
+        }
+    }
+
+    @Test
+    public void testCacheHelper() throws IOException {
+        File file = folder.newFile("helper");
+        try (MappedFileFragmentStore store = new MappedFileFragmentStore(
+                file.toPath(), 16, 256)) {
+            MustacheEngine engine1 = MustacheEngineBuilder.newBuilder()
+                    .registerHelper("cache", new CacheHelper(store)).build();
+            MustacheEngine engine2 = MustacheEngineBuilder.newBuilder()
+                    .registerHelper("cache", new CacheHelper(store)).build();
+            String template = "{{#cache}}{{this.age}}{{/cache}}";
+            Mustache mustache1 = engine1.compileMustache("shared", template);
+            Mustache mustache2 = engine2.compileMustache("shared", template);
+            Hammer hammer = new Hammer();
+            hammer.setAge(1);
+            assertEquals("1", mustache1.render(hammer));
+            hammer.setAge(2);
+            // The fragment is shared
+            assertEquals("1", mustache2.render(hammer));
+        }
+    }
+
+}
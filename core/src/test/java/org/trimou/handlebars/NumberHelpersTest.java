@@ -10,6 +10,7 @@ import java.util.Map;
 
 import org.junit.Test;
 import org.trimou.AbstractTest;
+import org.trimou.Mustache;
 import org.trimou.MustacheExceptionAssert;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
@@ -260,4 +261,29 @@ public class NumberHelpersTest extends AbstractTest {
                                 BigDecimal.ZERO, "val5", BigInteger.ONE)));
     }
 
+    @Test
+    public void testNumericExpressionHelperCompare() {
+        assertEquals(0, NumericExpressionHelper.compare(10, 10L));
+        assertEquals(-1, NumericExpressionHelper.compare(Long.MIN_VALUE,
+                Long.MAX_VALUE));
+        assertEquals(0, NumericExpressionHelper.compare(-0.0d, 0));
+        assertEquals(1, NumericExpressionHelper.compare(1.5d, 1L));
+        assertEquals(-1, NumericExpressionHelper.compare(0.1d, 0.2d));
+        // Long not exactly representable as double
+        assertEquals(1, NumericExpressionHelper
+                .compare(9007199254740993L, 9007199254740992d));
+        assertEquals(0, NumericExpressionHelper.compare(BigInteger.TEN, 10));
+        assertEquals(-1, NumericExpressionHelper.compare(new BigDecimal("0.1"),
+                0.1d));
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .registerHelpers(
+                        NumericExpressionHelper.forEachOperator().build())
+                .build();
+        Mustache mustache = engine.compileMustache("number_compare",
+                "{{#each this}}{{#gt this '1.0'}}{{#le this \"2.5\"}}{{this}}{{/le}}{{/gt}}{{/each}}");
+        assertEquals("2.52",
+                mustache.render(new Object[] { 1, 1.0d, 2.5d, 2L,
+                        new BigDecimal("3"), "1" }));
+    }
+
 }
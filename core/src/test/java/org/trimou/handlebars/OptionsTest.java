@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -65,6 +66,10 @@ public class OptionsTest extends AbstractTest {
                         assertEquals("1", hash.get("first"));
                         assertEquals(10, hash.get("second"));
                         assertNull(hash.get("third"));
+                        assertTrue(hash.containsKey("third"));
+                        assertNull(hash.get("fourth"));
+                        assertEquals(3, hash.entrySet().size());
+                        assertEquals(hash, new HashMap<>(hash));
                         ExceptionAssert
                                 .expect(UnsupportedOperationException.class)
                                 .check(() -> hash.remove("first"));
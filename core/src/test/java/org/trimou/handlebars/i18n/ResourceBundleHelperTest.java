@@ -5,12 +5,14 @@ import static org.junit.Assert.fail;
 
 import java.util.Collections;
 import java.util.Locale;
+import java.util.MissingFormatArgumentException;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.trimou.AbstractEngineTest;
 import org.trimou.Mustache;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.locale.FixedLocaleSupport;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
@@ -93,6 +95,24 @@ public class ResourceBundleHelperTest extends AbstractEngineTest {
         }
     }
 
+    @Test
+    public void testCompilePrintf() {
+        assertEquals("Hello!", ResourceBundleHelper.compilePrintf("Hello!")
+                .format(new Object[] { "ignored" }));
+        assertEquals("Hello Martin and null 100%!",
+                ResourceBundleHelper.compilePrintf("Hello %s and %s 100%%!")
+                        .format(new Object[] { "Martin", null }));
+        assertEquals("Number: 5",
+                ResourceBundleHelper.compilePrintf("Number: %d")
+                        .format(new Object[] { 5 }));
+        try {
+            ResourceBundleHelper.compilePrintf("Hello %s!")
+                    .format(new Object[] {});
+            fail();
+        } catch (MissingFormatArgumentException expected) {
+        }
+    }
+
     @Test
     public void testLocale() {
         String templateContents = "{{msg \"echo_one\" locale='de'}},{{msg \"echo.two\" locale=myLocale}},{{msg key locale='de'}}";
@@ -105,4 +125,19 @@ public class ResourceBundleHelperTest extends AbstractEngineTest {
         assertEquals("Hallo", mustache.render(Collections.singletonMap(OptionsHashKeys.LOCALE, Locale.GERMAN)));
     }
 
+    @Test
+    public void testCacheMaxSize() {
+        engine = MustacheEngineBuilder.newBuilder()
+                .setLocaleSupport(FixedLocaleSupport.from(Locale.ENGLISH))
+                .setProperty(
+                        EngineConfigurationKey.RESOURCE_BUNDLE_CACHE_MAX_SIZE,
+                        1L)
+                .registerHelper("msg", new ResourceBundleHelper("messages"))
+                .build();
+        Mustache mustache = engine.compileMustache("bundle_helper_max_size",
+                "{{msg 'echo_one' locale='de'}},{{msg 'echo_one' locale='cs'}},{{msg 'echo_one'}},{{msg 'echo_one' locale='de'}}");
+        assertEquals("Hallo,Ahoj,Hello,Hallo", mustache.render(null));
+        assertEquals("Hallo,Ahoj,Hello,Hallo", mustache.render(null));
+    }
+
 }
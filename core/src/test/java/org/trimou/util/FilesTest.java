@@ -0,0 +1,50 @@
+package org.trimou.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class FilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGetLastModified() throws IOException {
+        File file = folder.newFile("foo.mustache");
+        file.setLastModified(1500000000000L);
+        assertEquals(file.lastModified(),
+                Files.getLastModified(file.toURI().toURL()));
+
+        File jar = folder.newFile("templates.jar");
+        // The ZIP format stores the time with two seconds precision
+        long time = 1500000002000L;
+        try (JarOutputStream out = new JarOutputStream(
+                new FileOutputStream(jar))) {
+            JarEntry entry = new JarEntry("templates/foo.mustache");
+            entry.setTime(time);
+            out.putNextEntry(entry);
+            out.write("{{foo}}".getBytes());
+            out.closeEntry();
+        }
+        String jarUrl = "jar:" + jar.toURI().toURL() + "!/templates/";
+        assertEquals(time,
+                Files.getLastModified(new URL(jarUrl + "foo.mustache")));
+        assertEquals(0L,
+                Files.getLastModified(new URL(jarUrl + "unknown.mustache")));
+    }
+
+}
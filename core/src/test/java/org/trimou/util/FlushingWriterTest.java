@@ -0,0 +1,59 @@
+package org.trimou.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.exception.MustacheException;
+import org.trimou.exception.MustacheProblem;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class FlushingWriterTest {
+
+    @Test
+    public void testPeriodicFlush() throws IOException {
+        AtomicInteger flushes = new AtomicInteger();
+        StringWriter delegate = new StringWriter() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        FlushingWriter writer = new FlushingWriter(delegate, 4, () -> false);
+        writer.write("foo");
+        assertEquals(0, flushes.get());
+        writer.write('b');
+        assertEquals(1, flushes.get());
+        writer.write("ar".toCharArray());
+        writer.append("baz");
+        assertEquals(2, flushes.get());
+        assertEquals("foobarbaz", delegate.toString());
+    }
+
+    @Test
+    public void testAbortRendering() {
+        StringWriter delegate = new StringWriter();
+        try {
+            MustacheEngineBuilder.newBuilder().build()
+                    .compileMustache("flushing_writer_abort",
+                            "{{#items}}{{this}}{{/items}}")
+                    .render(new FlushingWriter(delegate, 1,
+                            () -> delegate.toString().length() > 1),
+                            ImmutableMap.of("items",
+                                    new String[] { "a", "b", "c", "d" }));
+            fail();
+        } catch (MustacheException e) {
+            assertEquals(MustacheProblem.RENDER_IO_ERROR, e.getCode());
+        }
+        assertEquals("ab", delegate.toString());
+    }
+
+}
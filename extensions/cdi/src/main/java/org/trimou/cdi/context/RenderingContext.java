@@ -16,6 +16,7 @@
 package org.trimou.cdi.context;
 
 import static org.trimou.util.Checker.checkArgumentNotNull;
+import static org.trimou.util.Checker.checkArgumentsNotNull;
 
 import java.lang.annotation.Annotation;
 import java.util.HashMap;
@@ -28,10 +29,19 @@ import javax.enterprise.context.spi.CreationalContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.listener.MustacheRenderingEvent;
 
 /**
  * A context for {@link RenderingScoped}.
+ * <p>
+ * The contextual instances are stored in the {@link RenderingAttributes} of
+ * the current rendering. However, the context is only active on the thread
+ * which started the rendering, because client proxies must be able to obtain
+ * the current instances without any reference to the rendering. Components
+ * which have access to the {@link RenderingAttributes} (e.g. asynchronous
+ * helpers) may use {@link #get(RenderingAttributes, Contextual, CreationalContext)}
+ * instead.
  *
  * @author Martin Kouba
  */
@@ -39,6 +49,9 @@ public final class RenderingContext implements Context {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RenderingContext.class);
 
+    private static final String ATTRIBUTE_INSTANCES = RenderingContext.class.getName() + ".instances";
+
+    // Only used to associate the instances with the thread which started the rendering
     private final ThreadLocal<Map<Contextual<?>, ContextualInstance<?>>> currentContext = new ThreadLocal<>();
 
     @Override
@@ -48,23 +61,12 @@ public final class RenderingContext implements Context {
 
     @Override
     public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext) {
-
         checkArgumentNotNull(contextual);
         Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
-
         if (ctx == null) {
             throw new ContextNotActiveException();
         }
-
-        @SuppressWarnings("unchecked")
-        ContextualInstance<T> instance = (ContextualInstance<T>) ctx.get(contextual);
-
-        if (instance == null && creationalContext != null) {
-            instance = new ContextualInstance<T>(contextual.create(creationalContext), creationalContext, contextual);
-            ctx.put(contextual, instance);
-        }
-
-        return instance != null ? instance.get() : null;
+        return get(ctx, contextual, creationalContext);
     }
 
     @Override
@@ -77,28 +79,85 @@ public final class RenderingContext implements Context {
         return currentContext.get() != null;
     }
 
+    /**
+     *
+     * @param attributes
+     * @return <code>true</code> if the contextual instances are stored in the
+     *         given attributes, <code>false</code> otherwise
+     * @since 2.5
+     */
+    public static boolean isActive(RenderingAttributes attributes) {
+        return attributes != null && attributes.getAttribute(ATTRIBUTE_INSTANCES) != null;
+    }
+
+    /**
+     * Unlike {@link #get(Contextual, CreationalContext)} this method does not
+     * require the context to be active on the current thread.
+     *
+     * @param attributes
+     * @param contextual
+     * @param creationalContext
+     * @return the contextual instance for the given rendering
+     * @throws ContextNotActiveException
+     *             If no contextual instances are stored in the given
+     *             attributes
+     * @since 2.5
+     */
+    public static <T> T get(RenderingAttributes attributes, Contextual<T> contextual,
+            CreationalContext<T> creationalContext) {
+        checkArgumentsNotNull(attributes, contextual);
+        @SuppressWarnings("unchecked")
+        Map<Contextual<?>, ContextualInstance<?>> ctx = (Map<Contextual<?>, ContextualInstance<?>>) attributes
+                .getAttribute(ATTRIBUTE_INSTANCES);
+        if (ctx == null) {
+            throw new ContextNotActiveException();
+        }
+        return get(ctx, contextual, creationalContext);
+    }
+
     void initialize(MustacheRenderingEvent event) {
         LOGGER.debug("Rendering started - init context [template: {}]", event.getMustacheName());
-        currentContext.set(new HashMap<>());
+        Map<Contextual<?>, ContextualInstance<?>> ctx = new HashMap<>();
+        event.getRenderingAttributes().setAttribute(ATTRIBUTE_INSTANCES, ctx);
+        currentContext.set(ctx);
     }
 
     void destroy(MustacheRenderingEvent event) {
-        Map<Contextual<?>, ContextualInstance<?>> ctx = currentContext.get();
+        currentContext.remove();
+        @SuppressWarnings("unchecked")
+        Map<Contextual<?>, ContextualInstance<?>> ctx = (Map<Contextual<?>, ContextualInstance<?>>) event
+                .getRenderingAttributes().removeAttribute(ATTRIBUTE_INSTANCES);
         if (ctx == null) {
             LOGGER.warn("Cannot destroy context - current context is null");
             return;
         }
         LOGGER.debug("Rendering finished - destroy context [template: {}]", event.getMustacheName());
-        for (ContextualInstance<?> instance : ctx.values()) {
-            try {
-                LOGGER.trace("Destroying contextual instance [contextual: {}]", instance.getContextual());
-                instance.destroy();
-            } catch (Exception e) {
-                LOGGER.warn("Unable to destroy instance" + instance.get() + " for bean: " + instance.getContextual());
+        synchronized (ctx) {
+            for (ContextualInstance<?> instance : ctx.values()) {
+                try {
+                    LOGGER.trace("Destroying contextual instance [contextual: {}]", instance.getContextual());
+                    instance.destroy();
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to destroy instance" + instance.get() + " for bean: " + instance.getContextual());
+                }
             }
+            ctx.clear();
+        }
+    }
+
+    private static <T> T get(Map<Contextual<?>, ContextualInstance<?>> ctx, Contextual<T> contextual,
+            CreationalContext<T> creationalContext) {
+        // Asynchronous helpers may access the instances concurrently
+        synchronized (ctx) {
+            @SuppressWarnings("unchecked")
+            ContextualInstance<T> instance = (ContextualInstance<T>) ctx.get(contextual);
+            if (instance == null && creationalContext != null) {
+                instance = new ContextualInstance<T>(contextual.create(creationalContext), creationalContext,
+                        contextual);
+                ctx.put(contextual, instance);
+            }
+            return instance != null ? instance.get() : null;
         }
-        ctx.clear();
-        currentContext.remove();
     }
 
 }
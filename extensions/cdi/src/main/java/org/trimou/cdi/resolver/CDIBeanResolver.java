@@ -18,8 +18,10 @@ package org.trimou.cdi.resolver;
 import static org.trimou.engine.priority.Priorities.rightAfter;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.spi.CreationalContext;
@@ -31,9 +33,12 @@ import javax.inject.Named;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trimou.cdi.context.RenderingContext;
+import org.trimou.cdi.context.RenderingScoped;
 import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.config.ConfigurationKey;
 import org.trimou.engine.config.SimpleConfigurationKey;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.resolver.AbstractResolver;
 import org.trimou.engine.resolver.Hints;
 import org.trimou.engine.resolver.ReflectionResolver;
@@ -44,7 +49,9 @@ import org.trimou.engine.resolver.ResolutionContext;
  * {@link Named}) are resolvable.
  * <p>
  * Similarly to the CDI and Unified EL integration, instance of a dependent bean
- * exists to service just a single tag evaluation.
+ * exists to service just a single tag evaluation. References to beans with any
+ * other scope are memoized per rendering, i.e. a bean referenced many times
+ * during a single rendering (e.g. inside a loop) is only looked up once.
  *
  * @author Martin Kouba
  */
@@ -59,6 +66,8 @@ public class CDIBeanResolver extends AbstractResolver {
     public static final ConfigurationKey BEAN_CACHE_MAX_SIZE_KEY = new SimpleConfigurationKey(
             CDIBeanResolver.class.getName() + ".beanCacheMaxSize", 1000L);
 
+    private static final String ATTRIBUTE_REFERENCES = CDIBeanResolver.class.getName() + ".references";
+
     private volatile BeanManager beanManager;
 
     private ComputingCache<String, Optional<Bean<?>>> beanCache;
@@ -109,6 +118,12 @@ public class CDIBeanResolver extends AbstractResolver {
         return getReference(bean, context);
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        // Only context-unrelated lookups are supported
+        return contextObjectType == null;
+    }
+
     @Override
     public void init() {
         if (beanManager == null) {
@@ -138,15 +153,39 @@ public class CDIBeanResolver extends AbstractResolver {
     }
 
     private <T> Object getReference(Bean<T> bean, ResolutionContext context) {
-        CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
         if (Dependent.class.equals(bean.getScope())) {
+            CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
             @SuppressWarnings("unchecked")
             T reference = (T) beanManager.getReference(bean, Object.class, creationalContext);
             context.registerReleaseCallback(() -> bean.destroy(reference, creationalContext));
             return reference;
-        } else {
-            return beanManager.getReference(bean, Object.class, creationalContext);
         }
+        RenderingAttributes attributes = context.getRenderingAttributes();
+        if (attributes == null) {
+            return getNonDependentReference(bean, attributes);
+        }
+        // References are memoized per rendering, e.g. in order to avoid the lookup for each iteration of a loop
+        @SuppressWarnings("unchecked")
+        Map<Bean<?>, Object> references = (Map<Bean<?>, Object>) attributes.computeAttributeIfAbsent(
+                ATTRIBUTE_REFERENCES, name -> new ConcurrentHashMap<>());
+        Object reference = references.get(bean);
+        if (reference == null) {
+            reference = getNonDependentReference(bean, attributes);
+            Object previous = references.putIfAbsent(bean, reference);
+            if (previous != null) {
+                reference = previous;
+            }
+        }
+        return reference;
+    }
+
+    private <T> Object getNonDependentReference(Bean<T> bean, RenderingAttributes attributes) {
+        CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
+        if (RenderingScoped.class.equals(bean.getScope()) && RenderingContext.isActive(attributes)) {
+            // The context is only active on the thread which started the rendering, i.e. not in async helpers
+            return RenderingContext.get(attributes, bean, creationalContext);
+        }
+        return beanManager.getReference(bean, Object.class, creationalContext);
     }
 
     @Override
@@ -17,9 +17,22 @@ package org.trimou.cdi;
 
 import static org.junit.Assert.assertEquals;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+
 import org.junit.Test;
+import org.trimou.Mustache;
+import org.trimou.cdi.resolver.CDIBeanResolver;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.resolver.ReflectionResolver;
+import org.trimou.engine.resolver.ThisResolver;
+import org.trimou.handlebars.HelpersBuilder;
+import org.trimou.util.ImmutableList;
 
 /**
  *
@@ -33,4 +46,31 @@ public class CDIBeanResolverTest extends WeldSETest {
         assertEquals("foo", engine.compileMustache("cdi_bean_resolver_weld_se", "{{appScopedBean.name}}").render(null));
     }
 
+    @Test
+    public void testReferencesMemoizedPerRendering() {
+        BeanManager delegate = CDI.current().getBeanManager();
+        AtomicInteger references = new AtomicInteger();
+        BeanManager beanManager = (BeanManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { BeanManager.class }, (proxy, method, args) -> {
+                    if ("getReference".equals(method.getName())) {
+                        references.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder().omitServiceLoaderConfigurationExtensions()
+                .addResolver(new ThisResolver())
+                .addResolver(new ReflectionResolver()).addResolver(new CDIBeanResolver(beanManager))
+                .registerHelpers(HelpersBuilder.empty().addEach().build()).build();
+        Mustache mustache = engine.compileMustache("cdi_bean_resolver_memoized",
+                "{{#each this}}{{appScopedBean.name}}{{/each}}");
+        assertEquals("foofoofoo", mustache.render(ImmutableList.of(1, 2, 3)));
+        assertEquals(1, references.get());
+        mustache.render(ImmutableList.of(1, 2));
+        assertEquals(2, references.get());
+    }
+
 }
@@ -19,10 +19,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 import org.trimou.Mustache;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.handlebars.HelpersBuilder;
 
 /**
  *
@@ -46,4 +50,23 @@ public class RenderingContextTest extends WeldSETest {
         assertNotEquals(id1, mustache.render(null));
     }
 
+    @Test
+    public void testAsyncHelper() {
+        RenderingScopedBean.DESTROYED.set(false);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            MustacheEngine engine = MustacheEngineBuilder.newBuilder().setExecutorService(executor)
+                    .registerHelpers(HelpersBuilder.empty().addAsync().build()).build();
+            String[] ids = engine
+                    .compileMustache("cdi_rendering_context_async",
+                            "{{renderingScopedBean.id}}:{{#async}}{{renderingScopedBean.id}}{{/async}}")
+                    .render(null).split(":");
+            // The same instance is used in the async helper
+            assertEquals(ids[0], ids[1]);
+            assertTrue(RenderingScopedBean.DESTROYED.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -33,8 +33,10 @@ public class RenderingScopedBean {
         return "bar";
     }
 
+    private final String id = UUID.randomUUID().toString();
+
     public String getId() {
-        return UUID.randomUUID().toString();
+        return id;
     }
 
     @PreDestroy
@@ -24,15 +24,22 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.trimou.Mustache;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.config.Configuration;
 import org.trimou.engine.config.EngineConfigurationKey;
 import org.trimou.engine.locator.ClassPathTemplateLocator;
 import org.trimou.exception.MustacheException;
+import org.trimou.util.FlushingWriter;
 import org.trimou.util.Strings;
 
 import io.dropwizard.views.View;
@@ -41,7 +48,14 @@ import io.dropwizard.views.ViewRenderer;
 /**
  * A Dropwizard {@link ViewRenderer} backed by Trimou.
  * <p>
- * Localized template files support is enabled by default, but could be disabled to improve performance.
+ * Localized template files support is enabled by default, but could be disabled to improve performance. The matching
+ * template variant is cached per view and locale, so that the fallback variants are not probed for every request
+ * (unless the template cache is disabled or the debug mode is enabled). The variants are probed again once the cached
+ * template is invalidated in the template cache of the engine, see also {@link #clearCache()}. The locale usually comes
+ * from the client, therefore the size of the cache is limited, see {@link Builder#setLocalizedTemplatesCacheMaxSize(long)}.
+ * <p>
+ * Long-running views (e.g. slow report pages) can be rendered asynchronously, see
+ * {@link #renderAsync(View, Locale, AsyncResponse, Executor)}.
  *
  * @author Martin Kouba
  * @see Builder
@@ -50,23 +64,40 @@ public class TrimouViewRenderer implements ViewRenderer {
 
     public static final String DEFAULT_SUFFIX = "trimou";
 
+    public static final String COMPUTING_CACHE_CONSUMER_ID = TrimouViewRenderer.class.getName();
+
+    public static final long DEFAULT_LOCALIZED_TEMPLATES_CACHE_MAX_SIZE = 1000L;
+
     private final MustacheEngine engine;
 
     private final String suffix;
 
     private final boolean hasLocalizedTemplates;
 
+    private final int flushThreshold;
+
+    /**
+     * The matching template variant per view and locale, null if not used
+     */
+    private final ComputingCache<LocalizedTemplateKey, LocalizedTemplate> localizedTemplates;
+
     /**
      *
      * @param engine
      * @param suffix
      * @param hasLocalizedTemplates
+     * @param flushThreshold
+     * @param localizedTemplatesCacheMaxSize
      */
-    private TrimouViewRenderer(MustacheEngine engine, String suffix, boolean hasLocalizedTemplates) {
+    private TrimouViewRenderer(MustacheEngine engine, String suffix, boolean hasLocalizedTemplates,
+            int flushThreshold, long localizedTemplatesCacheMaxSize) {
         checkArgumentsNotNull(engine, suffix, hasLocalizedTemplates);
         this.engine = engine;
         this.suffix = suffix.startsWith(".") ? suffix : "." + suffix;
         this.hasLocalizedTemplates = hasLocalizedTemplates;
+        this.flushThreshold = flushThreshold;
+        this.localizedTemplates = hasLocalizedTemplates ? buildLocalizedTemplatesCache(localizedTemplatesCacheMaxSize)
+                : null;
     }
 
     @Override
@@ -76,57 +107,217 @@ public class TrimouViewRenderer implements ViewRenderer {
 
     @Override
     public void render(View view, Locale locale, OutputStream output) throws IOException, WebApplicationException {
+        final Writer writer = new OutputStreamWriter(output, getEncoding());
+        try {
+            getTemplate(view, locale).render(writer, view);
+        } catch (MustacheException e) {
+            throw new IOException(e);
+        } finally {
+            writer.flush();
+        }
+    }
 
-        Mustache template = null;
+    /**
+     * The view is rendered when the output is written. The output is flushed periodically so that the client receives the
+     * content gradually. The rendering is aborted as soon as the client disconnects or the abort condition is satisfied,
+     * i.e. an abandoned request does not consume resources until the rendering is finished.
+     *
+     * @param view
+     * @param locale
+     * @param abortCondition
+     *            Tested before each write
+     * @return the streaming output
+     * @since 2.5
+     */
+    public StreamingOutput renderStreaming(View view, Locale locale, BooleanSupplier abortCondition) {
+        checkArgumentsNotNull(view, abortCondition);
+        return output -> {
+            final Writer writer = new FlushingWriter(new OutputStreamWriter(output, getEncoding()), flushThreshold,
+                    abortCondition);
+            try {
+                getTemplate(view, locale).render(writer, view);
+            } catch (MustacheException e) {
+                throw new IOException(e);
+            }
+            writer.flush();
+        };
+    }
 
-        if (hasLocalizedTemplates && locale != null) {
-            // First try the Locale
-            template = engine.getMustache(getLocalizedTemplateName(view.getTemplateName(), locale.toString()));
-            if (template == null) {
-                // Then only the language
-                template = engine.getMustache(getLocalizedTemplateName(view.getTemplateName(), locale.getLanguage()));
+    /**
+     * Resumes the suspended response with {@link #renderStreaming(View, Locale, BooleanSupplier)}, using the given
+     * executor. The request thread is not blocked and the rendering is aborted if the response is cancelled or the client
+     * disconnects.
+     *
+     * <pre>
+     * &#064;GET
+     * public void report(&#064;Suspended AsyncResponse response) {
+     *     renderer.renderAsync(new ReportView(), Locale.ENGLISH, response, executor);
+     * }
+     * </pre>
+     *
+     * @param view
+     * @param locale
+     * @param asyncResponse
+     * @param executor
+     * @since 2.5
+     */
+    public void renderAsync(View view, Locale locale, AsyncResponse asyncResponse, Executor executor) {
+        checkArgumentsNotNull(view, asyncResponse, executor);
+        executor.execute(() -> {
+            if (!asyncResponse.isCancelled()) {
+                asyncResponse.resume(renderStreaming(view, locale, asyncResponse::isCancelled));
             }
+        });
+    }
+
+    /**
+     * Clear the cache of matching localized template variants. Note that the cache is also updated automatically once a
+     * cached template is invalidated in the template cache of the engine.
+     *
+     * @since 2.5
+     */
+    public void clearCache() {
+        if (localizedTemplates != null) {
+            localizedTemplates.clear();
         }
+    }
 
-        if (template == null) {
+    @Override
+    public void configure(Map<String, String> options) {
+        // No-op
+    }
+
+    @Override
+    public String getSuffix() {
+        return suffix;
+    }
+
+    private Mustache getTemplate(View view, Locale locale) throws FileNotFoundException {
+        final Mustache template;
+        if (hasLocalizedTemplates && locale != null) {
+            if (localizedTemplates != null) {
+                template = getLocalizedTemplate(new LocalizedTemplateKey(view.getTemplateName(), locale));
+            } else {
+                template = resolveTemplate(view.getTemplateName(), locale).template;
+            }
+        } else {
             template = engine.getMustache(view.getTemplateName());
         }
-
         if (template == null) {
             throw new FileNotFoundException("Template not found: " + view.getTemplateName());
         }
+        return template;
+    }
 
-        final Writer writer = new OutputStreamWriter(output, engine.getConfiguration().getStringPropertyValue(EngineConfigurationKey.DEFAULT_FILE_ENCODING));
+    private Mustache getLocalizedTemplate(LocalizedTemplateKey key) {
+        LocalizedTemplate localized = localizedTemplates.get(key);
+        Mustache template = engine.getMustache(localized.name);
+        if (template != localized.template) {
+            // The template cache was invalidated in the meantime, e.g. a new variant might be available
+            localizedTemplates.invalidate(key::equals);
+            localized = localizedTemplates.get(key);
+            template = localized.template;
+        }
+        return template;
+    }
 
-        try {
-            template.render(writer, view);
-        } catch (MustacheException e) {
-            throw new IOException(e);
-        } finally {
-            writer.flush();
+    private LocalizedTemplate resolveTemplate(String templateName, Locale locale) {
+        // First try the Locale
+        String localizedName = getLocalizedTemplateName(templateName, locale.toString());
+        Mustache template = engine.getMustache(localizedName);
+        if (template == null) {
+            // Then only the language
+            localizedName = getLocalizedTemplateName(templateName, locale.getLanguage());
+            template = engine.getMustache(localizedName);
+            if (template == null) {
+                localizedName = templateName;
+                template = engine.getMustache(templateName);
+            }
         }
+        return new LocalizedTemplate(localizedName, template);
     }
 
-    @Override
-    public void configure(Map<String, String> options) {
-        // No-op
+    /**
+     * The cache is only used if the template cache is enabled and the debug mode is disabled. The expiration timeout of
+     * the template cache is used.
+     */
+    private ComputingCache<LocalizedTemplateKey, LocalizedTemplate> buildLocalizedTemplatesCache(long maxSize) {
+        final Configuration configuration = engine.getConfiguration();
+        if (!configuration.getBooleanPropertyValue(EngineConfigurationKey.TEMPLATE_CACHE_ENABLED)
+                || configuration.getBooleanPropertyValue(EngineConfigurationKey.DEBUG_MODE)) {
+            return null;
+        }
+        final Long expirationTimeout =
+                configuration.getLongPropertyValue(EngineConfigurationKey.TEMPLATE_CACHE_EXPIRATION_TIMEOUT);
+        return configuration.getComputingCacheFactory().create(COMPUTING_CACHE_CONSUMER_ID,
+                key -> resolveTemplate(key.templateName, key.locale),
+                expirationTimeout > 0 ? expirationTimeout * 1000L : null, maxSize, null);
     }
 
-    @Override
-    public String getSuffix() {
-        return suffix;
+    private String getEncoding() {
+        return engine.getConfiguration().getStringPropertyValue(EngineConfigurationKey.DEFAULT_FILE_ENCODING);
     }
 
     private String getLocalizedTemplateName(String templateName, String localePart) {
         return Strings.removeSuffix(templateName, suffix) + "_" + localePart + suffix;
     }
 
+    private static final class LocalizedTemplateKey {
+
+        private final String templateName;
+
+        private final Locale locale;
+
+        private LocalizedTemplateKey(String templateName, Locale locale) {
+            this.templateName = templateName;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * templateName.hashCode() + locale.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LocalizedTemplateKey)) {
+                return false;
+            }
+            LocalizedTemplateKey other = (LocalizedTemplateKey) obj;
+            return templateName.equals(other.templateName) && locale.equals(other.locale);
+        }
+
+    }
+
+    private static final class LocalizedTemplate {
+
+        private final String name;
+
+        /**
+         * The instance obtained from the engine when the variant was resolved, may be null
+         */
+        private final Mustache template;
+
+        private LocalizedTemplate(String name, Mustache template) {
+            this.name = name;
+            this.template = template;
+        }
+
+    }
+
     public static class Builder {
 
         private String suffix = DEFAULT_SUFFIX;
 
         private boolean hasLocalizedTemplates = true;
 
+        private int flushThreshold = FlushingWriter.DEFAULT_FLUSH_THRESHOLD;
+
+        private long localizedTemplatesCacheMaxSize = DEFAULT_LOCALIZED_TEMPLATES_CACHE_MAX_SIZE;
+
         public Builder setSuffix(String suffix) {
             this.suffix = suffix;
             return this;
@@ -137,6 +328,32 @@ public class TrimouViewRenderer implements ViewRenderer {
             return this;
         }
 
+        /**
+         * The number of characters written before the output is flushed, only used for streaming rendering.
+         *
+         * @param flushThreshold
+         * @return self
+         * @see TrimouViewRenderer#renderStreaming(View, Locale, BooleanSupplier)
+         */
+        public Builder setFlushThreshold(int flushThreshold) {
+            this.flushThreshold = flushThreshold;
+            return this;
+        }
+
+        /**
+         * The max size of the cache of matching localized template variants (per view and locale). All the entries may
+         * be removed once the limit is exceeded.
+         *
+         * @param localizedTemplatesCacheMaxSize
+         * @return self
+         * @see TrimouViewRenderer#DEFAULT_LOCALIZED_TEMPLATES_CACHE_MAX_SIZE
+         * @since 2.5
+         */
+        public Builder setLocalizedTemplatesCacheMaxSize(long localizedTemplatesCacheMaxSize) {
+            this.localizedTemplatesCacheMaxSize = localizedTemplatesCacheMaxSize;
+            return this;
+        }
+
         public TrimouViewRenderer build() {
             return build(MustacheEngineBuilder.newBuilder());
         }
@@ -150,7 +367,8 @@ public class TrimouViewRenderer implements ViewRenderer {
         }
 
         public TrimouViewRenderer build(MustacheEngine engine) {
-            return new TrimouViewRenderer(engine, suffix, hasLocalizedTemplates);
+            return new TrimouViewRenderer(engine, suffix, hasLocalizedTemplates, flushThreshold,
+                    localizedTemplatesCacheMaxSize);
         }
 
     }
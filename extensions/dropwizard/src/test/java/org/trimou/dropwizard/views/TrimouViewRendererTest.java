@@ -1,15 +1,30 @@
 package org.trimou.dropwizard.views;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.junit.Test;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.locator.ClassPathTemplateLocator;
+import org.trimou.engine.locator.MapTemplateLocator;
 import org.trimou.util.ImmutableList;
 
 import com.codahale.metrics.MetricRegistry;
@@ -18,6 +33,7 @@ import com.sun.jersey.test.framework.AppDescriptor;
 import com.sun.jersey.test.framework.JerseyTest;
 import com.sun.jersey.test.framework.LowLevelAppDescriptor;
 
+import io.dropwizard.views.View;
 import io.dropwizard.views.ViewMessageBodyWriter;
 import io.dropwizard.views.ViewRenderer;
 
@@ -91,4 +107,124 @@ public class TrimouViewRendererTest extends JerseyTest {
         assertEquals("Hello Martin again!", response);
     }
 
+    @Test
+    public void testRenderStreaming() throws Exception {
+        final TrimouViewRenderer renderer = new TrimouViewRenderer.Builder().setFlushThreshold(1).build();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        renderer.renderStreaming(new HelloView("Martin"), null, () -> false).write(output);
+        assertEquals("Hello Martin!", output.toString("UTF-8").trim());
+        try {
+            renderer.renderStreaming(new HelloView("Martin"), null, () -> true).write(new ByteArrayOutputStream());
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testRenderAsync() throws Exception {
+        final TrimouViewRenderer renderer = new TrimouViewRenderer.Builder().build();
+        final AtomicReference<Object> resumed = new AtomicReference<>();
+        renderer.renderAsync(new HelloView("Martin"), null, newAsyncResponse(resumed, false), Runnable::run);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) resumed.get()).write(output);
+        assertEquals("Hello Martin!", output.toString("UTF-8").trim());
+        resumed.set(null);
+        renderer.renderAsync(new HelloView("Martin"), null, newAsyncResponse(resumed, true), Runnable::run);
+        assertNull(resumed.get());
+    }
+
+    private AsyncResponse newAsyncResponse(AtomicReference<Object> resumed, boolean cancelled) {
+        return (AsyncResponse) Proxy.newProxyInstance(AsyncResponse.class.getClassLoader(),
+                new Class<?>[] { AsyncResponse.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "isCancelled":
+                        return cancelled;
+                    case "resume":
+                        resumed.set(args[0]);
+                        return true;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void testLocalizedTemplateNamesCached() throws Exception {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(ClassPathTemplateLocator.builder(10).build()).build();
+        final AtomicInteger lookups = new AtomicInteger();
+        final TrimouViewRenderer renderer = new TrimouViewRenderer.Builder().build(countLookups(engine, lookups));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // fr_FR, fr and the matching template
+        renderer.render(new LocalizedView(), Locale.FRANCE, output);
+        assertEquals("Salut!", output.toString("UTF-8").trim());
+        assertEquals(3, lookups.get());
+        output = new ByteArrayOutputStream();
+        renderer.render(new LocalizedView(), Locale.FRANCE, output);
+        assertEquals("Salut!", output.toString("UTF-8").trim());
+        assertEquals(4, lookups.get());
+    }
+
+    @Test
+    public void testLocalizedTemplatesCacheMaxSize() throws Exception {
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(ClassPathTemplateLocator.builder(10).build()).build();
+        final AtomicInteger lookups = new AtomicInteger();
+        final TrimouViewRenderer renderer = new TrimouViewRenderer.Builder().setLocalizedTemplatesCacheMaxSize(1)
+                .build(countLookups(engine, lookups));
+        final View view = new LocalizedView();
+        assertEquals("Salut!", render(renderer, view, Locale.FRANCE).trim());
+        assertEquals(3, lookups.get());
+        assertEquals("Salut!", render(renderer, view, Locale.FRANCE).trim());
+        assertEquals(4, lookups.get());
+        // Exceed the limit with other client locales
+        render(renderer, view, Locale.ITALY);
+        render(renderer, view, Locale.JAPAN);
+        lookups.set(0);
+        // The variants are probed again
+        assertEquals("Salut!", render(renderer, view, Locale.FRANCE).trim());
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testLocalizedTemplateUpdatedAfterInvalidation() throws Exception {
+        final Map<String, String> templates = new HashMap<>();
+        templates.put("/hello.trimou", "Hello!");
+        final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addTemplateLocator(new MapTemplateLocator(templates)).build();
+        final TrimouViewRenderer renderer = new TrimouViewRenderer.Builder().build(engine);
+        final View view = new View("/hello.trimou") {
+        };
+        assertEquals("Hello!", render(renderer, view, Locale.GERMAN));
+        templates.put("/hello_de.trimou", "Hallo!");
+        assertEquals("Hello!", render(renderer, view, Locale.GERMAN));
+        // The new variant is found once the engine cache is invalidated
+        engine.invalidateTemplateCache();
+        assertEquals("Hallo!", render(renderer, view, Locale.GERMAN));
+        Locale austria = new Locale("de", "AT");
+        assertEquals("Hallo!", render(renderer, view, austria));
+        templates.put("/hello_de_AT.trimou", "Servus!");
+        // The matching variant itself was not invalidated
+        engine.invalidateTemplateCache(name -> name.equals("/hello_de_AT.trimou"));
+        assertEquals("Hallo!", render(renderer, view, austria));
+        renderer.clearCache();
+        assertEquals("Servus!", render(renderer, view, austria));
+    }
+
+    private MustacheEngine countLookups(MustacheEngine engine, AtomicInteger lookups) {
+        return (MustacheEngine) Proxy.newProxyInstance(MustacheEngine.class.getClassLoader(),
+                new Class<?>[] { MustacheEngine.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getMustache")) {
+                        lookups.incrementAndGet();
+                    }
+                    return method.invoke(engine, args);
+                });
+    }
+
+    private String render(TrimouViewRenderer renderer, View view, Locale locale) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        renderer.render(view, locale, output);
+        return output.toString("UTF-8");
+    }
+
 }
@@ -15,7 +15,6 @@
  */
 package org.trimou.el;
 
-import java.util.Collections;
 import java.util.Set;
 
 import org.trimou.engine.config.ConfigurationKey;
@@ -37,19 +36,27 @@ import org.trimou.handlebars.Options;
  */
 public class ELEachHelper extends EachHelper {
 
+    private Expressions expressions;
+
     @Override
     protected int processParameter(Object param, Options options, int index, int size, boolean isOmitMeta) {
         if (param instanceof String) {
             // String is expected to be an EL expression
-            return super.processParameter(Expressions.eval(param.toString(), options, configuration), options, index,
+            return super.processParameter(expressions.eval(param.toString(), options), options, index,
                     size, isOmitMeta);
         }
         return super.processParameter(param, options, index, size, isOmitMeta);
     }
 
+    @Override
+    public void init() {
+        super.init();
+        this.expressions = new Expressions(configuration);
+    }
+
     @Override
     public Set<ConfigurationKey> getConfigurationKeys() {
-        return Collections.singleton(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
+        return Expressions.CONFIGURATION_KEYS;
     }
 
 }
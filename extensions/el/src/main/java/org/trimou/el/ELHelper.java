@@ -15,12 +15,10 @@
  */
 package org.trimou.el;
 
-import static org.trimou.el.Expressions.eval;
-
-import java.util.Collections;
 import java.util.Set;
 
 import org.trimou.engine.config.ConfigurationKey;
+import org.trimou.engine.config.SimpleConfigurationKey;
 import org.trimou.engine.interpolation.MissingValueHandler;
 import org.trimou.handlebars.BasicHelper;
 import org.trimou.handlebars.Options;
@@ -50,9 +48,20 @@ public class ELHelper extends BasicHelper {
 
     public static final String DEFAULT_NAME = "el";
 
+    /**
+     * The max size of the cache of parsed EL expressions. Note that each EL
+     * helper instance has its own cache.
+     *
+     * @since 2.5
+     */
+    public static final ConfigurationKey EXPRESSION_CACHE_MAX_SIZE_KEY = new SimpleConfigurationKey(
+            ELHelper.class.getName() + ".expressionCacheMaxSize", 1000L);
+
+    private Expressions expressions;
+
     @Override
     public void execute(Options options) {
-        Object value = eval(options.getParameters().get(0).toString(), options, configuration);
+        Object value = expressions.eval(options.getParameters().get(0).toString(), options);
         if (isSection(options)) {
             if (value != null) {
                 options.push(value);
@@ -70,9 +79,15 @@ public class ELHelper extends BasicHelper {
         }
     }
 
+    @Override
+    protected void init() {
+        super.init();
+        this.expressions = new Expressions(configuration);
+    }
+
     @Override
     public Set<ConfigurationKey> getConfigurationKeys() {
-        return Collections.singleton(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
+        return Expressions.CONFIGURATION_KEYS;
     }
 
 }
@@ -15,9 +15,6 @@
  */
 package org.trimou.el;
 
-import static org.trimou.el.Expressions.eval;
-
-import java.util.Collections;
 import java.util.Set;
 
 import org.trimou.engine.config.ConfigurationKey;
@@ -39,6 +36,8 @@ import org.trimou.handlebars.Options;
  */
 public class ELIfHelper extends IfHelper {
 
+    private Expressions expressions;
+
     public ELIfHelper() {
         super();
     }
@@ -52,16 +51,22 @@ public class ELIfHelper extends IfHelper {
         super(elseStartDelimiter, elseEndDelimiter);
     }
 
+    @Override
+    protected void init() {
+        super.init();
+        this.expressions = new Expressions(configuration);
+    }
+
     @Override
     public Set<ConfigurationKey> getConfigurationKeys() {
-        return Collections.singleton(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
+        return Expressions.CONFIGURATION_KEYS;
     }
 
     @Override
     protected boolean isMatching(Object value, Options options) {
         if (value instanceof String) {
             // String is expected to be an EL expression
-            return super.isMatching(eval(value.toString(), options, configuration));
+            return super.isMatching(expressions.eval(value.toString(), options));
         } else {
             return super.isMatching(value);
         }
@@ -39,7 +39,8 @@ public interface ELProcessorFactory {
             defaultFactory(), ELProcessorFactory::convert);
 
     /**
-     * The returned processor is used to evaluate a single EL expression.
+     * The returned processor may be reused to parse and evaluate multiple EL
+     * expressions. However, it's never used concurrently.
      *
      * @param configuration
      * @return a new EL processor instance
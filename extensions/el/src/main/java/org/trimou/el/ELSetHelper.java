@@ -15,7 +15,6 @@
  */
 package org.trimou.el;
 
-import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -41,13 +40,15 @@ import org.trimou.util.ImmutableMap.ImmutableMapBuilder;
  */
 public class ELSetHelper extends SetHelper {
 
+    private Expressions expressions;
+
     @Override
     protected Map<String, Object> getMap(Options options) {
         ImmutableMapBuilder<String, Object> builder = ImmutableMap.builder();
         for (Entry<String, Object> entry : options.getHash().entrySet()) {
             if (entry.getValue() instanceof String) {
                 // String is expected to be an EL expression
-                builder.put(entry.getKey(), Expressions.eval(entry.getValue().toString(), options, configuration));
+                builder.put(entry.getKey(), expressions.eval(entry.getValue().toString(), options));
             } else {
                 builder.put(entry.getKey(), entry.getValue());
             }
@@ -55,9 +56,15 @@ public class ELSetHelper extends SetHelper {
         return builder.build();
     }
 
+    @Override
+    protected void init() {
+        super.init();
+        this.expressions = new Expressions(configuration);
+    }
+
     @Override
     public Set<ConfigurationKey> getConfigurationKeys() {
-        return Collections.singleton(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
+        return Expressions.CONFIGURATION_KEYS;
     }
 
 }
@@ -16,39 +16,177 @@
 package org.trimou.el;
 
 import java.beans.FeatureDescriptor;
+import java.util.HashMap;
 import java.util.Iterator;
-
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.el.BeanNameELResolver;
+import javax.el.BeanNameResolver;
+import javax.el.CompositeELResolver;
 import javax.el.ELContext;
+import javax.el.ELManager;
 import javax.el.ELProcessor;
 import javax.el.ELResolver;
+import javax.el.ImportHandler;
+import javax.el.StandardELContext;
+import javax.el.ValueExpression;
 
+import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.ConfigurationKey;
 import org.trimou.handlebars.Options;
+import org.trimou.util.ImmutableSet;
 
 /**
+ * Evaluates EL expressions. Parsed expressions are cached and the
+ * {@link ELProcessor} instances created by {@link ELProcessorFactory} are
+ * reused. However, a new {@link EvaluationContext} is created for each
+ * evaluation, i.e. the state of a processor is never modified by an
+ * evaluation.
  *
  * @author Martin Kouba
  */
 class Expressions {
 
-    private Expressions() {
+    static final Set<ConfigurationKey> CONFIGURATION_KEYS = ImmutableSet.of(
+            ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY,
+            ELHelper.EXPRESSION_CACHE_MAX_SIZE_KEY);
+
+    private final Configuration configuration;
+
+    private final ComputingCache<String, ValueExpression> expressions;
+
+    /**
+     * An idle processor is never used by more than one thread at a time
+     */
+    private final Queue<ELProcessor> processors;
+
+    /**
+     *
+     * @param configuration
+     */
+    Expressions(Configuration configuration) {
+        this.configuration = configuration;
+        this.processors = new ConcurrentLinkedQueue<>();
+        this.expressions = configuration.getComputingCacheFactory().create(
+                Expressions.class.getName(), this::parse, null,
+                configuration.getLongPropertyValue(
+                        ELHelper.EXPRESSION_CACHE_MAX_SIZE_KEY),
+                null);
     }
 
     /**
-     * Note that we have to use a separate {@link ELProcessor} for each evaluation
-     * as the {@link OptionsELResolver} may not be reused.
+     * Note that the {@link OptionsELResolver} may not be reused. Therefore, a
+     * lightweight {@link ELContext} delegating to a reused processor is
+     * created for each evaluation.
      *
      * @param expression
      * @param options
-     * @param configuration
      * @return the result of the expression evaluation
      */
-    static Object eval(String expression, Options options, Configuration configuration) {
-        ELProcessorFactory elpFactory = (ELProcessorFactory) configuration
-                .getPropertyValue(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
-        ELProcessor elp = elpFactory.createELProcessor(configuration);
-        elp.getELManager().addELResolver(new OptionsELResolver(options));
-        return elp.eval(expression);
+    Object eval(String expression, Options options) {
+        ValueExpression valueExpression = expressions.get(expression);
+        ELProcessor processor = acquire();
+        try {
+            return valueExpression.getValue(new EvaluationContext(
+                    processor.getELManager().getELContext(), options));
+        } finally {
+            processors.offer(processor);
+        }
+    }
+
+    private ValueExpression parse(String expression) {
+        ELProcessor processor = acquire();
+        try {
+            // See also ELProcessor.getValue()
+            return ELManager.getExpressionFactory().createValueExpression(
+                    processor.getELManager().getELContext(),
+                    "${" + expression + "}", Object.class);
+        } finally {
+            processors.offer(processor);
+        }
+    }
+
+    private ELProcessor acquire() {
+        ELProcessor processor = processors.poll();
+        if (processor == null) {
+            ELProcessorFactory factory = (ELProcessorFactory) configuration
+                    .getPropertyValue(
+                            ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY);
+            processor = factory.createELProcessor(configuration);
+        }
+        return processor;
+    }
+
+    /**
+     * Local beans are not shared, i.e. an assignment (e.g. <code>x = 5</code>)
+     * only defines a bean for the current evaluation. Everything else is
+     * delegated to the context of the processor.
+     * <p>
+     * The local beans are queried first. The {@link OptionsELResolver} is
+     * queried after all the resolvers of the processor, i.e. beans defined on
+     * the processor and resolvers added by {@link ELProcessorFactory} take
+     * precedence.
+     */
+    static class EvaluationContext extends StandardELContext {
+
+        private final ELContext delegate;
+
+        private final CompositeELResolver resolver;
+
+        EvaluationContext(ELContext delegate, Options options) {
+            super(delegate);
+            this.delegate = delegate;
+            this.resolver = new CompositeELResolver();
+            this.resolver.add(new BeanNameELResolver(new LocalBeanNameResolver()));
+            this.resolver.add(delegate.getELResolver());
+            this.resolver.add(new OptionsELResolver(options));
+        }
+
+        @Override
+        public ELResolver getELResolver() {
+            return resolver;
+        }
+
+        @Override
+        public ImportHandler getImportHandler() {
+            return delegate.getImportHandler();
+        }
+
+    }
+
+    static class LocalBeanNameResolver extends BeanNameResolver {
+
+        private final Map<String, Object> beans = new HashMap<>();
+
+        @Override
+        public boolean isNameResolved(String beanName) {
+            return beans.containsKey(beanName);
+        }
+
+        @Override
+        public Object getBean(String beanName) {
+            return beans.get(beanName);
+        }
+
+        @Override
+        public void setBeanValue(String beanName, Object value) {
+            beans.put(beanName, value);
+        }
+
+        @Override
+        public boolean isReadOnly(String beanName) {
+            return false;
+        }
+
+        @Override
+        public boolean canCreateBean(String beanName) {
+            return true;
+        }
+
     }
 
     static class OptionsELResolver extends ELResolver {
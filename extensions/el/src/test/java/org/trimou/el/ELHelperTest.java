@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.beans.FeatureDescriptor;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.el.ELContext;
 import javax.el.ELProcessor;
@@ -65,6 +66,47 @@ public class ELHelperTest extends AbstractTest {
         assertEquals("10", mustache.render(null));
     }
 
+    @Test
+    public void testELProcessorReused() {
+        AtomicInteger created = new AtomicInteger();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY,
+                        (ELProcessorFactory) c -> {
+                            created.incrementAndGet();
+                            ELProcessor elp = new ELProcessor();
+                            elp.defineBean("bar", "BAR");
+                            return elp;
+                        })
+                .build();
+        Mustache mustache = engine.compileMustache("elpreused_01",
+                "{{#each this}}{{el 'bar += this'}}{{/each}}");
+        assertEquals("BAR1BAR2BAR3", mustache.render(new int[] { 1, 2, 3 }));
+        assertEquals("BAR1BAR2BAR3", mustache.render(new int[] { 1, 2, 3 }));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testProcessorBeansTakePrecedence() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .setProperty(ELProcessorFactory.EL_PROCESSOR_FACTORY_KEY,
+                        (ELProcessorFactory) c -> {
+                            ELProcessor elp = new ELProcessor();
+                            elp.defineBean("bar", "BAR");
+                            return elp;
+                        })
+                .build();
+        assertEquals("BAR:FOO", engine.compileMustache("elprecedence_01", "{{el 'bar'}}:{{el 'foo'}}")
+                .render(ImmutableMap.of("foo", "FOO", "bar", "baz")));
+    }
+
+    @Test
+    public void testAssignmentNotShared() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder().build();
+        assertEquals("5", engine.compileMustache("elassignment_01", "{{el 'x = 5'}}").render(null));
+        assertEquals("1", engine.compileMustache("elassignment_02", "{{el 'x'}}").render(ImmutableMap.of("x", 1)));
+        assertEquals("6", engine.compileMustache("elassignment_03", "{{el 'x = 5; x + 1'}}").render(null));
+    }
+
     static class CustomELProcessorFactory implements ELProcessorFactory {
 
         static Object value;
@@ -116,6 +116,12 @@ public class JsonElementResolver extends IndexResolver {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && JsonElement.class.isAssignableFrom(contextObjectType);
+    }
+
     @Override
     public void init() {
         unwrapJsonPrimitive = configuration
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.gson.stream;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.trimou.handlebars.EachHelper;
+import org.trimou.util.Checker;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Reads the elements of a JSON array lazily from a {@link JsonReader}. Only
+ * the current element is materialized as a {@link JsonElement} tree, i.e. the
+ * whole array is never held in memory.
+ * <p>
+ * The iterator is intended to be iterated by {@link EachHelper}, e.g.
+ * <code>{{#each items}}{{name}}{{/each}}</code>. Note that a regular section
+ * (<code>{{#items}}</code>) is not suitable as it needs to know the size of an
+ * {@link Iterable} in advance. The iterator can only be consumed once.
+ * <p>
+ * Use {@link #of(JsonReader)} if the reader is positioned at the beginning of
+ * an array, e.g. the caller may use {@link JsonReader#beginObject()} and
+ * {@link JsonReader#nextName()} to navigate to a nested array first. Use
+ * {@link #ofCurrentArray(JsonReader)} if the beginning of the array was already
+ * consumed, i.e. the reader is positioned inside an array. Once all the
+ * elements are consumed the end of the array is consumed as well. The caller is
+ * responsible for closing the reader.
+ * <p>
+ * An instance is not thread-safe.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+public class JsonArrayIterator implements Iterator<JsonElement> {
+
+    private static final JsonParser PARSER = new JsonParser();
+
+    private final JsonReader reader;
+
+    private boolean finished;
+
+    /**
+     *
+     * @param reader
+     *            The JSON document must be an array
+     * @return a new iterator
+     */
+    public static JsonArrayIterator of(Reader reader) {
+        return of(new JsonReader(reader));
+    }
+
+    /**
+     * The beginning of the array is consumed immediately.
+     *
+     * @param reader
+     *            Must be positioned at the beginning of an array
+     * @return a new iterator
+     * @throws IllegalStateException
+     *             If the next token is not the beginning of an array
+     */
+    public static JsonArrayIterator of(JsonReader reader) {
+        Checker.checkArgumentNotNull(reader);
+        try {
+            reader.beginArray();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return new JsonArrayIterator(reader);
+    }
+
+    /**
+     * Each remaining value of the current array, including a nested array, is
+     * one element.
+     *
+     * @param reader
+     *            Must be positioned inside an array, i.e. the beginning of the
+     *            array was already consumed
+     * @return a new iterator
+     */
+    public static JsonArrayIterator ofCurrentArray(JsonReader reader) {
+        Checker.checkArgumentNotNull(reader);
+        return new JsonArrayIterator(reader);
+    }
+
+    private JsonArrayIterator(JsonReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        try {
+            if (reader.hasNext()) {
+                return true;
+            }
+            reader.endArray();
+            finished = true;
+            return false;
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    @Override
+    public JsonElement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return PARSER.parse(reader);
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.trimou.gson.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.trimou.AbstractTest;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.resolver.MapResolver;
+import org.trimou.gson.converter.GsonValueConverter;
+import org.trimou.gson.resolver.JsonElementResolver;
+import org.trimou.handlebars.HelpersBuilder;
+import org.trimou.util.ImmutableMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class JsonArrayIteratorTest extends AbstractTest {
+
+    @Test
+    public void testElementsReadLazily() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(
+                "[{\"name\":\"foo\"},{\"name\":\"bar\"},\"baz\"]"));
+        JsonArrayIterator iterator = JsonArrayIterator.of(reader);
+        assertTrue(iterator.hasNext());
+        JsonElement first = iterator.next();
+        assertEquals("foo", first.getAsJsonObject().get("name").getAsString());
+        // The second element was not consumed yet
+        assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+        assertEquals("bar", iterator.next().getAsJsonObject().get("name")
+                .getAsString());
+        assertEquals("baz", iterator.next().getAsString());
+        assertFalse(iterator.hasNext());
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testNestedArray() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(
+                "{\"items\":[1,2,3],\"total\":3}"));
+        reader.beginObject();
+        assertEquals("items", reader.nextName());
+        JsonArrayIterator iterator = JsonArrayIterator.of(reader);
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(3, count);
+        assertEquals("total", reader.nextName());
+        assertEquals(3, reader.nextInt());
+    }
+
+    @Test
+    public void testArrayOfArrays() throws IOException {
+        // The reader is positioned at the beginning of the outer array
+        JsonArrayIterator iterator = JsonArrayIterator
+                .of(new StringReader("[[1,2],[3]]"));
+        assertEquals(2, iterator.next().getAsJsonArray().size());
+        assertEquals(1, iterator.next().getAsJsonArray().size());
+        assertFalse(iterator.hasNext());
+
+        // The beginning of the outer array was already consumed
+        JsonReader reader = new JsonReader(new StringReader("[[1,2],[3]]"));
+        reader.beginArray();
+        iterator = JsonArrayIterator.ofCurrentArray(reader);
+        assertEquals(2, iterator.next().getAsJsonArray().size());
+        assertEquals(1, iterator.next().getAsJsonArray().size());
+        assertFalse(iterator.hasNext());
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+
+        // Iterate the first inner array
+        reader = new JsonReader(new StringReader("[[1,2],[3]]"));
+        reader.beginArray();
+        iterator = JsonArrayIterator.of(reader);
+        assertEquals(1, iterator.next().getAsInt());
+        assertEquals(2, iterator.next().getAsInt());
+        assertFalse(iterator.hasNext());
+        assertEquals(JsonToken.BEGIN_ARRAY, reader.peek());
+    }
+
+    @Test
+    public void testEachHelper() {
+        assertEquals("foo:1,bar:2,baz:3,",
+                MustacheEngineBuilder.newBuilder()
+                        .omitServiceLoaderConfigurationExtensions()
+                        .addResolver(new MapResolver())
+                        .addResolver(new JsonElementResolver())
+                        .addValueConverter(new GsonValueConverter())
+                        .registerHelpers(
+                                HelpersBuilder.empty().addEach().build())
+                        .build()
+                        .compileMustache("json_array_iterator_each",
+                                "{{#each items}}{{name}}:{{value}},{{/each}}")
+                        .render(ImmutableMap.of("items",
+                                JsonArrayIterator.of(new StringReader(
+                                        "[{\"name\":\"foo\",\"value\":1},"
+                                                + "{\"name\":\"bar\",\"value\":2},"
+                                                + "{\"name\":\"baz\",\"value\":3}]")))));
+    }
+
+}
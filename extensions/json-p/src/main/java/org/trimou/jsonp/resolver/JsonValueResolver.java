@@ -69,6 +69,8 @@ public class JsonValueResolver extends IndexResolver implements Validateable {
 
     private final Hint hint;
 
+    private final Hint objectHint;
+
     protected volatile boolean isEnabled;
 
     public JsonValueResolver() {
@@ -81,6 +83,14 @@ public class JsonValueResolver extends IndexResolver implements Validateable {
     public JsonValueResolver(int priority) {
         super(priority);
         this.hint = JsonValueResolver.this::resolve;
+        this.objectHint = (contextObject, name, context) -> {
+            if (contextObject instanceof JsonObject) {
+                JsonValue member = ((JsonObject) contextObject).get(name);
+                return member != null ? unwrapJsonValueIfNecessary(member)
+                        : null;
+            }
+            return null;
+        };
     }
 
     @Override
@@ -116,9 +126,25 @@ public class JsonValueResolver extends IndexResolver implements Validateable {
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        return contextObjectType != null
+                && JsonValue.class.isAssignableFrom(contextObjectType);
+    }
+
     @Override
     public Hint createHint(Object contextObject, String name,
             ResolutionContext context) {
+        if (contextObject instanceof JsonObject) {
+            return objectHint;
+        }
+        if (contextObject instanceof JsonArray && isAnIndex(name)) {
+            Integer index = getIndexValue(name, context.getKey(),
+                    ((JsonArray) contextObject).size());
+            if (index != null) {
+                return new ArrayElementHint(index);
+            }
+        }
         return hint;
     }
 
@@ -132,7 +158,7 @@ public class JsonValueResolver extends IndexResolver implements Validateable {
         return Collections.singleton(ENABLED_KEY);
     }
 
-    private Object unwrapJsonValueIfNecessary(JsonValue jsonValue) {
+    static Object unwrapJsonValueIfNecessary(JsonValue jsonValue) {
         switch (jsonValue.getValueType()) {
         case STRING:
             return ((JsonString) jsonValue).getString();
@@ -150,4 +176,30 @@ public class JsonValueResolver extends IndexResolver implements Validateable {
 
     }
 
+    /**
+     * The index is parsed only once. The size of the array is checked for
+     * every resolution.
+     */
+    private static class ArrayElementHint implements Hint {
+
+        private final int index;
+
+        ArrayElementHint(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object resolve(Object contextObject, String name,
+                ResolutionContext context) {
+            if (contextObject instanceof JsonArray) {
+                JsonArray jsonArray = (JsonArray) contextObject;
+                if (index < jsonArray.size()) {
+                    return unwrapJsonValueIfNecessary(jsonArray.get(index));
+                }
+            }
+            return null;
+        }
+
+    }
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.jsonp.resolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.trimou.engine.resolver.ListIndexResolver;
+import org.trimou.engine.resolver.MapResolver;
+import org.trimou.util.Checker;
+
+/**
+ * Creates an unwrapped view of a JSON document. This is useful if the same
+ * document is rendered many times, e.g. a cached API response. The document
+ * is traversed only once: every {@link JsonObject} is copied into an
+ * unmodifiable {@link Map}, every {@link JsonArray} into an unmodifiable
+ * random access {@link List} and all the primitive values are unwrapped the
+ * same way {@link JsonValueResolver} unwraps them. The view is then resolved
+ * by {@link MapResolver} and {@link ListIndexResolver} and no unwrapping is
+ * performed during rendering.
+ * <p>
+ * Note that the special {@link JsonValueResolver#NAME_UNWRAP_THIS} keyword is
+ * not needed for the view.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ */
+public final class UnwrappedJson {
+
+    private UnwrappedJson() {
+    }
+
+    /**
+     *
+     * @param jsonValue
+     * @return the unwrapped view of the given value
+     */
+    public static Object of(JsonValue jsonValue) {
+        Checker.checkArgumentNotNull(jsonValue);
+        switch (jsonValue.getValueType()) {
+        case OBJECT:
+            JsonObject jsonObject = (JsonObject) jsonValue;
+            Map<String, Object> map = new LinkedHashMap<>(
+                    (int) (jsonObject.size() / 0.75f) + 1);
+            for (Entry<String, JsonValue> entry : jsonObject.entrySet()) {
+                map.put(entry.getKey(), of(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(map);
+        case ARRAY:
+            JsonArray jsonArray = (JsonArray) jsonValue;
+            List<Object> list = new ArrayList<>(jsonArray.size());
+            for (JsonValue element : jsonArray) {
+                list.add(of(element));
+            }
+            return Collections.unmodifiableList(list);
+        default:
+            return JsonValueResolver.unwrapJsonValueIfNecessary(jsonValue);
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
 import org.trimou.engine.interpolation.ThrowingExceptionMissingValueHandler;
 import org.trimou.engine.resolver.DummyResolutionContext;
+import org.trimou.engine.resolver.EnhancedResolver.Hint;
 import org.trimou.engine.resolver.MapResolver;
 import org.trimou.engine.resolver.Placeholder;
 import org.trimou.engine.resolver.ResolutionContext;
@@ -131,6 +132,46 @@ public class JsonValueResolverTest extends AbstractTest {
                         .render(loadJsonData("data_array_with_null.json")));
     }
 
+    @Test
+    public void testHints() {
+        JsonValueResolver resolver = new JsonValueResolver();
+        ResolutionContext ctx = new DummyResolutionContext();
+        MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .addResolver(resolver)
+                .setProperty(JsonValueResolver.ENABLED_KEY, true).build();
+        JsonObject jsonObject = Json.createObjectBuilder().add("foo", "bar")
+                .build();
+        Hint objectHint = resolver.createHint(jsonObject, "foo", ctx);
+        assertEquals("bar", objectHint.resolve(jsonObject, "foo", ctx));
+        assertEquals("baz", objectHint.resolve(
+                Json.createObjectBuilder().add("foo", "baz").build(), "foo",
+                ctx));
+        assertNull(objectHint.resolve(Json.createObjectBuilder().build(),
+                "foo", ctx));
+        assertNull(objectHint.resolve("foo", "foo", ctx));
+        JsonArray jsonArray = Json.createArrayBuilder().add(1).add(2).build();
+        Hint arrayHint = resolver.createHint(jsonArray, "1", ctx);
+        assertEquals(new BigDecimal(2), arrayHint.resolve(jsonArray, "1", ctx));
+        assertNull(arrayHint.resolve(Json.createArrayBuilder().add(1).build(),
+                "1", ctx));
+        assertNull(arrayHint.resolve(jsonObject, "1", ctx));
+    }
+
+    @Test
+    public void testUnwrappedJson() throws FileNotFoundException {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder().build();
+        Object data = UnwrappedJson.of(loadJsonData());
+        assertEquals("Novy|Nova|home,mobile|home|Jim,true,5",
+                engine.compileMustache("unwrapped_json",
+                        "{{lastName}}|{{address.street}}|{{#phoneNumbers}}{{type}}{{#iterHasNext}},{{/iterHasNext}}{{/phoneNumbers}}|{{phoneNumbers.0.type}}|{{#aliases}}{{this}}{{#iterHasNext}},{{/iterHasNext}}{{/aliases}}")
+                        .render(data));
+        assertEquals("Jimtrue",
+                engine.compileMustache("unwrapped_json_null",
+                        "{{#this}}{{this}}{{/this}}").render(UnwrappedJson
+                                .of(loadJsonData("data_array_with_null.json"))));
+    }
+
     private MustacheEngine getEngine() {
         return MustacheEngineBuilder.newBuilder()
                 .omitServiceLoaderConfigurationExtensions()
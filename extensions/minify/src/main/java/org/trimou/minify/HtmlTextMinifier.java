@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.minify;
+
+import org.trimou.engine.text.TextProcessor;
+
+/**
+ * A lightweight HTML minifier which operates on the static text of a parsed
+ * template, i.e. the tags are never affected. HTML comments are removed
+ * (except for conditional comments) and whitespace sequences are collapsed
+ * into a single space. The content of <code>pre</code>, <code>textarea</code>,
+ * <code>script</code> and <code>style</code> elements is preserved.
+ * <p>
+ * A comment is only removed if it does not contain any tag. An instance is
+ * stateful and must only be used for a single template.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ * @see TextSegmentMinifyListener
+ */
+public class HtmlTextMinifier implements TextProcessor {
+
+    private static final String[] PRESERVED_ELEMENTS = { "pre", "textarea",
+            "script", "style" };
+
+    private static final String COMMENT_START = "<!--";
+
+    private static final String COMMENT_END = "-->";
+
+    // The end tag of the current preserved element, e.g. "</pre"
+    private String preservedEndTag;
+
+    @Override
+    public String process(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean lastSpace = false;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (preservedEndTag != null) {
+                int end = indexOfIgnoreCase(text, preservedEndTag, i);
+                if (end == -1) {
+                    builder.append(text, i, length);
+                    break;
+                }
+                builder.append(text, i, end);
+                preservedEndTag = null;
+                i = end;
+                lastSpace = false;
+            }
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!lastSpace) {
+                    builder.append(' ');
+                    lastSpace = true;
+                }
+                i++;
+            } else if (c == '<') {
+                if (text.startsWith(COMMENT_START, i)
+                        && !text.startsWith("[", i + COMMENT_START.length())) {
+                    int end = text.indexOf(COMMENT_END,
+                            i + COMMENT_START.length());
+                    if (end != -1) {
+                        // Remove the comment
+                        i = end + COMMENT_END.length();
+                        continue;
+                    }
+                    // The comment contains a tag - keep the rest of the text
+                    builder.append(text, i, length);
+                    break;
+                }
+                String element = getPreservedElement(text, i + 1);
+                if (element != null) {
+                    preservedEndTag = "</" + element;
+                    builder.append(text, i, i + 1 + element.length());
+                    i += 1 + element.length();
+                } else {
+                    builder.append(c);
+                    i++;
+                }
+                lastSpace = false;
+            } else {
+                builder.append(c);
+                lastSpace = false;
+                i++;
+            }
+        }
+        return builder.toString();
+    }
+
+    private String getPreservedElement(String text, int start) {
+        for (String element : PRESERVED_ELEMENTS) {
+            int end = start + element.length();
+            if (text.regionMatches(true, start, element, 0, element.length())
+                    && (end == text.length() || text.charAt(end) == '>'
+                            || text.charAt(end) == '/'
+                            || Character.isWhitespace(text.charAt(end)))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static int indexOfIgnoreCase(String text, String str, int from) {
+        for (int i = from; i <= text.length() - str.length(); i++) {
+            if (text.regionMatches(true, i, str, 0, str.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -15,6 +15,8 @@
  */
 package org.trimou.minify;
 
+import java.util.function.Predicate;
+
 import org.trimou.engine.MustacheEngineBuilder.EngineBuiltCallback;
 
 /**
@@ -35,6 +37,32 @@ public final class Minify {
         return new MinifyListener(new HtmlCompressorMinifier());
     }
 
+    /**
+     * The static text of the template is minified once the template is
+     * parsed, i.e. the template contents are not copied.
+     *
+     * @return the listener for the default HTML text minifier
+     * @see HtmlTextMinifier
+     * @since 2.5
+     */
+    public static TextSegmentMinifyListener htmlTextListener() {
+        return htmlTextListener(mustacheName -> true);
+    }
+
+    /**
+     *
+     * @param matchingPredicate
+     *            Tests the template name
+     * @return the listener for the default HTML text minifier
+     * @see HtmlTextMinifier
+     * @since 2.5
+     */
+    public static TextSegmentMinifyListener htmlTextListener(
+            Predicate<String> matchingPredicate) {
+        return new TextSegmentMinifyListener(HtmlTextMinifier::new,
+                matchingPredicate);
+    }
+
     /**
      * This lambda needs to inspect the configuration to work properly, the
      * lambda instance must be registered as an {@link EngineBuiltCallback}.
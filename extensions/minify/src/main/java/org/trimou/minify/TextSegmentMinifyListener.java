@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Martin Kouba
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trimou.minify;
+
+import static org.trimou.util.Checker.checkArgumentsNotNull;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trimou.engine.listener.AbstractMustacheListener;
+import org.trimou.engine.listener.MustacheCompilationEvent;
+import org.trimou.engine.listener.MustacheParsingEvent;
+import org.trimou.engine.text.TextProcessor;
+
+/**
+ * Minifies the static text of a template once the template is parsed. Unlike
+ * {@link MinifyListener} the template contents are not copied and the tags
+ * are never affected. The number of characters saved is available in
+ * {@link MustacheCompilationEvent#getTextLengthSaved()}.
+ *
+ * @author Martin Kouba
+ * @since 2.5
+ * @see HtmlTextMinifier
+ */
+public class TextSegmentMinifyListener extends AbstractMustacheListener {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(TextSegmentMinifyListener.class);
+
+    private final Supplier<TextProcessor> minifierSupplier;
+
+    private final Predicate<String> matchingPredicate;
+
+    /**
+     *
+     * @param minifierSupplier
+     *            A new minifier is used for each template
+     * @param matchingPredicate
+     *            Tests the template name
+     */
+    TextSegmentMinifyListener(Supplier<TextProcessor> minifierSupplier,
+            Predicate<String> matchingPredicate) {
+        checkArgumentsNotNull(minifierSupplier, matchingPredicate);
+        this.minifierSupplier = minifierSupplier;
+        this.matchingPredicate = matchingPredicate;
+    }
+
+    @Override
+    public void parsingStarted(MustacheParsingEvent event) {
+        if (matchingPredicate.test(event.getMustacheName())) {
+            event.addTextProcessor(minifierSupplier.get());
+        }
+    }
+
+    @Override
+    public void compilationFinished(MustacheCompilationEvent event) {
+        LOGGER.debug("Text minified [template: {}, saving: {} characters]",
+                event.getMustache().getName(), event.getTextLengthSaved());
+    }
+
+}
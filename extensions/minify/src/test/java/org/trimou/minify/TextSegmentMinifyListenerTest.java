@@ -0,0 +1,67 @@
+package org.trimou.minify;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.listener.AbstractMustacheListener;
+import org.trimou.engine.listener.MustacheCompilationEvent;
+import org.trimou.util.ImmutableMap;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class TextSegmentMinifyListenerTest {
+
+    @Test
+    public void testHtmlTextListener() {
+        AtomicLong saved = new AtomicLong();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addMustacheListener(Minify.htmlTextListener())
+                .addMustacheListener(new AbstractMustacheListener() {
+                    @Override
+                    public void compilationFinished(
+                            MustacheCompilationEvent event) {
+                        saved.set(event.getTextLengthSaved());
+                    }
+                }).build();
+        String template = "<html><body>   <!-- My comment -->  <p>{{foo}}</p>  </body>\n  </html>";
+        assertEquals("<html><body> <p>FOO</p> </body> </html>",
+                engine.compileMustache("minify_html_text", template)
+                        .render(ImmutableMap.<String, Object> of("foo",
+                                "FOO")));
+        assertEquals(template.length() - "{{foo}}".length()
+                - "<html><body> <p></p> </body> </html>".length(),
+                saved.get());
+    }
+
+    @Test
+    public void testPreservedElementsAndComments() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addMustacheListener(Minify.htmlTextListener()).build();
+        assertEquals(
+                "<div> <PRE class=\"x\">\n  FOO\n    bar </PRE> <!--[if IE]> <p>IE</p> <![endif]--> <!-- FOO --> </div>",
+                engine.compileMustache("minify_html_text_preserved",
+                        "<div>\n  <PRE class=\"x\">\n  {{foo}}\n    bar </PRE>   <!--[if IE]>  <p>IE</p>  <![endif]--> <!-- {{foo}} --> </div>")
+                        .render(ImmutableMap.<String, Object> of("foo",
+                                "FOO")));
+    }
+
+    @Test
+    public void testMatchingPredicate() {
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .addMustacheListener(Minify.htmlTextListener(
+                        mustacheName -> mustacheName.endsWith(".html")))
+                .build();
+        assertEquals("<p> </p>",
+                engine.compileMustache("foo.html", "<p>   </p>")
+                        .render(null));
+        assertEquals("<p>   </p>",
+                engine.compileMustache("foo.txt", "<p>   </p>").render(null));
+    }
+
+}
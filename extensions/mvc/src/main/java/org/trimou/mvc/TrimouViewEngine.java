@@ -16,6 +16,8 @@
 package org.trimou.mvc;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 
 import javax.enterprise.context.Dependent;
@@ -24,16 +26,38 @@ import javax.mvc.Models;
 import javax.mvc.engine.ViewEngine;
 import javax.mvc.engine.ViewEngineContext;
 import javax.mvc.engine.ViewEngineException;
+import javax.servlet.http.HttpServletResponse;
 
 import org.trimou.engine.MustacheEngine;
+import org.trimou.util.FlushingWriter;
 
 /**
+ * By default, the view is rendered using {@link HttpServletResponse#getWriter()}.
+ * <p>
+ * If {@link #STREAMING_ENABLED_KEY} is set to <code>true</code> in the
+ * application configuration, the view is rendered directly into the servlet
+ * output stream and the output is flushed periodically so that the client
+ * receives the content gradually. Unlike the {@link java.io.PrintWriter} the
+ * output stream does not swallow the {@link IOException} thrown if the client
+ * disconnects, i.e. the rendering is aborted early. The rendering is also
+ * aborted if the rendering thread is interrupted (e.g. an asynchronous task is
+ * cancelled). Note that the response is committed by the first flush and so a
+ * rendering error cannot result in an error page. Long-running views should be
+ * returned from asynchronous controller methods (i.e. using
+ * {@link javax.ws.rs.container.AsyncResponse}) so that the request thread is
+ * not blocked during rendering.
  *
  * @author Martin Kouba
+ * @see FlushingWriter
  */
 @Dependent
 public class TrimouViewEngine implements ViewEngine {
 
+    /**
+     * @since 2.5
+     */
+    public static final String STREAMING_ENABLED_KEY = "org.trimou.mvc.streamingEnabled";
+
     @Inject
     @ViewEngineConfig
     private MustacheEngine engine;
@@ -42,6 +66,14 @@ public class TrimouViewEngine implements ViewEngine {
     @ViewEngineConfig
     private String suffix;
 
+    public TrimouViewEngine() {
+    }
+
+    TrimouViewEngine(MustacheEngine engine, String suffix) {
+        this.engine = engine;
+        this.suffix = suffix;
+    }
+
     @Override
     public boolean supports(String view) {
         return view.endsWith(suffix);
@@ -54,7 +86,12 @@ public class TrimouViewEngine implements ViewEngine {
             Models models = context.getModels();
             models.put("request", context.getRequest());
             models.put("locale", context.getRequest().getLocale());
-            Writer writer = context.getResponse().getWriter();
+            Writer writer = isStreamingEnabled(context)
+                    ? getStreamingWriter(context.getResponse())
+                    : null;
+            if (writer == null) {
+                writer = context.getResponse().getWriter();
+            }
             engine.getMustache(context.getView()).render(writer, models);
             writer.flush();
         } catch (IOException e) {
@@ -62,4 +99,27 @@ public class TrimouViewEngine implements ViewEngine {
         }
     }
 
+    private boolean isStreamingEnabled(ViewEngineContext context) {
+        return Boolean.parseBoolean(DefaultTrimouConfiguration
+                .getProperty(context.getConfiguration(),
+                        STREAMING_ENABLED_KEY, Boolean.FALSE)
+                .toString());
+    }
+
+    private Writer getStreamingWriter(HttpServletResponse response)
+            throws IOException {
+        OutputStream output;
+        try {
+            output = response.getOutputStream();
+        } catch (IllegalStateException e) {
+            // getWriter() was already called
+            return null;
+        }
+        return new FlushingWriter(
+                new OutputStreamWriter(output,
+                        response.getCharacterEncoding()),
+                FlushingWriter.DEFAULT_FLUSH_THRESHOLD,
+                Thread.currentThread()::isInterrupted);
+    }
+
 }
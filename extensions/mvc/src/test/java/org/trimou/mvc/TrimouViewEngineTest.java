@@ -0,0 +1,149 @@
+package org.trimou.mvc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.mvc.Models;
+import javax.mvc.engine.ViewEngineContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.Configuration;
+
+import org.junit.Test;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.locator.MapTemplateLocator;
+import org.trimou.util.ImmutableMap;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+public class TrimouViewEngineTest {
+
+    private final MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+            .addTemplateLocator(new MapTemplateLocator(ImmutableMap
+                    .of("hello.trimou", "Hello {{name}} ({{locale}})!")))
+            .build();
+
+    @Test
+    public void testWriter() throws Exception {
+        StringWriter writer = new StringWriter();
+        new TrimouViewEngine(engine, ".trimou")
+                .processView(newContext(null, writer, null));
+        assertEquals("Hello Martin (en)!", writer.toString());
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TrimouViewEngine(engine, ".trimou")
+                .processView(newContext(true, null, new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        output.write(b);
+                    }
+                }));
+        assertEquals("Hello Martin (en)!", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void testStreamingWriterAlreadyUsed() throws Exception {
+        StringWriter writer = new StringWriter();
+        // getOutputStream() throws IllegalStateException
+        new TrimouViewEngine(engine, ".trimou")
+                .processView(newContext(true, writer, null));
+        assertEquals("Hello Martin (en)!", writer.toString());
+    }
+
+    private ViewEngineContext newContext(Boolean streamingEnabled,
+            StringWriter writer, ServletOutputStream output) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Martin");
+        Models models = newProxy(Models.class, (method, args) -> {
+            if (method.getName().equals("iterator")) {
+                return data.keySet().iterator();
+            }
+            return method.invoke(data, args);
+        });
+        HttpServletRequest request = newProxy(HttpServletRequest.class,
+                (method, args) -> {
+                    if (method.getName().equals("getLocale")) {
+                        return Locale.ENGLISH;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        HttpServletResponse response = newProxy(HttpServletResponse.class,
+                (method, args) -> {
+                    switch (method.getName()) {
+                    case "getWriter":
+                        return new PrintWriter(writer);
+                    case "getOutputStream":
+                        if (output == null) {
+                            throw new IllegalStateException();
+                        }
+                        return output;
+                    case "getCharacterEncoding":
+                        return "UTF-8";
+                    default:
+                        throw new UnsupportedOperationException(
+                                method.getName());
+                    }
+                });
+        Configuration configuration = newProxy(Configuration.class,
+                (method, args) -> {
+                    if (method.getName().equals("getProperty")) {
+                        return TrimouViewEngine.STREAMING_ENABLED_KEY
+                                .equals(args[0]) ? streamingEnabled : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return newProxy(ViewEngineContext.class, (method, args) -> {
+            switch (method.getName()) {
+            case "getView":
+                return "hello.trimou";
+            case "getModels":
+                return models;
+            case "getRequest":
+                return request;
+            case "getResponse":
+                return response;
+            case "getConfiguration":
+                return configuration;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T newProxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { type }, (proxy, method, args) -> {
+                    try {
+                        return handler.handle(method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    interface Handler {
+
+        Object handle(Method method, Object[] args) throws Exception;
+
+    }
+
+}
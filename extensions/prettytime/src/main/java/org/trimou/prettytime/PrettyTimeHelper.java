@@ -17,12 +17,17 @@ package org.trimou.prettytime;
 
 import static org.trimou.util.Checker.checkArgumentsNotNull;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.ocpsoft.prettytime.PrettyTime;
 import org.trimou.engine.cache.ComputingCache;
 import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.ConfigurationKey;
+import org.trimou.engine.config.SimpleConfigurationKey;
 import org.trimou.engine.convert.Converter;
 import org.trimou.engine.convert.ObjectToDateConverter;
 import org.trimou.exception.MustacheException;
@@ -58,6 +63,23 @@ import org.trimou.prettytime.resolver.PrettyTimeResolver;
  * {{pretty now locale='fr'}}
  * </code>
  *
+ * <p>
+ * Since 2.5 the formatted values are cached per locale and a coarse time
+ * bucket, i.e. a relative time is only formatted once per bucket. The bucket
+ * is derived from the difference between the value and the reference time of
+ * the {@link PrettyTime} instance (or the current time), a half of the time
+ * unit used to format the difference (30 seconds if less than one hour, 30
+ * minutes if less than one day and 12 hours otherwise). A bucket is always
+ * formatted for its middle point so that the text does not depend on the first
+ * formatted value. Differences of seven days and more are not cached but
+ * formatted directly, so that the number of buckets is bounded (less than 400
+ * per locale). The buckets assume the default time units, therefore the cache
+ * is only enabled by default if {@link DefaultPrettyTimeFactory} is used. By
+ * default, the max size of the cache is {@link #FORMAT_CACHE_SIZE_PER_LOCALE}
+ * multiplied by the value of {@link #LOCALES_CACHE_MAX_SIZE_KEY}. See also
+ * {@link Builder#setFormatCacheMaxSize(long)}.
+ * </p>
+ *
  * @author Martin Kouba
  */
 public class PrettyTimeHelper extends LocaleAwareValueHelper {
@@ -65,17 +87,56 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
     public static final String COMPUTING_CACHE_CONSUMER_ID = PrettyTimeHelper.class
             .getName();
 
+    public static final String FORMAT_CACHE_CONSUMER_ID = COMPUTING_CACHE_CONSUMER_ID
+            + ".format";
+
     public static final String DEFAULT_NAME = "pretty";
 
+    /**
+     * Limit the number of locales for which {@link PrettyTime} instances are
+     * cached. By default, the max size of the cache of formatted values is
+     * also derived from this value.
+     *
+     * @since 2.5
+     */
+    public static final ConfigurationKey LOCALES_CACHE_MAX_SIZE_KEY = new SimpleConfigurationKey(
+            PrettyTimeHelper.class.getName() + ".localesCacheMaxSize", 50L);
+
+    /**
+     * The max number of cached formatted values per locale
+     *
+     * @since 2.5
+     */
+    public static final long FORMAT_CACHE_SIZE_PER_LOCALE = 400L;
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Larger differences are not cached
+     */
+    private static final long FORMAT_CACHE_HORIZON = TimeUnit.DAYS.toMillis(7);
+
     private final PrettyTimeFactory factory;
 
     private final Converter<Object, Date> converter;
 
+    /**
+     * Derived from the number of locales if null
+     */
+    private final Long formatCacheMaxSize;
+
     /**
      * Lazy loading cache of PrettyTime instances
      */
     private ComputingCache<Locale, PrettyTime> prettyTimeCache;
 
+    /**
+     * Formatted values, null if disabled
+     */
+    private ComputingCache<FormatKey, String> formatCache;
+
     public PrettyTimeHelper() {
         this(new DefaultPrettyTimeFactory());
     }
@@ -98,13 +159,48 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
         checkArgumentsNotNull(factory, converter);
         this.factory = factory;
         this.converter = converter;
+        this.formatCacheMaxSize = factory instanceof DefaultPrettyTimeFactory
+                ? null
+                : 0L;
+    }
+
+    /**
+     *
+     * @param factory
+     * @param converter
+     * @param formatCacheMaxSize
+     *            The max size of the cache of formatted values, the cache is
+     *            disabled if set to zero
+     * @since 2.5
+     */
+    public PrettyTimeHelper(PrettyTimeFactory factory,
+            Converter<Object, Date> converter, long formatCacheMaxSize) {
+        checkArgumentsNotNull(factory, converter);
+        this.factory = factory;
+        this.converter = converter;
+        this.formatCacheMaxSize = formatCacheMaxSize;
     }
 
     @Override
     public void init(Configuration configuration) {
         super.init(configuration);
-        prettyTimeCache = configuration.getComputingCacheFactory()
-                .create(COMPUTING_CACHE_CONSUMER_ID, factory::createPrettyTime, null, 10L, null);
+        long localesMaxSize = configuration
+                .getLongPropertyValue(LOCALES_CACHE_MAX_SIZE_KEY);
+        prettyTimeCache = configuration.getComputingCacheFactory().create(
+                COMPUTING_CACHE_CONSUMER_ID, factory::createPrettyTime, null,
+                localesMaxSize, null);
+        long formatMaxSize = formatCacheMaxSize != null ? formatCacheMaxSize
+                : localesMaxSize * FORMAT_CACHE_SIZE_PER_LOCALE;
+        if (formatMaxSize > 0) {
+            formatCache = configuration.getComputingCacheFactory().create(
+                    FORMAT_CACHE_CONSUMER_ID, this::format, null,
+                    formatMaxSize, null);
+        }
+    }
+
+    @Override
+    public Set<ConfigurationKey> getConfigurationKeys() {
+        return Collections.singleton(LOCALES_CACHE_MAX_SIZE_KEY);
     }
 
     @Override
@@ -125,7 +221,46 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
                     options.getTagInfo().getTemplateName(),
                     options.getTagInfo().getLine(), param);
         }
-        append(options, prettyTimeCache.get(getLocale(options)).format(value));
+        Locale locale = getLocale(options);
+        if (formatCache != null) {
+            long difference = value.getTime() - getReference(locale);
+            if (Math.abs(difference) < FORMAT_CACHE_HORIZON) {
+                append(options, formatCache
+                        .get(new FormatKey(locale, getBucket(difference))));
+                return;
+            }
+        }
+        append(options, prettyTimeCache.get(locale).format(value));
+    }
+
+    private String format(FormatKey key) {
+        return prettyTimeCache.get(key.locale)
+                .format(new Date(getReference(key.locale) + key.bucket));
+    }
+
+    private long getReference(Locale locale) {
+        Date reference = prettyTimeCache.get(locale).getReference();
+        return reference != null ? reference.getTime()
+                : System.currentTimeMillis();
+    }
+
+    /**
+     *
+     * @param difference
+     * @return the middle point of the bucket the difference belongs to
+     */
+    static long getBucket(long difference) {
+        long abs = Math.abs(difference);
+        long size;
+        if (abs < HOUR) {
+            size = TimeUnit.SECONDS.toMillis(30);
+        } else if (abs < DAY) {
+            size = TimeUnit.MINUTES.toMillis(30);
+        } else {
+            size = TimeUnit.HOURS.toMillis(12);
+        }
+        return (difference / size) * size
+                + (difference < 0 ? -size / 2 : size / 2);
     }
 
     /**
@@ -147,6 +282,8 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
 
         private Converter<Object, Date> converter;
 
+        private Long formatCacheMaxSize;
+
         /**
          *
          * @param factory
@@ -170,6 +307,21 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
             return this;
         }
 
+        /**
+         * The cache of formatted values is disabled if set to zero. By default,
+         * the cache is only enabled if no custom factory is set and the max
+         * size is derived from the number of cached locales.
+         *
+         * @param formatCacheMaxSize
+         * @return self
+         * @see PrettyTimeHelper#FORMAT_CACHE_SIZE_PER_LOCALE
+         * @see PrettyTimeHelper#LOCALES_CACHE_MAX_SIZE_KEY
+         */
+        public Builder setFormatCacheMaxSize(long formatCacheMaxSize) {
+            this.formatCacheMaxSize = formatCacheMaxSize;
+            return this;
+        }
+
         public PrettyTimeHelper build() {
             if (factory == null) {
                 factory = new DefaultPrettyTimeFactory();
@@ -177,7 +329,41 @@ public class PrettyTimeHelper extends LocaleAwareValueHelper {
             if (converter == null) {
                 converter = new ObjectToDateConverter();
             }
-            return new PrettyTimeHelper(factory, converter);
+            if (formatCacheMaxSize == null) {
+                return new PrettyTimeHelper(factory, converter);
+            }
+            return new PrettyTimeHelper(factory, converter,
+                    formatCacheMaxSize);
+        }
+
+    }
+
+    private static final class FormatKey {
+
+        private final Locale locale;
+
+        private final long bucket;
+
+        private FormatKey(Locale locale, long bucket) {
+            this.locale = locale;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * locale.hashCode() + Long.hashCode(bucket);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey) obj;
+            return bucket == other.bucket && locale.equals(other.locale);
         }
 
     }
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertEquals;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.ocpsoft.prettytime.PrettyTime;
@@ -12,10 +14,12 @@ import org.ocpsoft.prettytime.TimeFormat;
 import org.ocpsoft.prettytime.i18n.Resources_cs;
 import org.ocpsoft.prettytime.i18n.Resources_en;
 import org.ocpsoft.prettytime.units.JustNow;
+import org.trimou.Mustache;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
 import org.trimou.engine.locale.FixedLocaleSupport;
 import org.trimou.engine.resolver.ThisResolver;
+import org.trimou.util.ImmutableList;
 
 /**
  *
@@ -115,4 +119,101 @@ public class PrettyTimeHelperTest {
                 engine.compileMustache("pretty_conv", "{{pretty this}}")
                         .render(Calendar.getInstance()));
     }
+
+    @Test
+    public void testFormatCache() {
+
+        AtomicInteger formatted = new AtomicInteger();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .setLocaleSupport(FixedLocaleSupport.from(Locale.ENGLISH))
+                .addResolver(new ThisResolver())
+                .registerHelper("pretty", PrettyTimeHelper.builder()
+                        .setFactory(locale -> new PrettyTime(locale) {
+                            @Override
+                            public String format(Date then) {
+                                formatted.incrementAndGet();
+                                return super.format(then);
+                            }
+                        }).setFormatCacheMaxSize(100).build())
+                .build();
+
+        long now = System.currentTimeMillis();
+        assertEquals("3 minutes ago|3 minutes ago|10 minutes ago|",
+                engine.compileMustache("pretty_format_cache",
+                        "{{#this}}{{pretty this}}|{{/this}}")
+                        .render(ImmutableList.of(
+                                now - TimeUnit.SECONDS.toMillis(190),
+                                now - TimeUnit.SECONDS.toMillis(192),
+                                now - TimeUnit.MINUTES.toMillis(10))));
+        assertEquals(2, formatted.get());
+
+        // Not cached beyond seven days
+        formatted.set(0);
+        assertEquals("1 month ago|1 month ago|",
+                engine.compileMustache("pretty_format_cache_horizon",
+                        "{{#this}}{{pretty this}}|{{/this}}")
+                        .render(ImmutableList.of(
+                                now - TimeUnit.DAYS.toMillis(30),
+                                now - TimeUnit.DAYS.toMillis(30) - 1000L)));
+        assertEquals(2, formatted.get());
+    }
+
+    @Test
+    public void testCacheSizePerLocale() {
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger formatted = new AtomicInteger();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .setLocaleSupport(FixedLocaleSupport.from(Locale.ENGLISH))
+                .addResolver(new ThisResolver())
+                .registerHelper("pretty",
+                        new PrettyTimeHelper(new DefaultPrettyTimeFactory() {
+                            @Override
+                            public PrettyTime createPrettyTime(Locale locale) {
+                                created.incrementAndGet();
+                                return new PrettyTime(locale) {
+                                    @Override
+                                    public String format(Date then) {
+                                        formatted.incrementAndGet();
+                                        return super.format(then);
+                                    }
+                                };
+                            }
+                        }))
+                .build();
+
+        String[] locales = { "en", "de", "fr", "es", "it", "pt", "nl", "cs",
+                "sk", "pl", "ru", "ja" };
+        long then = System.currentTimeMillis()
+                - TimeUnit.MINUTES.toMillis(10);
+        Mustache first = null;
+        for (String locale : locales) {
+            Mustache mustache = engine.compileMustache(
+                    "pretty_cache_size_" + locale,
+                    "{{pretty this locale='" + locale + "'}}");
+            mustache.render(then);
+            if (first == null) {
+                first = mustache;
+            }
+        }
+        assertEquals(locales.length, created.get());
+        assertEquals(locales.length, formatted.get());
+        // Neither the instance nor the formatted value is lost
+        first.render(then);
+        assertEquals(locales.length, created.get());
+        assertEquals(locales.length, formatted.get());
+    }
+
+    @Test
+    public void testBucket() {
+        assertEquals(-15000L, PrettyTimeHelper.getBucket(-1000L));
+        assertEquals(15000L, PrettyTimeHelper.getBucket(1000L));
+        assertEquals(-195000L, PrettyTimeHelper.getBucket(-190000L));
+        assertEquals(-TimeUnit.MINUTES.toMillis(75), PrettyTimeHelper
+                .getBucket(-TimeUnit.MINUTES.toMillis(70)));
+        assertEquals(TimeUnit.HOURS.toMillis(42),
+                PrettyTimeHelper.getBucket(TimeUnit.HOURS.toMillis(40)));
+    }
 }
@@ -21,7 +21,10 @@ import javax.servlet.http.HttpServletRequest;
  * Simple {@link ThreadLocal} based request holder.
  *
  * This holder might not be working correctly in case of the request is not
- * processed in one thread only (e.g. async servlets processing).
+ * processed in one thread only (e.g. async servlets processing). Components
+ * invoked during rendering should rather obtain the request when the rendering
+ * starts and store it in the
+ * {@link org.trimou.engine.context.RenderingAttributes}.
  *
  * @author Martin Kouba
  */
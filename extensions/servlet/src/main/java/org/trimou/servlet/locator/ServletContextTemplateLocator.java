@@ -19,6 +19,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -35,6 +37,7 @@ import org.trimou.engine.locator.TemplateLocator;
 import org.trimou.exception.MustacheException;
 import org.trimou.exception.MustacheProblem;
 import org.trimou.servlet.RequestHolder;
+import org.trimou.util.Files;
 import org.trimou.util.Strings;
 
 /**
@@ -106,7 +109,7 @@ public class ServletContextTemplateLocator extends PathTemplateLocator<String> {
                     "Servlet context not available");
         }
 
-        String path = getRootPath() + addSuffix(toRealPath(templatePath));
+        String path = getPath(templatePath);
         InputStream in = ctx.getResourceAsStream(path);
 
         if (in == null) {
@@ -123,6 +126,20 @@ public class ServletContextTemplateLocator extends PathTemplateLocator<String> {
         }
     }
 
+    @Override
+    public long getLastModified(String templatePath) {
+        ServletContext ctx = getServletContext();
+        if (ctx == null) {
+            return 0L;
+        }
+        try {
+            URL resource = ctx.getResource(getPath(templatePath));
+            return resource != null ? Files.getLastModified(resource) : 0L;
+        } catch (MalformedURLException e) {
+            return 0L;
+        }
+    }
+
     @Override
     public Set<String> getAllIdentifiers() {
 
@@ -173,6 +190,10 @@ public class ServletContextTemplateLocator extends PathTemplateLocator<String> {
         return resources;
     }
 
+    private String getPath(String templatePath) {
+        return getRootPath() + addSuffix(toRealPath(templatePath));
+    }
+
     private void checkRootPath() {
         if (getRootPath() == null || !getRootPath().startsWith(Strings.SLASH)) {
             throw new MustacheException(
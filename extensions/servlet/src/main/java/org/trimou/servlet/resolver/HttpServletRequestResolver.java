@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trimou.engine.config.ConfigurationKey;
 import org.trimou.engine.config.SimpleConfigurationKey;
+import org.trimou.engine.context.RenderingAttributes;
 import org.trimou.engine.listener.MustacheListener;
 import org.trimou.engine.listener.MustacheRenderingEvent;
 import org.trimou.engine.resolver.AbstractResolver;
@@ -37,7 +38,10 @@ import org.trimou.servlet.RequestHolder;
 
 /**
  * This resolver must be also registered as a {@link MustacheListener} in order
- * to work correctly.
+ * to work correctly. The current request is obtained when the rendering starts
+ * and stored in the {@link RenderingAttributes}, i.e. it's also available to
+ * asynchronous helpers. The wrapper is only created if the request is actually
+ * resolved.
  * <p>
  * If the configuration property with key {@link #ENABLED_KEY} resolves to
  * false, the resolver is marked as invalid.
@@ -63,7 +67,11 @@ public class HttpServletRequestResolver extends AbstractResolver
     private static final Logger LOGGER = LoggerFactory
             .getLogger(HttpServletRequestResolver.class);
 
-    private static final ThreadLocal<HttpServletRequestWrapper> REQUEST_WRAPPER = new ThreadLocal<>();
+    static final String ATTRIBUTE_REQUEST = HttpServletRequestResolver.class
+            .getName() + ".request";
+
+    static final String ATTRIBUTE_REQUEST_WRAPPER = HttpServletRequestResolver.class
+            .getName() + ".requestWrapper";
 
     private boolean isEnabled;
 
@@ -86,13 +94,21 @@ public class HttpServletRequestResolver extends AbstractResolver
         if (NAME_REQUEST.equals(name)) {
 
             // Wrapper is cached for each template execution/rendering
-            HttpServletRequestWrapper wrapper = REQUEST_WRAPPER.get();
-
-            if (wrapper == null) {
-                HttpServletRequest request = RequestHolder.getCurrentRequest();
-                if (request != null) {
-                    wrapper = new HttpServletRequestWrapper(request);
-                    REQUEST_WRAPPER.set(wrapper);
+            RenderingAttributes attributes = context.getRenderingAttributes();
+            Object request = attributes != null
+                    ? attributes.getAttribute(ATTRIBUTE_REQUEST)
+                    : null;
+            Object wrapper = null;
+
+            if (request != null) {
+                wrapper = attributes.computeAttributeIfAbsent(
+                        ATTRIBUTE_REQUEST_WRAPPER,
+                        key -> new HttpServletRequestWrapper(
+                                (HttpServletRequest) request));
+            } else {
+                HttpServletRequest current = RequestHolder.getCurrentRequest();
+                if (current != null) {
+                    wrapper = new HttpServletRequestWrapper(current);
                 } else {
                     LOGGER.warn("Unable to get the current HTTP request");
                 }
@@ -102,6 +118,12 @@ public class HttpServletRequestResolver extends AbstractResolver
         return null;
     }
 
+    @Override
+    public boolean appliesTo(Class<?> contextObjectType) {
+        // Only context-unrelated lookups are supported
+        return contextObjectType == null;
+    }
+
     @Override
     public void init() {
         this.isEnabled = configuration.getBooleanPropertyValue(ENABLED_KEY);
@@ -114,7 +136,12 @@ public class HttpServletRequestResolver extends AbstractResolver
 
     @Override
     public void renderingStarted(MustacheRenderingEvent event) {
-        event.registerReleaseCallback(REQUEST_WRAPPER::remove);
+        HttpServletRequest request = RequestHolder.getCurrentRequest();
+        if (request != null) {
+            // The wrapper is created lazily, see resolve()
+            event.getRenderingAttributes().setAttribute(ATTRIBUTE_REQUEST,
+                    request);
+        }
     }
 
     @Override
@@ -1,11 +1,29 @@
 package org.trimou.servlet.resolver;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.http.HttpServletRequest;
+
 import org.junit.Test;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.MustacheEngineBuilder;
+import org.trimou.engine.listener.MustacheListener;
+import org.trimou.engine.listener.MustacheRenderingEvent;
+import org.trimou.engine.resolver.ReflectionResolver;
+import org.trimou.engine.resolver.ThisResolver;
+import org.trimou.handlebars.HelpersBuilder;
+import org.trimou.servlet.RequestListener;
 
 /**
  *
@@ -29,4 +47,83 @@ public class HttpServletRequestResolverTest {
         assertTrue(engine.getConfiguration().getResolvers().isEmpty());
     }
 
+    @Test
+    public void testAsyncHelper() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        HttpServletRequestResolver resolver = new HttpServletRequestResolver();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .setExecutorService(executor)
+                .addResolver(new ThisResolver())
+                .addResolver(new ReflectionResolver())
+                .addResolver(resolver).addMustacheListener(resolver)
+                .setProperty(HttpServletRequestResolver.ENABLED_KEY, true)
+                .registerHelpers(HelpersBuilder.empty().addAsync().build())
+                .build();
+        HttpServletRequest request = newProxy(HttpServletRequest.class,
+                (proxy, method, args) -> "getMethod".equals(method.getName())
+                        ? "POST" : null);
+        RequestListener listener = new RequestListener();
+        ServletRequestEvent event = new ServletRequestEvent(
+                newProxy(ServletContext.class, (proxy, method, args) -> null),
+                request);
+        listener.requestInitialized(event);
+        try {
+            // The request is not bound to the executor thread
+            assertEquals("POST:POST", engine
+                    .compileMustache("request_async",
+                            "{{request.method}}:{{#async}}{{request.method}}{{/async}}")
+                    .render(null));
+        } finally {
+            listener.requestDestroyed(event);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrapperCreatedLazily() {
+        HttpServletRequestResolver resolver = new HttpServletRequestResolver();
+        List<Object> wrappers = new ArrayList<>();
+        MustacheEngine engine = MustacheEngineBuilder.newBuilder()
+                .omitServiceLoaderConfigurationExtensions()
+                .addResolver(new ReflectionResolver())
+                .addResolver(resolver).addMustacheListener(resolver)
+                .addMustacheListener(new MustacheListener() {
+                    @Override
+                    public void renderingFinished(
+                            MustacheRenderingEvent event) {
+                        wrappers.add(event.getRenderingAttributes().getAttribute(
+                                HttpServletRequestResolver.ATTRIBUTE_REQUEST_WRAPPER));
+                    }
+                })
+                .setProperty(HttpServletRequestResolver.ENABLED_KEY, true)
+                .build();
+        HttpServletRequest request = newProxy(HttpServletRequest.class,
+                (proxy, method, args) -> "getMethod".equals(method.getName())
+                        ? "GET" : null);
+        RequestListener listener = new RequestListener();
+        ServletRequestEvent event = new ServletRequestEvent(
+                newProxy(ServletContext.class, (proxy, method, args) -> null),
+                request);
+        listener.requestInitialized(event);
+        try {
+            assertEquals("foo", engine
+                    .compileMustache("request_lazy_none", "foo").render(null));
+            assertNull(wrappers.get(0));
+            assertEquals("GET:GET",
+                    engine.compileMustache("request_lazy",
+                            "{{request.method}}:{{request.method}}")
+                            .render(null));
+            assertTrue(
+                    wrappers.get(1) instanceof HttpServletRequestWrapper);
+        } finally {
+            listener.requestDestroyed(event);
+        }
+    }
+
+    private <T> T newProxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+
 }
@@ -21,6 +21,7 @@ import javax.servlet.Servlet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -76,13 +77,21 @@ public class TrimouAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean(MustacheEngine.class)
-    public MustacheEngine mustacheEngine(final SpringResourceTemplateLocator springResourceTemplateLocator) {
+    public MustacheEngine mustacheEngine(final SpringResourceTemplateLocator springResourceTemplateLocator,
+            final ObjectProvider<TrimouMetrics> metrics) {
         final MustacheEngineBuilder mustacheEngineBuilder = MustacheEngineBuilder.newBuilder()
                 .addTemplateLocator(springResourceTemplateLocator);
         properties.applyToTrimouMustacheEngineBuilder(mustacheEngineBuilder);
         for (TrimouConfigurer configurer : applicationContext.getBeansOfType(TrimouConfigurer.class).values()) {
             configurer.configure(mustacheEngineBuilder);
         }
+        final TrimouMetrics trimouMetrics = metrics.getIfAvailable();
+        if (trimouMetrics != null) {
+            // Instrument the final cache factory, i.e. possibly set by a configurer
+            mustacheEngineBuilder
+                    .setComputingCacheFactory(trimouMetrics.instrument(mustacheEngineBuilder.getComputingCacheFactory()))
+                    .addMustacheListener(trimouMetrics);
+        }
         return mustacheEngineBuilder.build();
     }
 
@@ -96,6 +105,24 @@ public class TrimouAutoConfiguration {
         return locator;
     }
 
+    @Configuration
+    @ConditionalOnProperty(name = "trimou.management.enabled", matchIfMissing = true)
+    protected static class TrimouManagementConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(TrimouMetrics.class)
+        public TrimouMetrics trimouMetrics() {
+            return new TrimouMetrics();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(TrimouTemplateCacheManagement.class)
+        public TrimouTemplateCacheManagement trimouTemplateCacheManagement(final MustacheEngine engine,
+                final ObjectProvider<TrimouViewResolver> viewResolver) {
+            return new TrimouTemplateCacheManagement(engine, viewResolver.getIfAvailable());
+        }
+    }
+
     @Configuration
     @ConditionalOnWebApplication
     @ConditionalOnClass(Servlet.class)
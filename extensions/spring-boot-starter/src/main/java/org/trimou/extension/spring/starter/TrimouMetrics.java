@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 Trimou Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.trimou.extension.spring.starter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.cache.ComputingCache;
+import org.trimou.engine.cache.ComputingCacheFactory;
+import org.trimou.engine.cache.DefaultComputingCacheFactory;
+import org.trimou.engine.config.Configuration;
+import org.trimou.engine.config.ConfigurationKey;
+import org.trimou.engine.listener.AbstractMustacheListener;
+import org.trimou.engine.listener.MustacheCompilationEvent;
+import org.trimou.engine.listener.MustacheRenderingEvent;
+import org.trimou.engine.resolver.ReflectionResolver;
+import org.trimou.handlebars.CacheHelper;
+
+/**
+ * Collects the rendering and cache metrics of the auto-configured {@link MustacheEngine} and exposes them as a JMX
+ * managed resource.
+ * <p>
+ * The cache statistics are collected per cache consumer, e.g. {@link MustacheEngine#COMPUTING_CACHE_CONSUMER_ID}
+ * for the template and source caches, {@link ReflectionResolver#COMPUTING_CACHE_CONSUMER_ID} for the member cache
+ * or {@link CacheHelper} for the fragment cache.
+ *
+ * @see TrimouAutoConfiguration
+ */
+@ManagedResource(description = "Trimou rendering and cache metrics")
+public class TrimouMetrics extends AbstractMustacheListener {
+
+    /**
+     * The upper bounds of the rendering time histogram buckets in milliseconds.
+     */
+    static final long[] RENDERING_TIME_BUCKETS = { 1, 5, 10, 25, 50, 100, 250, 500, 1000 };
+
+    static final String BUCKET_INF = "+Inf";
+
+    private final LongAdder compilations = new LongAdder();
+
+    private final LongAdder renderings = new LongAdder();
+
+    private final LongAdder renderingTime = new LongAdder();
+
+    // The last bucket represents +Inf
+    private final LongAdder[] renderingTimeBuckets;
+
+    private final ConcurrentMap<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    public TrimouMetrics() {
+        this.renderingTimeBuckets = new LongAdder[RENDERING_TIME_BUCKETS.length + 1];
+        for (int i = 0; i < renderingTimeBuckets.length; i++) {
+            renderingTimeBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param delegate the factory to instrument, if null the default factory is used
+     * @return a factory which collects the statistics of all created caches
+     */
+    public ComputingCacheFactory instrument(final ComputingCacheFactory delegate) {
+        return new InstrumentedComputingCacheFactory(delegate != null ? delegate : new DefaultComputingCacheFactory());
+    }
+
+    @Override
+    public void compilationFinished(final MustacheCompilationEvent event) {
+        compilations.increment();
+    }
+
+    @Override
+    public void renderingStarted(final MustacheRenderingEvent event) {
+        final long start = System.nanoTime();
+        event.registerReleaseCallback(() -> recordRendering(System.nanoTime() - start));
+    }
+
+    @ManagedAttribute(description = "The number of compiled templates")
+    public long getCompilationCount() {
+        return compilations.sum();
+    }
+
+    @ManagedAttribute(description = "The number of renderings")
+    public long getRenderingCount() {
+        return renderings.sum();
+    }
+
+    @ManagedAttribute(description = "The total rendering time in milliseconds")
+    public double getRenderingTimeTotalMillis() {
+        return renderingTime.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the cumulative rendering time histogram, the keys represent the upper bounds in milliseconds
+     */
+    @ManagedAttribute(description = "The cumulative rendering time histogram - upper bound in milliseconds to count")
+    public Map<String, Long> getRenderingTimeHistogram() {
+        final Map<String, Long> histogram = new LinkedHashMap<>();
+        long count = 0;
+        for (int i = 0; i < renderingTimeBuckets.length; i++) {
+            count += renderingTimeBuckets[i].sum();
+            histogram.put(i < RENDERING_TIME_BUCKETS.length ? Long.toString(RENDERING_TIME_BUCKETS[i]) : BUCKET_INF,
+                    count);
+        }
+        return histogram;
+    }
+
+    @ManagedAttribute(description = "The number of lookups per cache consumer")
+    public Map<String, Long> getCacheRequestCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        caches.forEach((consumerId, stats) -> counts.put(consumerId, stats.requests.sum()));
+        return counts;
+    }
+
+    @ManagedAttribute(description = "The hit rate per cache consumer")
+    public Map<String, Double> getCacheHitRates() {
+        final Map<String, Double> rates = new TreeMap<>();
+        caches.forEach((consumerId, stats) -> rates.put(consumerId, stats.getHitRate()));
+        return rates;
+    }
+
+    @ManagedOperation(description = "Reset all the metrics")
+    public void reset() {
+        compilations.reset();
+        renderings.reset();
+        renderingTime.reset();
+        for (LongAdder bucket : renderingTimeBuckets) {
+            bucket.reset();
+        }
+        caches.values().forEach(CacheStats::reset);
+    }
+
+    private void recordRendering(final long nanos) {
+        renderings.increment();
+        renderingTime.add(nanos);
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < RENDERING_TIME_BUCKETS.length && millis >= RENDERING_TIME_BUCKETS[bucket]) {
+            bucket++;
+        }
+        renderingTimeBuckets[bucket].increment();
+    }
+
+    private static final class CacheStats {
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        double getHitRate() {
+            final long requestCount = requests.sum();
+            return requestCount == 0 ? 0.0 : (requestCount - misses.sum()) / (double) requestCount;
+        }
+
+        void reset() {
+            requests.reset();
+            misses.reset();
+        }
+    }
+
+    private final class InstrumentedComputingCacheFactory implements ComputingCacheFactory {
+
+        private final ComputingCacheFactory delegate;
+
+        InstrumentedComputingCacheFactory(final ComputingCacheFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <K, V> ComputingCache<K, V> create(final String consumerId,
+                final ComputingCache.Function<K, V> computingFunction, final Long expirationTimeout,
+                final Long maxSize, final ComputingCache.Listener<K> listener) {
+            final CacheStats stats = caches.computeIfAbsent(consumerId, id -> new CacheStats());
+            return new InstrumentedComputingCache<>(delegate.create(consumerId, key -> {
+                stats.misses.increment();
+                return computingFunction.compute(key);
+            }, expirationTimeout, maxSize, listener), stats);
+        }
+
+        @Override
+        public void init(final Configuration configuration) {
+            delegate.init(configuration);
+        }
+
+        @Override
+        public Set<ConfigurationKey> getConfigurationKeys() {
+            return delegate.getConfigurationKeys();
+        }
+    }
+
+    private static final class InstrumentedComputingCache<K, V> implements ComputingCache<K, V> {
+
+        private final ComputingCache<K, V> delegate;
+
+        private final CacheStats stats;
+
+        InstrumentedComputingCache(final ComputingCache<K, V> delegate, final CacheStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+        }
+
+        @Override
+        public V get(final K key) {
+            stats.requests.increment();
+            return delegate.get(key);
+        }
+
+        @Override
+        public V getIfPresent(final K key) {
+            stats.requests.increment();
+            final V value = delegate.getIfPresent(key);
+            if (value == null) {
+                stats.misses.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public long size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void invalidate(final KeyPredicate<K> keyPredicate) {
+            delegate.invalidate(keyPredicate);
+        }
+
+        @Override
+        public Map<K, V> getAllPresent() {
+            return delegate.getAllPresent();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Trimou Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.trimou.extension.spring.starter;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.spring4.web.TrimouViewResolver;
+import org.trimou.util.Checker;
+
+/**
+ * Allows to invalidate the template cache of the auto-configured {@link MustacheEngine}, either programmatically or
+ * as a JMX managed resource. The views cached by {@link TrimouViewResolver} (if any) are cleared as well, otherwise an
+ * invalidated template would still be used to render the cached views.
+ *
+ * @see MustacheEngine#invalidateTemplateCache(Predicate)
+ * @see TrimouAutoConfiguration
+ */
+@ManagedResource(description = "Trimou template cache management")
+public class TrimouTemplateCacheManagement {
+
+    private final MustacheEngine engine;
+
+    private final TrimouViewResolver viewResolver;
+
+    /**
+     * @param engine       the engine
+     * @param viewResolver the view resolver, may be {@code null}
+     */
+    public TrimouTemplateCacheManagement(final MustacheEngine engine, final TrimouViewResolver viewResolver) {
+        Checker.checkArgumentNotNull(engine);
+        this.engine = engine;
+        this.viewResolver = viewResolver;
+    }
+
+    /**
+     * Invalidate all the templates whose names match the given regular expression.
+     *
+     * @param regex the regular expression
+     */
+    @ManagedOperation(description = "Invalidate all the templates whose names match the given regular expression")
+    @ManagedOperationParameter(name = "regex", description = "The regular expression, e.g. 'order/.*'")
+    public void invalidateTemplates(final String regex) {
+        final Pattern pattern = Pattern.compile(regex);
+        invalidateTemplates(name -> pattern.matcher(name).matches());
+    }
+
+    /**
+     * Invalidate all the templates whose names satisfy the given predicate.
+     *
+     * @param predicate the predicate
+     */
+    public void invalidateTemplates(final Predicate<String> predicate) {
+        engine.invalidateTemplateCache(predicate);
+        clearViewCache();
+    }
+
+    @ManagedOperation(description = "Invalidate all the templates")
+    public void invalidateAllTemplates() {
+        engine.invalidateTemplateCache();
+        clearViewCache();
+    }
+
+    private void clearViewCache() {
+        if (viewResolver != null) {
+            viewResolver.clearCache();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Trimou Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.trimou.extension.spring.starter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jmx.JmxAutoConfiguration;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.trimou.engine.MustacheEngine;
+import org.trimou.engine.MustacheEngineBuilder;
+
+/**
+ * Tests for {@link TrimouMetrics} and {@link TrimouTemplateCacheManagement}.
+ */
+@RunWith(SpringRunner.class)
+@DirtiesContext
+@SpringBootTest(classes = {TestApplication.class, JmxAutoConfiguration.class, TrimouManagementTest.Footer.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jmx.enabled=true")
+public class TrimouManagementTest {
+
+    @Autowired
+    private EmbeddedWebApplicationContext context;
+
+    @Autowired
+    private TrimouMetrics metrics;
+
+    @Autowired
+    private TrimouTemplateCacheManagement management;
+
+    @Autowired
+    private MBeanServer mBeanServer;
+
+    @Autowired
+    private MustacheEngine engine;
+
+    private int port;
+
+    @Before
+    public void init() {
+        this.port = context.getEmbeddedServletContainer().getPort();
+        metrics.reset();
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        assertThat(getSimplePage(), containsString("(c) Trimou Team"));
+        assertThat(getSimplePage(), containsString("(c) Trimou Team"));
+        assertThat(metrics.getRenderingCount(), is(2L));
+        final Map<String, Long> histogram = metrics.getRenderingTimeHistogram();
+        assertThat(histogram.size(), is(TrimouMetrics.RENDERING_TIME_BUCKETS.length + 1));
+        assertThat(histogram.get(TrimouMetrics.BUCKET_INF), is(2L));
+        // Views are cached by the view resolver
+        engine.getMustache("home");
+        engine.getMustache("home");
+        assertThat(metrics.getCacheRequestCounts().get(MustacheEngine.COMPUTING_CACHE_CONSUMER_ID), greaterThan(1L));
+        assertThat(metrics.getCacheHitRates().get(MustacheEngine.COMPUTING_CACHE_CONSUMER_ID), greaterThan(0.0));
+    }
+
+    @Test
+    public void invalidateTemplates() throws Exception {
+        getSimplePage();
+        final long compilations = metrics.getCompilationCount();
+        getSimplePage();
+        assertThat(metrics.getCompilationCount(), is(compilations));
+        management.invalidateTemplates("home");
+        getSimplePage();
+        assertThat(metrics.getCompilationCount(), is(compilations + 1));
+    }
+
+    @Test
+    public void managedResources() throws Exception {
+        assertThat(mBeanServer.queryNames(new ObjectName("*:type=TrimouMetrics,*"), null).size(), is(1));
+        assertThat(mBeanServer.queryNames(new ObjectName("*:type=TrimouTemplateCacheManagement,*"), null).size(),
+                is(1));
+    }
+
+    private String getSimplePage() {
+        return new TestRestTemplate().getForObject("http://localhost:" + port, String.class);
+    }
+
+    @Configuration
+    static class Footer implements TrimouConfigurer {
+
+        @Override
+        public void configure(final MustacheEngineBuilder engineBuilder) {
+            engineBuilder.addGlobalData("footer", "(c) Trimou Team");
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.trimou.engine.MustacheEngine;
 import org.trimou.engine.locator.AbstractTemplateLocator;
@@ -78,6 +79,17 @@ public final class SpringResourceTemplateLocator extends AbstractTemplateLocator
         return null;
     }
 
+    @Override
+    public long getLastModified(final String name) {
+        final Resource resource = resourceLoader.getResource(prefix + name + suffix);
+        try {
+            return resource.exists() ? resource.lastModified() : 0L;
+        } catch (IOException e) {
+            // The resource does not support the last modification timestamp
+            return 0L;
+        }
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -59,6 +59,13 @@ public class SpringResourceTemplateLocatorTest {
         assertThat(loader.locate("unknown"), is(nullValue()));
     }
 
+    @Test
+    public void lastModified() throws Exception {
+        final SpringResourceTemplateLocator loader = new SpringResourceTemplateLocator();
+        assertThat(loader.getLastModified("home") > 0, is(true));
+        assertThat(loader.getLastModified("unknown"), is(0L));
+    }
+
     @Test
     public void availabilityOfTemplateWithCustomPrefix() throws Exception {
         final SpringResourceTemplateLocator loader = new SpringResourceTemplateLocator(1,